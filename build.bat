@@ -18,7 +18,7 @@ if %ERRORLEVEL% EQU 0 (
     echo JAR file created at: target\spring-boot-project-manager-0.0.1-SNAPSHOT.jar
     echo.
     echo To run the application:
-    echo java -jar target\spring-boot-project-manager-0.0.1-SNAPSHOT.jar
+    echo java --enable-preview -jar target\spring-boot-project-manager-0.0.1-SNAPSHOT.jar
     echo.
 ) else (
     echo.
@@ -31,17 +31,14 @@ import {
   fetchProjectTasksRequest,
   createProjectRequest,
   executeTaskStreamStart,
-  executeTaskStreamChunk,
-  executeTaskStreamComplete,
-  executeTaskStreamError,
 } from '../store/actions/agentActions';
-import { executeTaskStream } from '../store/api/streamingApi';
 import ContentRenderer from '../components/ContentRenderer';
 
 const AgentProjects: React.FC = () => {
   const dispatch = useAppDispatch();
   const {
     projects,
+    projectsNextCursor,
     projectInfo,
     projectTasks,
     loading,
@@ -81,40 +78,8 @@ const AgentProjects: React.FC = () => {
   };
 
   const handleExecuteTask = (taskId: string) => {
-    // Start streaming
+    // Streams over the shared task stream socket, see agentSaga
     dispatch(executeTaskStreamStart(taskId));
-
-    // Get the project ID for this task (to refetch later)
-    let projectIdForTask: string | null = null;
-    Object.keys(projectTasks).forEach((projectId) => {
-      if (projectTasks[projectId].some((t) => t.id === taskId)) {
-        projectIdForTask = projectId;
-      }
-    });
-
-    // Use the streaming API
-    executeTaskStream(
-      taskId,
-      (content) => {
-        // Update content as chunks arrive
-        dispatch(executeTaskStreamChunk(taskId, content));
-      },
-      () => {
-        // Streaming complete
-        dispatch(executeTaskStreamComplete(taskId));
-
-        // Refetch tasks to get the saved result with token count from backend
-        if (projectIdForTask) {
-          setTimeout(() => {
-            dispatch(fetchProjectTasksRequest(projectIdForTask));
-          }, 1000); // Small delay to ensure backend has saved
-        }
-      },
-      (error) => {
-        // Streaming error
-        dispatch(executeTaskStreamError(taskId, error.message));
-      }
-    );
   };
 
   const handleCreateProject = () => {
@@ -156,6 +121,9 @@ const AgentProjects: React.FC = () => {
         return <CheckCircleIcon style={{ width: 20, height: 20, color: '#4caf50' }} />;
       case 'ASSIGNED':
         return <ClockIcon style={{ width: 20, height: 20, color: '#ff9800' }} />;
+      case 'IN_PROGRESS':
+      case 'CANCELLED':
+        return <ClockIcon style={{ width: 20, height: 20, color: '#2196f3' }} />;
       default:
         return <ClockIcon style={{ width: 20, height: 20, color: '#9e9e9e' }} />;
     }
@@ -314,6 +282,8 @@ const AgentProjects: React.FC = () => {
                                   ? 'success'
                                   : task.status === 'ASSIGNED'
                                   ? 'warning'
+                                  : task.status === 'IN_PROGRESS' || task.status === 'CANCELLED'
+                                  ? 'info'
                                   : 'default'
                               }
                             />
@@ -348,6 +318,8 @@ const AgentProjects: React.FC = () => {
                                   ? 'success'
                                   : task.status === 'ASSIGNED'
                                   ? 'warning'
+                                  : task.status === 'IN_PROGRESS' || task.status === 'CANCELLED'
+                                  ? 'info'
                                   : 'default'
                               }
                             />
@@ -420,7 +392,7 @@ const AgentProjects: React.FC = () => {
                           )}
 
                           {/* Action Button */}
-                          {task.status === 'ASSIGNED' && !streamingTasks[task.id] && (
+                          {['ASSIGNED', 'IN_PROGRESS', 'CANCELLED'].includes(task.status) && !streamingTasks[task.id] && (
                             <Box sx={{ display: 'flex', justifyContent: 'flex-end' }}>
                               <Button
                                 variant="contained"
@@ -435,7 +407,11 @@ const AgentProjects: React.FC = () => {
                                 onClick={() => handleExecuteTask(task.id)}
                                 disabled={executingTasks[task.id] || streamingTasks[task.id]}
                               >
-                                {streamingTasks[task.id] ? 'Streaming...' : 'Execute Task'}
+                                {streamingTasks[task.id]
+                                  ? 'Streaming...'
+                                  : task.status === 'IN_PROGRESS' || task.status === 'CANCELLED'
+                                  ? 'Continue Task'
+                                  : 'Execute Task'}
                               </Button>
                             </Box>
                           )}
@@ -450,6 +426,19 @@ const AgentProjects: React.FC = () => {
         );
       })}
 
+      {/* Next Page */}
+      {projectsNextCursor && (
+        <Box sx={{ display: 'flex', justifyContent: 'center', mt: 2 }}>
+          <Button
+            variant="outlined"
+            disabled={loading}
+            onClick={() => dispatch(fetchAgentProjectsRequest(projectsNextCursor))}
+          >
+            {loading ? <CircularProgress size={20} /> : 'Load more'}
+          </Button>
+        </Box>
+      )}
+
       {/* Create Project Dialog */}
       <Dialog
         open={createDialogOpen}
@@ -18,7 +18,7 @@ import MarkdownEditor from '../components/MarkdownEditor';
 
 const Notes: React.FC = () => {
   const dispatch = useAppDispatch();
-  const { notes, loading } = useAppSelector((state) => state.notes);
+  const { notes, nextCursor, loading } = useAppSelector((state) => state.notes);
   const [showNewNote, setShowNewNote] = useState(false);
 
   useEffect(() => {
@@ -55,7 +55,7 @@ const Notes: React.FC = () => {
         </Button>
       </Box>
 
-      {loading ? (
+      {loading && notes.length === 0 ? (
         <Typography>Loading...</Typography>
       ) : (
         <Grid container spacing={3}>
@@ -78,6 +78,18 @@ const Notes: React.FC = () => {
             </Grid>
           ))}
 
+          {nextCursor && (
+            <Grid item xs={12} sx={{ display: 'flex', justifyContent: 'center' }}>
+              <Button
+                variant="outlined"
+                disabled={loading}
+                onClick={() => dispatch(fetchNotesRequest(nextCursor))}
+              >
+                Load more
+              </Button>
+            </Grid>
+          )}
+
           {notes.length === 0 && !showNewNote && (
             <Grid item xs={12}>
               <Typography color="textSecondary" align="center">
@@ -3,10 +3,14 @@ export interface Task {
   id: string;
   description: string;
   type: string;
-  status: 'PENDING' | 'ASSIGNED' | 'COMPLETED';
+  status: 'PENDING' | 'ASSIGNED' | 'IN_PROGRESS' | 'CANCELLED' | 'COMPLETED';
   result: string | null;
+  resultOffset?: number | null;
   assignedAgent: string | null;
   tokensUsed: number | null;
+  promptTokens?: number | null;
+  completionTokens?: number | null;
+  dependsOn?: string[];
 }
 
 export interface ProjectInfo {
@@ -62,6 +66,7 @@ export const CREATE_PROJECT_FAILURE = 'CREATE_PROJECT_FAILURE';
 // Action Interfaces
 interface FetchAgentProjectsRequestAction {
   type: typeof FETCH_AGENT_PROJECTS_REQUEST;
+  payload?: string; // cursor of the page to load, none for the first page
 }
 
 interface FetchAgentProjectsSuccessAction {
@@ -69,6 +74,8 @@ interface FetchAgentProjectsSuccessAction {
   payload: {
     projects: string[];
     projectInfo: Record<string, ProjectInfo>;
+    nextCursor: string | null;
+    append: boolean;
   };
 }
 
@@ -174,16 +181,19 @@ export type AgentActionTypes =
   | CreateProjectFailureAction;
 
 // Action Creators
-export const fetchAgentProjectsRequest = (): FetchAgentProjectsRequestAction => ({
+export const fetchAgentProjectsRequest = (cursor?: string): FetchAgentProjectsRequestAction => ({
   type: FETCH_AGENT_PROJECTS_REQUEST,
+  payload: cursor,
 });
 
 export const fetchAgentProjectsSuccess = (
   projects: string[],
-  projectInfo: Record<string, ProjectInfo>
+  projectInfo: Record<string, ProjectInfo>,
+  nextCursor: string | null = null,
+  append = false
 ): FetchAgentProjectsSuccessAction => ({
   type: FETCH_AGENT_PROJECTS_SUCCESS,
-  payload: { projects, projectInfo },
+  payload: { projects, projectInfo, nextCursor, append },
 });
 
 export const fetchAgentProjectsFailure = (
@@ -54,11 +54,16 @@ interface FetchProjectsFailureAction {
 
 interface FetchNotesRequestAction {
   type: typeof FETCH_NOTES_REQUEST;
+  payload?: string; // cursor of the page to load, none for the first page
 }
 
 interface FetchNotesSuccessAction {
   type: typeof FETCH_NOTES_SUCCESS;
-  payload: Note[];
+  payload: {
+    notes: Note[];
+    nextCursor: string | null;
+    append: boolean;
+  };
 }
 
 interface FetchNotesFailureAction {
@@ -145,13 +150,18 @@ export const fetchProjectsFailure = (error: string): FetchProjectsFailureAction
   payload: error,
 });
 
-export const fetchNotesRequest = (): FetchNotesRequestAction => ({
+export const fetchNotesRequest = (cursor?: string): FetchNotesRequestAction => ({
   type: FETCH_NOTES_REQUEST,
+  payload: cursor,
 });
 
-export const fetchNotesSuccess = (notes: Note[]): FetchNotesSuccessAction => ({
+export const fetchNotesSuccess = (
+  notes: Note[],
+  nextCursor: string | null = null,
+  append = false
+): FetchNotesSuccessAction => ({
   type: FETCH_NOTES_SUCCESS,
-  payload: notes,
+  payload: { notes, nextCursor, append },
 });
 
 export const fetchNotesFailure = (error: string): FetchNotesFailureAction => ({
@@ -21,7 +21,7 @@ export const projectsApi = {
 };
 
 export const notesApi = {
-  fetchNotes: () => api.get<Note[]>('/notes'),
+  fetchNotes: (cursor?: string) => api.get<Note[]>('/notes', { params: { cursor } }),
   getNote: (id: string) => api.get<Note>(`/notes/${id}`),
   createNote: (note: Omit<Note, 'id' | 'createdAt' | 'updatedAt'>) =>
     api.post<Note>('/notes', note),
@@ -1,11 +1,32 @@
 import { API_BASE_URL } from './index';
 
+/**
+ * A piece of streamed task output in the delta protocol
+ */
+interface StreamDelta {
+  generation: string;
+  seq: number;
+  offset: number;
+  text: string;
+}
+
+const utf8Encoder = new TextEncoder();
+
+// Reconnect attempts without receiving data before the stream is reported as failed
+const MAX_RECONNECT_ATTEMPTS = 5;
+
 /**
  * Execute a task with BUFFERED streaming response using Server-Sent Events
  * Uses server-side buffering for improved UI rendering performance
  *
+ * The server sends deltas (only the new text of each flush), which are appended here,
+ * so onChunk still receives the full content accumulated so far. If the connection drops,
+ * EventSource reconnects with the Last-Event-ID header and the server resumes after the last delta.
+ * If the task got a new generation in the meantime, the server replays it from the beginning and the
+ * content starts over.
+ *
  * @param taskId The ID of the task to execute
- * @param onChunk Callback function called for each chunk of data
+ * @param onChunk Callback function called with the accumulated content after each chunk
  * @param onComplete Callback function called when streaming is complete
  * @param onError Callback function called on error
  * @returns EventSource instance (can be used to abort)
@@ -17,14 +38,39 @@ export const executeTaskStream = (
   onError: (error: Error) => void
 ): EventSource => {
   const eventSource = new EventSource(
-    `${API_BASE_URL}/tasks/${taskId}/execute-stream-buffered`
+    `${API_BASE_URL}/tasks/${taskId}/execute-stream-buffered?mode=delta`
   );
 
+  let content = '';
+  let generation: string | null = null;
+  let lastSeq = 0;
+  let receivedBytes = 0;
+  let reconnectAttempts = 0;
+
   eventSource.onmessage = (event) => {
-    const chunk = event.data;
-    // Server sends accumulated content with buffering
-    // No need to accumulate on client side
-    onChunk(chunk);
+    const delta: StreamDelta = JSON.parse(event.data);
+    // A new generation numbers its deltas from 1 again and replays the output from the beginning
+    if (delta.generation !== generation) {
+      generation = delta.generation;
+      content = '';
+      lastSeq = 0;
+      receivedBytes = 0;
+    }
+    // Ignore deltas that were already applied
+    if (delta.seq <= lastSeq) {
+      return;
+    }
+    if (delta.offset !== receivedBytes) {
+      eventSource.close();
+      onError(new Error(`Stream gap at byte ${receivedBytes}, server sent offset ${delta.offset}`));
+      return;
+    }
+
+    content += delta.text;
+    lastSeq = delta.seq;
+    reconnectAttempts = 0;
+    receivedBytes += utf8Encoder.encode(delta.text).length;
+    onChunk(content);
   };
 
   eventSource.addEventListener('complete', () => {
@@ -33,9 +79,238 @@ export const executeTaskStream = (
   });
 
   eventSource.onerror = () => {
+    // While CONNECTING the browser retries on its own and resumes via Last-Event-ID
+    if (eventSource.readyState === EventSource.CONNECTING && ++reconnectAttempts <= MAX_RECONNECT_ATTEMPTS) {
+      return;
+    }
     eventSource.close();
     onError(new Error('Stream connection error'));
   };
 
   return eventSource;
 };
+
+/**
+ * Callbacks of one task stream on the multiplexed socket
+ */
+interface TaskStreamHandlers {
+  onChunk: (content: string) => void;
+  onComplete: () => void;
+  onError: (error: Error) => void;
+}
+
+/**
+ * Client state of one task stream on the multiplexed socket
+ */
+interface SocketTaskStream extends TaskStreamHandlers {
+  content: string;
+  generation: string | null;
+  lastSeq: number;
+  receivedBytes: number;
+  // Deltas the server may still send before it needs more credits
+  credits: number;
+}
+
+/**
+ * Message sent by the server on the multiplexed socket
+ */
+interface TaskStreamFrame {
+  type: 'delta' | 'complete' | 'error';
+  taskId: string | null;
+  generation?: string;
+  seq?: number;
+  offset?: number;
+  text?: string;
+  error?: string;
+}
+
+// Deltas a task stream may receive before the client grants more; refilled once half are used
+const STREAM_CREDITS = 16;
+
+/**
+ * One WebSocket carrying the streams of all executing tasks
+ *
+ * Browsers allow only six HTTP/1.1 connections per origin, so one EventSource per task stalls once
+ * several tasks execute at the same time. All task streams share this socket instead. Each stream has
+ * its own credits: the client grants more only after the received deltas were rendered, so a busy or
+ * hidden tab makes the server merge pending output into fewer, larger deltas instead of queueing them.
+ * If the socket drops, it reconnects and every stream resumes after the last delta it received.
+ */
+class TaskStreamSocket {
+  private socket: WebSocket | null = null;
+  private streams = new Map<string, SocketTaskStream>();
+  private outbox: string[] = [];
+  private reconnectAttempts = 0;
+
+  /**
+   * Execute a task and stream its output over the shared socket
+   *
+   * @param taskId The ID of the task to execute
+   * @param handlers Callbacks receiving the accumulated content, completion and errors
+   * @returns Function that stops streaming the task
+   */
+  subscribe(taskId: string, handlers: TaskStreamHandlers): () => void {
+    this.streams.set(taskId, { ...handlers, content: '', generation: null, lastSeq: 0, receivedBytes: 0, credits: STREAM_CREDITS });
+    this.sendSubscribe(taskId);
+    return () => {
+      if (this.streams.delete(taskId)) {
+        this.send({ type: 'cancel', taskId });
+        this.closeIfIdle();
+      }
+    };
+  }
+
+  /**
+   * Subscribe to a task, after the last delta received if there is one
+   */
+  private sendSubscribe(taskId: string) {
+    const stream = this.streams.get(taskId);
+    if (stream) {
+      stream.credits = STREAM_CREDITS;
+      const lastEventId = stream.generation === null ? null : `${stream.generation}:${stream.lastSeq}`;
+      this.send({ type: 'subscribe', taskId, lastEventId, credits: STREAM_CREDITS });
+    }
+  }
+
+  private send(message: object) {
+    const data = JSON.stringify(message);
+    if (this.socket?.readyState === WebSocket.OPEN) {
+      this.socket.send(data);
+      return;
+    }
+    this.outbox.push(data);
+    this.connect();
+  }
+
+  private connect() {
+    if (this.socket) {
+      return;
+    }
+    const protocol = window.location.protocol === 'https:' ? 'wss' : 'ws';
+    const socket = new WebSocket(`${protocol}://${window.location.host}${API_BASE_URL}/tasks/stream-socket`);
+    this.socket = socket;
+
+    socket.onopen = () => {
+      this.outbox.forEach((data) => socket.send(data));
+      this.outbox = [];
+    };
+    socket.onmessage = (event) => this.onFrame(JSON.parse(event.data));
+    socket.onclose = () => {
+      if (this.socket === socket) {
+        this.socket = null;
+        this.reconnect();
+      }
+    };
+  }
+
+  /**
+   * Reopen the socket and resume every open stream after its last delta
+   */
+  private reconnect() {
+    this.outbox = [];
+    if (this.streams.size === 0) {
+      return;
+    }
+    if (++this.reconnectAttempts > MAX_RECONNECT_ATTEMPTS) {
+      const failed = [...this.streams.values()];
+      this.streams.clear();
+      this.reconnectAttempts = 0;
+      failed.forEach((stream) => stream.onError(new Error('Stream connection error')));
+      return;
+    }
+    setTimeout(() => {
+      [...this.streams.keys()].forEach((taskId) => this.sendSubscribe(taskId));
+    }, 1000 * this.reconnectAttempts);
+  }
+
+  private closeIfIdle() {
+    if (this.streams.size === 0 && this.socket) {
+      const socket = this.socket;
+      this.socket = null;
+      socket.close();
+    }
+  }
+
+  private onFrame(frame: TaskStreamFrame) {
+    const stream = frame.taskId ? this.streams.get(frame.taskId) : undefined;
+    if (!stream || !frame.taskId) {
+      return;
+    }
+    const taskId = frame.taskId;
+
+    if (frame.type === 'delta') {
+      this.onDelta(taskId, stream, {
+        generation: frame.generation ?? '',
+        seq: frame.seq ?? 0,
+        offset: frame.offset ?? 0,
+        text: frame.text ?? '',
+      });
+    } else if (frame.type === 'complete') {
+      this.streams.delete(taskId);
+      stream.onComplete();
+      this.closeIfIdle();
+    } else if (frame.error?.includes('resume after event')) {
+      // The stream fell too far behind on the server; continue after the last delta received
+      this.sendSubscribe(taskId);
+    } else {
+      this.streams.delete(taskId);
+      stream.onError(new Error(frame.error || 'Stream error'));
+      this.closeIfIdle();
+    }
+  }
+
+  private onDelta(taskId: string, stream: SocketTaskStream, delta: StreamDelta) {
+    stream.credits--;
+    // A new generation numbers its deltas from 1 again and replays the output from the beginning
+    if (delta.generation !== stream.generation) {
+      stream.generation = delta.generation;
+      stream.content = '';
+      stream.lastSeq = 0;
+      stream.receivedBytes = 0;
+    }
+    // Ignore deltas that were already applied
+    if (delta.seq > stream.lastSeq) {
+      if (delta.offset !== stream.receivedBytes) {
+        this.streams.delete(taskId);
+        this.send({ type: 'cancel', taskId });
+        stream.onError(new Error(`Stream gap at byte ${stream.receivedBytes}, server sent offset ${delta.offset}`));
+        return;
+      }
+      stream.content += delta.text;
+      stream.lastSeq = delta.seq;
+      stream.receivedBytes += utf8Encoder.encode(delta.text).length;
+      this.reconnectAttempts = 0;
+      stream.onChunk(stream.content);
+    }
+
+    if (stream.credits <= STREAM_CREDITS / 2) {
+      const granted = STREAM_CREDITS - stream.credits;
+      stream.credits = STREAM_CREDITS;
+      // Grant credits once the content was rendered, so the server only sends what the page keeps up with
+      requestAnimationFrame(() => {
+        if (this.streams.get(taskId) === stream) {
+          this.send({ type: 'credit', taskId, credits: granted });
+        }
+      });
+    }
+  }
+}
+
+const taskStreamSocket = new TaskStreamSocket();
+
+/**
+ * Execute a task with BUFFERED streaming over the multiplexed WebSocket
+ * Same callbacks as {@link executeTaskStream}, but any number of tasks can stream at once.
+ *
+ * @param taskId The ID of the task to execute
+ * @param onChunk Callback function called with the accumulated content after each chunk
+ * @param onComplete Callback function called when streaming is complete
+ * @param onError Callback function called on error
+ * @returns Function that stops streaming the task
+ */
+export const executeTaskStreamMultiplexed = (
+  taskId: string,
+  onChunk: (chunk: string) => void,
+  onComplete: () => void,
+  onError: (error: Error) => void
+): (() => void) => taskStreamSocket.subscribe(taskId, { onChunk, onComplete, onError });
@@ -22,6 +22,7 @@ import {
 
 export interface AgentState {
   projects: string[];
+  projectsNextCursor: string | null;
   projectInfo: Record<string, ProjectInfo>;
   projectTasks: Record<string, Task[]>;
   loading: boolean;
@@ -34,6 +35,7 @@ export interface AgentState {
 
 const initialState: AgentState = {
   projects: [],
+  projectsNextCursor: null,
   projectInfo: {},
   projectTasks: {},
   loading: false,
@@ -60,7 +62,10 @@ const agentReducer = (
       return {
         ...state,
         loading: false,
-        projects: action.payload.projects,
+        projects: action.payload.append
+          ? [...state.projects, ...action.payload.projects]
+          : action.payload.projects,
+        projectsNextCursor: action.payload.nextCursor,
         projectInfo: {
           ...state.projectInfo,
           ...action.payload.projectInfo,
@@ -123,7 +128,7 @@ const agentReducer = (
             ...tasks.slice(0, taskIndex),
             {
               ...tasks[taskIndex],
-              status: action.payload.status as 'PENDING' | 'ASSIGNED' | 'COMPLETED',
+              status: action.payload.status as 'PENDING' | 'ASSIGNED' | 'IN_PROGRESS' | 'CANCELLED' | 'COMPLETED',
               result: action.payload.result,
               tokensUsed: action.payload.tokensUsed || tasks[taskIndex].tokensUsed,
             },
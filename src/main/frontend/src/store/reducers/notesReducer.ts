@@ -17,12 +17,14 @@ import {
 
 export interface NotesState {
   notes: Note[];
+  nextCursor: string | null;
   loading: boolean;
   error: string | null;
 }
 
 const initialState: NotesState = {
   notes: [],
+  nextCursor: null,
   loading: false,
   error: null,
 };
@@ -45,13 +47,16 @@ const notesReducer = (
       return {
         ...state,
         loading: false,
-        notes: action.payload,
+        notes: action.payload.append
+          ? [...state.notes, ...action.payload.notes]
+          : action.payload.notes,
+        nextCursor: action.payload.nextCursor,
       };
     case CREATE_NOTE_SUCCESS:
       return {
         ...state,
         loading: false,
-        notes: [...state.notes, action.payload],
+        notes: [action.payload, ...state.notes],
       };
     case UPDATE_NOTE_SUCCESS:
       return {
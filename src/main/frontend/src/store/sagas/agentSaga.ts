@@ -1,31 +1,47 @@
-import { call, put, takeEvery } from 'redux-saga/effects';
+import { END, EventChannel, eventChannel } from 'redux-saga';
+import { call, delay, put, select, take, takeEvery } from 'redux-saga/effects';
 import {
   FETCH_AGENT_PROJECTS_REQUEST,
   FETCH_PROJECT_TASKS_REQUEST,
   EXECUTE_TASK_REQUEST,
+  EXECUTE_TASK_STREAM_START,
   CREATE_PROJECT_REQUEST,
+  fetchProjectTasksRequest,
   fetchAgentProjectsSuccess,
   fetchAgentProjectsFailure,
   fetchProjectTasksSuccess,
   fetchProjectTasksFailure,
   executeTaskSuccess,
   executeTaskFailure,
+  executeTaskStreamChunk,
+  executeTaskStreamComplete,
+  executeTaskStreamError,
   createProjectSuccess,
   createProjectFailure,
   Task,
   ProjectInfo,
   ExecuteTaskResponse,
 } from '../actions/agentActions';
+import { executeTaskStreamMultiplexed } from '../api/streamingApi';
+import { RootState } from '../reducers';
 
 const API_BASE_URL = '/api/agent';
+// Header with the cursor of the next page of a listing, absent on the last page
+const NEXT_CURSOR_HEADER = 'X-Next-Cursor';
+
 // API Functions
-function* fetchAgentProjects() {
+function* fetchAgentProjects(action: { type: string; payload?: string }) {
   try {
-    const response: Response = yield call(fetch, `${API_BASE_URL}/projects`);
+    const cursor = action.payload;
+    const url = cursor
+      ? `${API_BASE_URL}/projects?cursor=${encodeURIComponent(cursor)}`
+      : `${API_BASE_URL}/projects`;
+    const response: Response = yield call(fetch, url);
     if (!response.ok) {
       throw new Error('Failed to fetch projects');
     }
     const projectSummaries: any[] = yield call([response, 'json']);
+    const nextCursor = response.headers.get(NEXT_CURSOR_HEADER);
 
     // Extract project IDs
     const projectIds = projectSummaries.map(p => p.projectId);
@@ -46,7 +62,7 @@ function* fetchAgentProjects() {
       };
     });
 
-    yield put(fetchAgentProjectsSuccess(projectIds, projectInfoMap));
+    yield put(fetchAgentProjectsSuccess(projectIds, projectInfoMap, nextCursor, Boolean(cursor)));
   } catch (error: any) {
     yield put(fetchAgentProjectsFailure(error.message || 'Failed to fetch projects'));
   }
@@ -66,15 +82,21 @@ function* fetchProjectTasks(action: { type: string; payload: string }) {
     }
     const projectInfo: ProjectInfo = yield call([infoResponse, 'json']);
 
-    // Fetch tasks
-    const response: Response = yield call(
-      fetch,
-      `${API_BASE_URL}/projects/${projectId}/tasks`
-    );
-    if (!response.ok) {
-      throw new Error('Failed to fetch tasks');
-    }
-    const tasks: Task[] = yield call([response, 'json']);
+    // Fetch tasks, following the cursors until the last page
+    const tasks: Task[] = [];
+    let cursor: string | null = null;
+    do {
+      const url: string = cursor
+        ? `${API_BASE_URL}/projects/${projectId}/tasks?cursor=${encodeURIComponent(cursor)}`
+        : `${API_BASE_URL}/projects/${projectId}/tasks`;
+      const response: Response = yield call(fetch, url);
+      if (!response.ok) {
+        throw new Error('Failed to fetch tasks');
+      }
+      const page: Task[] = yield call([response, 'json']);
+      tasks.push(...page);
+      cursor = response.headers.get(NEXT_CURSOR_HEADER);
+    } while (cursor);
 
     yield put(fetchProjectTasksSuccess(projectId, tasks, projectInfo));
   } catch (error: any) {
@@ -105,6 +127,67 @@ function* executeTask(action: { type: string; payload: string }) {
   }
 }
 
+/**
+ * Event emitted by a task stream channel
+ */
+type TaskStreamEvent =
+  | { kind: 'chunk'; content: string }
+  | { kind: 'complete' }
+  | { kind: 'error'; message: string };
+
+/**
+ * Adapt a task stream on the shared socket to a saga channel
+ * Closing the channel, e.g. when the saga is cancelled, stops streaming the task.
+ */
+function taskStreamChannel(taskId: string): EventChannel<TaskStreamEvent> {
+  return eventChannel<TaskStreamEvent>((emit) =>
+    executeTaskStreamMultiplexed(
+      taskId,
+      (content) => emit({ kind: 'chunk', content }),
+      () => {
+        emit({ kind: 'complete' });
+        emit(END);
+      },
+      (error) => {
+        emit({ kind: 'error', message: error.message });
+        emit(END);
+      }
+    )
+  );
+}
+
+function* executeTaskStream(action: { type: string; payload: string }) {
+  const taskId = action.payload;
+
+  // Get the project ID for this task (to refetch later)
+  const projectTasks: Record<string, Task[]> = yield select((state: RootState) => state.agent.projectTasks);
+  const projectIdForTask = Object.keys(projectTasks).find((projectId) =>
+    projectTasks[projectId].some((t) => t.id === taskId)
+  );
+
+  const channel: EventChannel<TaskStreamEvent> = yield call(taskStreamChannel, taskId);
+  try {
+    while (true) {
+      const event: TaskStreamEvent = yield take(channel);
+      if (event.kind === 'chunk') {
+        yield put(executeTaskStreamChunk(taskId, event.content));
+      } else if (event.kind === 'complete') {
+        yield put(executeTaskStreamComplete(taskId));
+
+        // Refetch tasks to get the saved result with token count from backend
+        if (projectIdForTask) {
+          yield delay(1000); // Small delay to ensure backend has saved
+          yield put(fetchProjectTasksRequest(projectIdForTask));
+        }
+      } else {
+        yield put(executeTaskStreamError(taskId, event.message));
+      }
+    }
+  } finally {
+    channel.close();
+  }
+}
+
 function* createProject(action: { type: string; payload: string }) {
   try {
     const projectRequest = action.payload;
@@ -141,6 +224,11 @@ export function* watchExecuteTask() {
   yield takeEvery(EXECUTE_TASK_REQUEST, executeTask);
 }
 
+export function* watchExecuteTaskStream() {
+  // Every task streams over the same socket, so any number can execute at once
+  yield takeEvery(EXECUTE_TASK_STREAM_START, executeTaskStream);
+}
+
 export function* watchCreateProject() {
   yield takeEvery(CREATE_PROJECT_REQUEST, createProject);
 }
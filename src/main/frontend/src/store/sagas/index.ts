@@ -5,6 +5,7 @@ import {
   watchFetchAgentProjects,
   watchFetchProjectTasks,
   watchExecuteTask,
+  watchExecuteTaskStream,
   watchCreateProject,
 } from './agentSaga';
 
@@ -15,6 +16,7 @@ export default function* rootSaga() {
     fork(watchFetchAgentProjects),
     fork(watchFetchProjectTasks),
     fork(watchExecuteTask),
+    fork(watchExecuteTaskStream),
     fork(watchCreateProject),
   ]);
 }
@@ -17,14 +17,19 @@ import {
 } from '../actions';
 import { AxiosResponse } from 'axios';
 
-function* fetchNotesSaga(): Generator<
+function* fetchNotesSaga(
+  action: ReturnType<typeof import('../actions').fetchNotesRequest>
+): Generator<
   CallEffect<AxiosResponse<Note[]>> | PutEffect,
   void,
   AxiosResponse<Note[]>
 > {
   try {
-    const response = yield call(notesApi.fetchNotes);
-    yield put(fetchNotesSuccess(response.data));
+    const cursor = action.payload;
+    const response = yield call(notesApi.fetchNotes, cursor);
+    // The cursor of the next page is sent in a header, absent on the last page
+    const nextCursor = response.headers['x-next-cursor'] ?? null;
+    yield put(fetchNotesSuccess(response.data, nextCursor, Boolean(cursor)));
   } catch (error) {
     yield put(fetchNotesFailure((error as Error).message));
   }
@@ -15,6 +15,7 @@ import reactor.core.publisher.Flux;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * DevOps Engineer agent responsible for infrastructure and deployment tasks
@@ -41,12 +42,12 @@ public class DevOpsEngineerAgent {
         this.chatClient = chatClientBuilder.build();
     }
     /**
-     * Execute a DevOps-related task
-     * 
+     * Build the prompt for a DevOps-related task
+     *
      * @param task The task to execute
-     * @return The result of the task execution with token usage
+     * @return The system and user messages sent to the LLM
      */
-    public TaskExecutionResult executeTask(Task task) {
+    public Prompt buildPrompt(Task task) {
         Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
         Message userMessage = new UserMessage(
             "Please execute the following DevOps task:\n\n" + 
@@ -54,7 +55,17 @@ public class DevOpsEngineerAgent {
             "\n\nProvide a detailed solution with specific steps, tools, and configurations."
         );
         
-        Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
+        return new Prompt(List.of(systemMessage, userMessage));
+    }
+
+    /**
+     * Execute a DevOps-related task
+     * 
+     * @param task The task to execute
+     * @return The result of the task execution with token usage
+     */
+    public TaskExecutionResult executeTask(Task task) {
+        Prompt prompt = buildPrompt(task);
         ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
 
         String result = Objects.requireNonNull(response).getResult().getOutput().getText();
@@ -70,19 +81,39 @@ public class DevOpsEngineerAgent {
      * @return Flux of response chunks
      */
     public Flux<String> executeTaskStream(Task task) {
-        Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
-        Message userMessage = new UserMessage(
-            "Please execute the following DevOps task:\n\n" +
-            "Task: " + task.getDescription() +
-            "\n\nProvide a detailed solution with specific steps, tools, and configurations."
-        );
+        return executeTaskStream(buildPrompt(task));
+    }
 
-        Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
+    /**
+     * Stream the response to a prepared prompt
+     * Used to continue a partially generated result, whose prompt carries the partial output.
+     *
+     * @param prompt The prompt to send
+     * @return Flux of response chunks
+     */
+    public Flux<String> executeTaskStream(Prompt prompt) {
+        return executeTaskStream(prompt, usage -> { });
+    }
 
+    /**
+     * Stream the response to a prepared prompt, reporting its token usage
+     * The usage arrives with the last response chunk when the server sends it (stream-usage).
+     *
+     * @param prompt The prompt to send
+     * @param usageListener Receives the token usage of the response
+     * @return Flux of response chunks
+     */
+    public Flux<String> executeTaskStream(Prompt prompt, Consumer<Usage> usageListener) {
         // Stream the response
         return chatClient.prompt(prompt)
                 .stream()
                 .chatResponse()
+                .doOnNext(response -> {
+                    Usage usage = response.getMetadata() != null ? response.getMetadata().getUsage() : null;
+                    if (usage != null && usage.getTotalTokens() != null && usage.getTotalTokens() > 0) {
+                        usageListener.accept(usage);
+                    }
+                })
                 .map(response -> {
                     if (response != null &&
                         response.getResult() != null &&
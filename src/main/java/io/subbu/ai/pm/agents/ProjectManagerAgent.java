@@ -1,6 +1,7 @@
 package io.subbu.ai.pm.agents;
 
 import io.subbu.ai.pm.vos.Task;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
@@ -10,18 +11,36 @@ import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.metadata.Usage;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
  * Project Manager agent responsible for task delegation and coordination
  */
+@Slf4j
 @Component
 public class ProjectManagerAgent {
 
+    /**
+     * Matches one "task number": "role" entry of a batch delegation response.
+     * Tolerates unquoted keys and surrounding prose or code fences.
+     */
+    private static final Pattern DELEGATION_ENTRY = Pattern.compile("\"?(\\d+)\"?\\s*:\\s*\"([^\"]*)\"");
+
+    /**
+     * Matches the optional "(depends on: 1, 3)" suffix of a task line in the project breakdown
+     */
+    private static final Pattern DEPENDS_ON_SUFFIX =
+            Pattern.compile("\\s*\\(depends on:?\\s*([\\d,\\s]+)\\)\\s*\\.?$", Pattern.CASE_INSENSITIVE);
+
     private final ChatClient chatClient;
     private static final String SYSTEM_PROMPT = """
             You are an experienced Project Manager AI agent.
@@ -48,27 +67,46 @@ public class ProjectManagerAgent {
      * Analyze a project request and break it down into tasks
      * 
      * @param projectRequest The project request to analyze
-     * @return A map containing task list and tokens used
+     * @return A map containing task list, task dependencies and tokens used.
+     *         Dependencies are given per task as zero-based indexes of earlier tasks.
      */
     public Map<String, Object> analyzeProjectRequest(String projectRequest) {
         Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
         Message userMessage = new UserMessage(
             "Please analyze the following project request and break it down into specific tasks that can be delegated to specialists:\n\n" + 
             projectRequest + 
-            "\n\nFormat your response as a numbered list of tasks only, with no additional text."
+            "\n\nFormat your response as a numbered list of tasks only, with no additional text. " +
+            "If a task cannot start until earlier tasks are finished, end its line with " +
+            "(depends on: N, M) using the numbers of those earlier tasks."
         );
         
         Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
         ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
         
         String content = Objects.requireNonNull(response).getResult().getOutput().getText();
-        List<String> tasks = parseTaskList(content);
+        List<String> taskLines = parseTaskList(content);
+
+        // Split the optional dependency suffix from each task description
+        List<String> tasks = new ArrayList<>(taskLines.size());
+        List<List<Integer>> dependencies = new ArrayList<>(taskLines.size());
+        for (String line : taskLines) {
+            int index = tasks.size();
+            Matcher matcher = DEPENDS_ON_SUFFIX.matcher(line);
+            if (matcher.find()) {
+                tasks.add(line.substring(0, matcher.start()));
+                dependencies.add(parseDependencyNumbers(matcher.group(1), index));
+            } else {
+                tasks.add(line);
+                dependencies.add(List.of());
+            }
+        }
 
         // Extract token usage
         Integer tokensUsed = extractTokenUsage(response);
 
         Map<String, Object> result = new HashMap<>();
         result.put("tasks", tasks);
+        result.put("dependencies", dependencies);
         result.put("tokensUsed", tokensUsed);
 
         return result;
@@ -78,7 +116,7 @@ public class ProjectManagerAgent {
      * Delegate a task to the appropriate specialist
      * 
      * @param task The task to delegate
-     * @return The specialist role that should handle this task
+     * @return The specialist role that should handle this task, or null if the answer names no known role
      */
     public String delegateTask(Task task) {
         Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
@@ -92,15 +130,91 @@ public class ProjectManagerAgent {
         ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
 
         String specialist = Objects.requireNonNull(Objects.requireNonNull(response).getResult()).getOutput().getText();
+        log.debug("Delegated task {} using {} tokens", task.getId(), extractTokenUsage(response));
+
+        // Normalize the response to one of the three roles; callers pick a default for unparsable answers
+        return normalizeRole(specialist);
+    }
 
-        // Normalize the response to one of the three roles
+    /**
+     * Delegate several tasks to the appropriate specialists in a single LLM call
+     * The LLM is asked for a JSON object mapping each task number to a role.
+     * Entries that are missing or cannot be mapped to a known role are left out of the result,
+     * so callers can fall back to {@link #delegateTask(Task)} for them.
+     *
+     * @param tasks The tasks to delegate
+     * @return The specialist roles keyed by zero-based index into the given task list
+     */
+    public Map<Integer, String> delegateTasks(List<Task> tasks) {
+        String numberedTasks = IntStream.range(0, tasks.size())
+                .mapToObj(i -> (i + 1) + ". " + tasks.get(i).getDescription())
+                .collect(Collectors.joining("\n"));
+
+        Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
+        Message userMessage = new UserMessage(
+            "Please determine which specialist should handle each of the following tasks:\n\n" +
+            numberedTasks +
+            "\n\nRespond with only a JSON object that maps every task number to one of these roles: " +
+            "DevOps Engineer, Technical Lead, or Software Engineer. " +
+            "For example: {\"1\": \"Software Engineer\", \"2\": \"DevOps Engineer\"}"
+        );
+
+        Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
+        ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
+
+        String content = Objects.requireNonNull(Objects.requireNonNull(response).getResult()).getOutput().getText();
+        log.debug("Delegated {} tasks in one call using {} tokens", tasks.size(), extractTokenUsage(response));
+
+        return parseDelegations(content, tasks.size());
+    }
+
+    /**
+     * Parse a batch delegation response into roles keyed by zero-based task index
+     *
+     * @param content The raw content from the LLM
+     * @param taskCount The number of tasks that were sent
+     * @return The roles that could be parsed and normalized
+     */
+    private Map<Integer, String> parseDelegations(String content, int taskCount) {
+        Map<Integer, String> delegations = new HashMap<>();
+        if (content == null) {
+            return delegations;
+        }
+
+        Matcher matcher = DELEGATION_ENTRY.matcher(content);
+        while (matcher.find()) {
+            int index;
+            try {
+                index = Integer.parseInt(matcher.group(1)) - 1;
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            String role = normalizeRole(matcher.group(2));
+            if (index >= 0 && index < taskCount && role != null) {
+                delegations.putIfAbsent(index, role);
+            }
+        }
+        return delegations;
+    }
+
+    /**
+     * Normalize a free-form LLM answer to one of the three specialist roles
+     *
+     * @param specialist The raw role text
+     * @return The normalized role, or null if no known role is mentioned
+     */
+    private String normalizeRole(String specialist) {
+        if (specialist == null) {
+            return null;
+        }
         if (specialist.contains("DevOps")) {
             return "DevOps Engineer";
         } else if (specialist.contains("Technical Lead")) {
             return "Technical Lead";
-        } else {
+        } else if (specialist.contains("Software Engineer")) {
             return "Software Engineer";
         }
+        return null;
     }
     
     /**
@@ -123,6 +237,24 @@ public class ProjectManagerAgent {
                 .toList();
     }
 
+    /**
+     * Parse the task numbers of a "(depends on: ...)" suffix
+     * Only references to earlier tasks are kept, so the resulting dependencies can never form a cycle.
+     *
+     * @param numbers The comma-separated, one-based task numbers
+     * @param taskIndex The zero-based index of the task that has the dependencies
+     * @return Zero-based indexes of the tasks it depends on
+     */
+    private List<Integer> parseDependencyNumbers(String numbers, int taskIndex) {
+        return Stream.of(numbers.split(","))
+                .map(String::trim)
+                .filter(number -> number.matches("\\d{1,4}"))
+                .map(number -> Integer.parseInt(number) - 1)
+                .filter(index -> index >= 0 && index < taskIndex)
+                .distinct()
+                .toList();
+    }
+
     /**
      * Extract token usage from ChatResponse metadata
      *
@@ -14,6 +14,7 @@ import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * Software Engineer agent responsible for implementation and development tasks
@@ -41,12 +42,12 @@ public class SoftwareEngineerAgent {
     }
 
     /**
-     * Execute a software development task
-     * 
+     * Build the prompt for a software development task
+     *
      * @param task The task to execute
-     * @return The result of the task execution with token usage
+     * @return The system and user messages sent to the LLM
      */
-    public TaskExecutionResult executeTask(Task task) {
+    public Prompt buildPrompt(Task task) {
         Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
         Message userMessage = new UserMessage(
             "Please execute the following software development task:\n\n" + 
@@ -54,7 +55,17 @@ public class SoftwareEngineerAgent {
             "\n\nProvide a detailed solution with code examples, implementation details, and testing strategies."
         );
         
-        Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
+        return new Prompt(List.of(systemMessage, userMessage));
+    }
+
+    /**
+     * Execute a software development task
+     * 
+     * @param task The task to execute
+     * @return The result of the task execution with token usage
+     */
+    public TaskExecutionResult executeTask(Task task) {
+        Prompt prompt = buildPrompt(task);
         ChatResponse response = chatClient.prompt(prompt).call().chatResponse();
         
         String result = Objects.requireNonNull(response).getResult().getOutput().getText();
@@ -70,19 +81,39 @@ public class SoftwareEngineerAgent {
      * @return Flux of response chunks
      */
     public Flux<String> executeTaskStream(Task task) {
-        Message systemMessage = new SystemPromptTemplate(SYSTEM_PROMPT).createMessage();
-        Message userMessage = new UserMessage(
-            "Please execute the following software development task:\n\n" +
-            "Task: " + task.getDescription() +
-            "\n\nProvide a detailed solution with code examples, implementation details, and testing strategies."
-        );
+        return executeTaskStream(buildPrompt(task));
+    }
 
-        Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
+    /**
+     * Stream the response to a prepared prompt
+     * Used to continue a partially generated result, whose prompt carries the partial output.
+     *
+     * @param prompt The prompt to send
+     * @return Flux of response chunks
+     */
+    public Flux<String> executeTaskStream(Prompt prompt) {
+        return executeTaskStream(prompt, usage -> { });
+    }
 
+    /**
+     * Stream the response to a prepared prompt, reporting its token usage
+     * The usage arrives with the last response chunk when the server sends it (stream-usage).
+     *
+     * @param prompt The prompt to send
+     * @param usageListener Receives the token usage of the response
+     * @return Flux of response chunks
+     */
+    public Flux<String> executeTaskStream(Prompt prompt, Consumer<Usage> usageListener) {
         // Stream the response
         return chatClient.prompt(prompt)
                 .stream()
                 .chatResponse()
+                .doOnNext(response -> {
+                    Usage usage = response.getMetadata() != null ? response.getMetadata().getUsage() : null;
+                    if (usage != null && usage.getTotalTokens() != null && usage.getTotalTokens() > 0) {
+                        usageListener.accept(usage);
+                    }
+                })
                 .map(response -> {
                     if (response != null &&
                         response.getResult() != null &&
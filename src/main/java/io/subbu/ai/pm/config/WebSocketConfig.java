@@ -0,0 +1,36 @@
+package io.subbu.ai.pm.config;
+
+import io.subbu.ai.pm.controllers.ws.TaskStreamSocketHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket configuration
+ * Registers the multiplexed task stream endpoint next to the REST API
+ *
+ * Configuration:
+ * - app.streaming.socket-allowed-origins: Origins besides the application itself that may connect,
+ *   e.g. the Vite dev server (default: none)
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final TaskStreamSocketHandler taskStreamSocketHandler;
+    private final String[] allowedOrigins;
+
+    public WebSocketConfig(TaskStreamSocketHandler taskStreamSocketHandler,
+                           @Value("${app.streaming.socket-allowed-origins:}") String[] allowedOrigins) {
+        this.taskStreamSocketHandler = taskStreamSocketHandler;
+        this.allowedOrigins = allowedOrigins;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(taskStreamSocketHandler, "/api/agent/tasks/stream-socket")
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+}
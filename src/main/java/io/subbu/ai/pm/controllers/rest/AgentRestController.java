@@ -1,18 +1,33 @@
 package io.subbu.ai.pm.controllers.rest;
 
 import io.subbu.ai.pm.vos.Project;
+import io.subbu.ai.pm.vos.ProjectJob;
+import io.subbu.ai.pm.vos.ProjectSummary;
+import io.subbu.ai.pm.vos.StreamDelta;
 import io.subbu.ai.pm.vos.Task;
 import io.subbu.ai.pm.services.AgentOrchestrationService;
+import io.subbu.ai.pm.services.DelegationClassifierReport;
+import io.subbu.ai.pm.services.EventStreamCompression;
+import io.subbu.ai.pm.services.ProjectJobService;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import reactor.core.publisher.Flux;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.net.URI;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Controller for the Multi-agent Pattern API
@@ -22,61 +37,110 @@ import java.util.stream.Collectors;
 public class AgentRestController {
 
     private final AgentOrchestrationService agentOrchestrationService;
+    private final ProjectJobService projectJobService;
+    private final DelegationClassifierReport delegationClassifierReport;
+    private final EventStreamCompression eventStreamCompression;
+    private final JsonMapper jsonMapper;
 
-    public AgentRestController(AgentOrchestrationService agentOrchestrationService) {
+    public AgentRestController(AgentOrchestrationService agentOrchestrationService,
+                               ProjectJobService projectJobService,
+                               DelegationClassifierReport delegationClassifierReport,
+                               EventStreamCompression eventStreamCompression,
+                               JsonMapper jsonMapper) {
         this.agentOrchestrationService = agentOrchestrationService;
+        this.projectJobService = projectJobService;
+        this.delegationClassifierReport = delegationClassifierReport;
+        this.eventStreamCompression = eventStreamCompression;
+        this.jsonMapper = jsonMapper;
     }
 
     /**
      * Process a project request through the multi-agent system
      * Creates a new project with tasks
      *
+     * With async=true the request is queued as a background job and 202 Accepted is returned
+     * immediately with the job ID. Progress can be followed via /jobs/{jobId} or /jobs/{jobId}/events.
+     *
      * @param projectRequest The project request/title to process
-     * @return Project info and list of tasks created
+     * @param async Whether to run the pipeline as a background job
+     * @return Project info and list of tasks created, or the queued job info in async mode
      */
     @PostMapping("/projects")
-    public ResponseEntity<Map<String, Object>> createProject(@RequestParam String projectRequest) {
+    public ResponseEntity<Map<String, Object>> createProject(@RequestParam String projectRequest,
+                                                             @RequestParam(defaultValue = "false") boolean async) {
+        if (async) {
+            return submitJob(() -> projectJobService.submit(projectRequest));
+        }
+
         Map<String, Object> result = agentOrchestrationService.processProjectRequest(projectRequest);
         return ResponseEntity.ok(result);
     }
 
+    private ResponseEntity<Map<String, Object>> submitJob(Supplier<ProjectJob> submission) {
+        ProjectJob job;
+        try {
+            job = submission.get();
+        } catch (TaskRejectedException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "30")
+                    .body(Map.of("error", "Too many project jobs in progress, please retry later"));
+        }
+
+        String statusUrl = "/api/agent/jobs/" + job.getJobId();
+        return ResponseEntity.accepted()
+                .location(URI.create(statusUrl))
+                .body(Map.of(
+                        "jobId", job.getJobId(),
+                        "status", job.getStatus(),
+                        "statusUrl", statusUrl,
+                        "eventsUrl", statusUrl + "/events"
+                ));
+    }
+
     /**
-     * Get all projects with summary information
+     * Get the state of a project creation or execute-all job
      *
-     * @return A list of all projects with title and task count
+     * @param jobId The ID of the job
+     * @return The job, including the project and its tasks once COMPLETED
      */
-    @GetMapping("/projects")
-    public ResponseEntity<List<Map<String, Object>>> getAllProjects() {
-        List<Project> projects = agentOrchestrationService.getAllProjects();
-
-        List<Map<String, Object>> projectSummaries = projects.stream()
-            .map(project -> {
-                List<Task> tasks = agentOrchestrationService.getProjectTasks(project.getId());
-
-                Map<String, Object> summary = new HashMap<>();
-                summary.put("projectId", project.getId());
-                summary.put("title", project.getTitle());
-                summary.put("taskCount", tasks.size());
-                summary.put("tokensUsed", project.getTokensUsed());
-                summary.put("createdAt", project.getCreatedAt());
-                summary.put("updatedAt", project.getUpdatedAt());
-
-                // Calculate task statistics
-                long completedCount = tasks.stream()
-                    .filter(t -> "COMPLETED".equals(t.getStatus()))
-                    .count();
-                long assignedCount = tasks.stream()
-                    .filter(t -> "ASSIGNED".equals(t.getStatus()))
-                    .count();
-
-                summary.put("completedCount", completedCount);
-                summary.put("assignedCount", assignedCount);
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ProjectJob> getJob(@PathVariable String jobId) {
+        ProjectJob job = projectJobService.getJob(jobId);
+        return ResponseEntity.ok(job);
+    }
 
-                return summary;
-            })
-            .collect(Collectors.toList());
+    /**
+     * Stream progress of a project creation or execute-all job
+     * Emits "progress" events while the job runs and a final "complete" or "failed" event.
+     *
+     * @param jobId The ID of the job
+     * @return Server-Sent Events stream of job snapshots
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProjectJob>> streamJob(@PathVariable String jobId) {
+        return projectJobService.streamJob(jobId)
+                .map(job -> ServerSentEvent.<ProjectJob>builder()
+                        .event(switch (job.getStatus()) {
+                            case "COMPLETED" -> "complete";
+                            case "FAILED" -> "failed";
+                            default -> "progress";
+                        })
+                        .data(job)
+                        .build());
+    }
 
-        return ResponseEntity.ok(projectSummaries);
+    /**
+     * Get projects with summary information, newest first, one page at a time
+     * The cursor of the next page is returned in the X-Next-Cursor header.
+     *
+     * @param cursor The cursor of the page to get, none for the first page
+     * @param size Projects per page, none for app.pagination.default-size
+     * @return A page of projects with title and task counts
+     */
+    @GetMapping("/projects")
+    public ResponseEntity<List<ProjectSummary>> getAllProjects(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size) {
+        return CursorPages.ok(agentOrchestrationService.getProjectSummaries(cursor, size));
     }
 
     /**
@@ -100,13 +164,13 @@ public class AgentRestController {
     @GetMapping("/projects/{projectId}/info")
     public ResponseEntity<Map<String, Object>> getProjectInfo(@PathVariable String projectId) {
         Project project = agentOrchestrationService.getProject(projectId);
-        List<Task> tasks = agentOrchestrationService.getProjectTasks(projectId);
+        long taskCount = agentOrchestrationService.countProjectTasks(projectId);
 
         Map<String, Object> info = new HashMap<>();
         info.put("projectId", project.getId());
         info.put("title", project.getTitle());
-        info.put("description", tasks.size() + " tasks");
-        info.put("taskCount", tasks.size());
+        info.put("description", taskCount + " tasks");
+        info.put("taskCount", taskCount);
         info.put("createdAt", project.getCreatedAt());
         info.put("updatedAt", project.getUpdatedAt());
 
@@ -118,26 +182,32 @@ public class AgentRestController {
     }
 
     /**
-     * Get all tasks for a project
-     * 
+     * Get the tasks of a project in creation order, one page at a time
+     * The cursor of the next page is returned in the X-Next-Cursor header.
+     *
      * @param projectId The ID of the project
-     * @return A list of tasks for the project
+     * @param cursor The cursor of the page to get, none for the first page
+     * @param size Tasks per page, none for app.pagination.default-size
+     * @return A page of tasks for the project
      */
     @GetMapping("/projects/{projectId}/tasks")
-    public ResponseEntity<List<Task>> getProjectTasks(@PathVariable String projectId) {
-        List<Task> tasks = agentOrchestrationService.getProjectTasks(projectId);
-        return ResponseEntity.ok(tasks);
+    public ResponseEntity<List<Task>> getProjectTasks(@PathVariable String projectId,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size) {
+        return CursorPages.ok(agentOrchestrationService.getProjectTasks(projectId, cursor, size));
     }
     
     /**
      * Execute a specific task
      * 
      * @param taskId The ID of the task to execute
+     * @param bypassCache Whether to generate a fresh result even if an identical request is cached
      * @return The result of the task execution
      */
     @PostMapping("/tasks/{taskId}/execute")
-    public ResponseEntity<Map<String, Object>> executeTask(@PathVariable String taskId) {
-        String result = agentOrchestrationService.executeTask(taskId);
+    public ResponseEntity<Map<String, Object>> executeTask(@PathVariable String taskId,
+                                                           @RequestParam(defaultValue = "false") boolean bypassCache) {
+        String result = agentOrchestrationService.executeTask(taskId, bypassCache);
         Task task = agentOrchestrationService.getTask(taskId);
         
         Map<String, Object> response = new HashMap<>();
@@ -156,15 +226,48 @@ public class AgentRestController {
     
     /**
      * Execute a specific task with streaming response
+     * Every event ID is the generation and sequence number of its chunk; a reconnecting EventSource sends
+     * the last one in the Last-Event-ID header and the stream resumes right after it, or starts over with
+     * the first chunk if the task has a new generation since.
      *
      * @param taskId The ID of the task to execute
+     * @param bypassCache Whether to generate a fresh result even if an identical request is cached
+     * @param lastEventId Event ID of the last chunk the client received
      * @return Server-Sent Events stream of response chunks
      */
     @GetMapping(value = "/tasks/{taskId}/execute-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<ServerSentEvent<String>> executeTaskStream(@PathVariable String taskId) {
-        return agentOrchestrationService.executeTaskStream(taskId)
+    public Flux<ServerSentEvent<String>> executeTaskStream(@PathVariable String taskId,
+                                                           @RequestParam(defaultValue = "false") boolean bypassCache,
+                                                           @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return chunkEvents(taskId, bypassCache, lastEventId);
+    }
+
+    /**
+     * Execute a specific task with a compressed streaming response
+     * Same events as the uncompressed stream, sent with gzip or deflate and flushed after every event.
+     * Clients that do not accept the requested coding get the events uncompressed.
+     *
+     * @param taskId The ID of the task to execute
+     * @param bypassCache Whether to generate a fresh result even if an identical request is cached
+     * @param compress gzip or deflate
+     * @param lastEventId Event ID of the last chunk the client received
+     * @param acceptEncoding Content codings the client accepts
+     * @return Server-Sent Events stream of response chunks
+     */
+    @GetMapping(value = "/tasks/{taskId}/execute-stream", params = "compress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> executeTaskStreamCompressed(@PathVariable String taskId,
+                                                                             @RequestParam(defaultValue = "false") boolean bypassCache,
+                                                                             @RequestParam String compress,
+                                                                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return compressedEvents(chunkEvents(taskId, bypassCache, lastEventId), compress, acceptEncoding);
+    }
+
+    private Flux<ServerSentEvent<String>> chunkEvents(String taskId, boolean bypassCache, String lastEventId) {
+        return agentOrchestrationService.executeTaskStreamChunks(taskId, bypassCache, lastEventId)
                 .map(chunk -> ServerSentEvent.<String>builder()
-                        .data(chunk)
+                        .id(chunk.eventId())
+                        .data(chunk.getText())
                         .build())
                 .concatWith(Flux.just(ServerSentEvent.<String>builder()
                         .event("complete")
@@ -176,39 +279,134 @@ public class AgentRestController {
      * Execute a specific task with BUFFERED streaming response (EXPERIMENTAL)
      * This endpoint buffers chunks on the server before streaming to improve UI rendering
      *
+     * In the default delta mode every event carries a JSON {@link StreamDelta} with only the new text,
+     * its generation, sequence number and byte offset, and the event ID is {@link StreamDelta#eventId()}.
+     * A reconnecting EventSource sends the last ID in the Last-Event-ID header and the stream resumes right after it.
+     * In snapshot mode every event carries the full text generated so far, as older clients expect.
+     *
      * @param taskId The ID of the task to execute
+     * @param bypassCache Whether to generate a fresh result even if an identical request is cached
+     * @param mode delta (default) or snapshot
+     * @param lastEventId Event ID of the last delta the client received (delta mode only)
      * @return Server-Sent Events stream of buffered response chunks
      */
     @GetMapping(value = "/tasks/{taskId}/execute-stream-buffered", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public Flux<ServerSentEvent<String>> executeTaskStreamBuffered(@PathVariable String taskId) {
-        return agentOrchestrationService.executeTaskStreamBuffered(taskId)
-                .map(chunk -> ServerSentEvent.<String>builder()
-                        .data(chunk)
-                        .build())
-                .concatWith(Flux.just(ServerSentEvent.<String>builder()
-                        .event("complete")
-                        .data("DONE")
-                        .build()));
+    public Flux<ServerSentEvent<Object>> executeTaskStreamBuffered(@PathVariable String taskId,
+                                                                   @RequestParam(defaultValue = "false") boolean bypassCache,
+                                                                   @RequestParam(defaultValue = "delta") String mode,
+                                                                   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return bufferedEvents(taskId, bypassCache, mode, lastEventId);
     }
 
     /**
-     * Execute all tasks for a project
-     * 
+     * Execute a specific task with a compressed BUFFERED streaming response
+     * Same events as the uncompressed buffered stream, sent with gzip or deflate and flushed after every
+     * event, so deltas arrive as soon as they are flushed while the bytes on the wire shrink several times.
+     * Clients that do not accept the requested coding get the events uncompressed.
+     *
+     * @param taskId The ID of the task to execute
+     * @param bypassCache Whether to generate a fresh result even if an identical request is cached
+     * @param mode delta (default) or snapshot
+     * @param compress gzip or deflate
+     * @param lastEventId Event ID of the last delta the client received (delta mode only)
+     * @param acceptEncoding Content codings the client accepts
+     * @return Server-Sent Events stream of buffered response chunks
+     */
+    @GetMapping(value = "/tasks/{taskId}/execute-stream-buffered", params = "compress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<StreamingResponseBody> executeTaskStreamBufferedCompressed(@PathVariable String taskId,
+                                                                                     @RequestParam(defaultValue = "false") boolean bypassCache,
+                                                                                     @RequestParam(defaultValue = "delta") String mode,
+                                                                                     @RequestParam String compress,
+                                                                                     @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                                                                     @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return compressedEvents(bufferedEvents(taskId, bypassCache, mode, lastEventId), compress, acceptEncoding);
+    }
+
+    private Flux<ServerSentEvent<Object>> bufferedEvents(String taskId, boolean bypassCache, String mode, String lastEventId) {
+        Flux<ServerSentEvent<Object>> events = switch (mode) {
+            case "delta" -> agentOrchestrationService.executeTaskStreamDelta(taskId, bypassCache, lastEventId)
+                    .map(delta -> ServerSentEvent.<Object>builder()
+                            .id(delta.eventId())
+                            .data(delta)
+                            .build());
+            case "snapshot" -> agentOrchestrationService.executeTaskStreamBuffered(taskId, bypassCache)
+                    .map(snapshot -> ServerSentEvent.<Object>builder()
+                            .data(snapshot)
+                            .build());
+            default -> throw new IllegalArgumentException("Unknown stream mode: " + mode);
+        };
+
+        return events.concatWith(Flux.just(ServerSentEvent.<Object>builder()
+                .event("complete")
+                .data("DONE")
+                .build()));
+    }
+
+    /**
+     * Write Server-Sent Events with the negotiated compression, flushing after every event
+     * The events are pulled one at a time, so a slow client holds back the stream like an uncompressed one.
+     *
+     * @param events The events to send
+     * @param compress The requested coding, gzip or deflate
+     * @param acceptEncoding Content codings the client accepts
+     * @return The streaming response
+     */
+    private ResponseEntity<StreamingResponseBody> compressedEvents(Flux<? extends ServerSentEvent<?>> events,
+                                                                   String compress, String acceptEncoding) {
+        String coding = eventStreamCompression.negotiate(compress, acceptEncoding);
+
+        StreamingResponseBody body = out -> {
+            try (EventStreamCompression.Writer writer = eventStreamCompression.open(out, coding);
+                 Stream<? extends ServerSentEvent<?>> stream = events.toStream(1)) {
+                Iterator<? extends ServerSentEvent<?>> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    ServerSentEvent<?> event = iterator.next();
+                    Object data = event.data();
+                    writer.event(event.id(), event.event(),
+                            data instanceof String text ? text : jsonMapper.writeValueAsString(data));
+                }
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .cacheControl(CacheControl.noStore());
+        if (!EventStreamCompression.IDENTITY.equals(coding)) {
+            response.header(HttpHeaders.CONTENT_ENCODING, coding);
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Execute all tasks for a project as a background job
+     * Returns 202 Accepted with the job ID immediately, since executing every task can take many minutes.
+     * Progress can be followed via /jobs/{jobId} or /jobs/{jobId}/events; once COMPLETED the job result
+     * holds the project ID, its tasks and a map of task IDs to execution results.
+     *
      * @param projectId The ID of the project
-     * @return A map of task IDs to execution results
+     * @return The queued job info
      */
     @PostMapping("/projects/{projectId}/execute-all")
     public ResponseEntity<Map<String, Object>> executeAllProjectTasks(@PathVariable String projectId) {
-        Map<String, String> results = agentOrchestrationService.executeAllProjectTasks(projectId);
-        List<Task> tasks = agentOrchestrationService.getProjectTasks(projectId);
-        
-        return ResponseEntity.ok(Map.of(
-            "projectId", projectId,
-            "tasks", tasks,
-            "results", results
-        ));
+        return submitJob(() -> projectJobService.submitExecuteAll(projectId));
     }
     
+    /**
+     * Set the tasks that must complete before a task can execute
+     * Used by execute-all to order dependent tasks; independent tasks run in parallel.
+     *
+     * @param taskId The ID of the task
+     * @param dependsOn IDs of tasks in the same project
+     * @return The updated task
+     */
+    @PutMapping("/tasks/{taskId}/dependencies")
+    public ResponseEntity<Task> updateTaskDependencies(@PathVariable String taskId,
+                                                       @RequestBody List<String> dependsOn) {
+        Task task = agentOrchestrationService.updateTaskDependencies(taskId, dependsOn);
+        return ResponseEntity.ok(task);
+    }
+
     /**
      * Get a specific task
      * 
@@ -220,4 +418,16 @@ public class AgentRestController {
         Task task = agentOrchestrationService.getTask(taskId);
         return ResponseEntity.ok(task);
     }
+
+    /**
+     * Evaluate the local delegation classifier against historical delegations
+     * Reports cross-validated accuracy and coverage next to classifier and LLM delegation latency.
+     *
+     * @param folds Number of cross-validation folds
+     * @return The evaluation report
+     */
+    @GetMapping("/delegation/classifier-report")
+    public ResponseEntity<Map<String, Object>> getClassifierReport(@RequestParam(defaultValue = "5") int folds) {
+        return ResponseEntity.ok(delegationClassifierReport.generate(folds));
+    }
 }
@@ -0,0 +1,40 @@
+package io.subbu.ai.pm.controllers.rest;
+
+import io.subbu.ai.pm.vos.CursorPage;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+
+/**
+ * Responses for keyset-paginated listings
+ * The body stays a plain JSON array; the cursor of the next page is sent in the X-Next-Cursor header
+ * and as a Link header with rel="next", both absent on the last page.
+ */
+final class CursorPages {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorPages() {
+    }
+
+    /**
+     * Build the response for a page of the current request
+     *
+     * @param page The page
+     * @return 200 OK with the items of the page
+     */
+    static <T> ResponseEntity<List<T>> ok(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.getNextCursor())
+                    .build()
+                    .toUriString();
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor())
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.getItems());
+    }
+}
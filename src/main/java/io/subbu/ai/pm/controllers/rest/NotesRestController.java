@@ -21,14 +21,17 @@ public class NotesRestController {
     }
 
     /**
-     * Get all notes
+     * Get notes, newest first, one page at a time
+     * The cursor of the next page is returned in the X-Next-Cursor header.
      *
-     * @return List of all notes
+     * @param cursor The cursor of the page to get, none for the first page
+     * @param size Notes per page, none for app.pagination.default-size
+     * @return A page of notes
      */
     @GetMapping
-    public ResponseEntity<List<Note>> getAllNotes() {
-        List<Note> notes = noteService.getAllNotes();
-        return ResponseEntity.ok(notes);
+    public ResponseEntity<List<Note>> getAllNotes(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(required = false) Integer size) {
+        return CursorPages.ok(noteService.getNotes(cursor, size));
     }
 
     /**
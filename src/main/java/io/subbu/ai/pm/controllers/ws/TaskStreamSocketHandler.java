@@ -0,0 +1,92 @@
+package io.subbu.ai.pm.controllers.ws;
+
+import io.subbu.ai.pm.services.TaskStreamMultiplexer;
+import io.subbu.ai.pm.vos.TaskStreamCommand;
+import io.subbu.ai.pm.vos.TaskStreamFrame;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * WebSocket endpoint streaming many task executions over one connection
+ *
+ * Every text message is a JSON {@link TaskStreamCommand} (subscribe, credit, cancel) and every reply
+ * a JSON {@link TaskStreamFrame} (delta, complete, error) tagged with its task ID. Flow control and
+ * stream lifecycle are handled by {@link TaskStreamMultiplexer}; this class only translates messages.
+ *
+ * Configuration:
+ * - app.streaming.socket-send-time-limit-ms: Longest a single send may block before the connection is closed (default: 10000)
+ * - app.streaming.socket-send-buffer-kb: Frames buffered while the client is slow to read before it is closed (default: 1024)
+ */
+@Slf4j
+@Component
+public class TaskStreamSocketHandler extends TextWebSocketHandler {
+
+    private static final String CHANNEL_ATTRIBUTE = "taskStreamChannel";
+
+    private final TaskStreamMultiplexer taskStreamMultiplexer;
+    private final JsonMapper jsonMapper;
+    private final int sendTimeLimitMs;
+    private final int sendBufferBytes;
+
+    public TaskStreamSocketHandler(
+            TaskStreamMultiplexer taskStreamMultiplexer,
+            JsonMapper jsonMapper,
+            @Value("${app.streaming.socket-send-time-limit-ms:10000}") int sendTimeLimitMs,
+            @Value("${app.streaming.socket-send-buffer-kb:1024}") int sendBufferKb) {
+        this.taskStreamMultiplexer = taskStreamMultiplexer;
+        this.jsonMapper = jsonMapper;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferBytes = sendBufferKb * 1024;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        // Frames of different tasks are sent from different threads
+        WebSocketSession out = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs, sendBufferBytes);
+        session.getAttributes().put(CHANNEL_ATTRIBUTE, taskStreamMultiplexer.open(frame -> send(out, frame)));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        TaskStreamCommand command;
+        try {
+            command = jsonMapper.readValue(message.getPayload(), TaskStreamCommand.class);
+        } catch (JacksonException e) {
+            log.debug("Closing task stream socket {} after invalid message", session.getId(), e);
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+        channel(session).handle(command);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        TaskStreamMultiplexer.Channel channel = channel(session);
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private static TaskStreamMultiplexer.Channel channel(WebSocketSession session) {
+        return (TaskStreamMultiplexer.Channel) session.getAttributes().get(CHANNEL_ATTRIBUTE);
+    }
+
+    private void send(WebSocketSession session, TaskStreamFrame frame) {
+        try {
+            session.sendMessage(new TextMessage(jsonMapper.writeValueAsString(frame)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
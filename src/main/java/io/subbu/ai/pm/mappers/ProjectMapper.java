@@ -1,7 +1,9 @@
 package io.subbu.ai.pm.mappers;
 
 import io.subbu.ai.pm.models.ProjectEntity;
+import io.subbu.ai.pm.repos.ProjectRepository;
 import io.subbu.ai.pm.vos.Project;
+import io.subbu.ai.pm.vos.ProjectSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -46,6 +48,16 @@ public interface ProjectMapper {
      */
     List<Project> toVOList(List<ProjectEntity> entities);
 
+    /**
+     * Convert a project summary row to a ProjectSummary VO
+     *
+     * @param summary The summary row
+     * @return The ProjectSummary VO
+     */
+    @Mapping(target = "createdAt", expression = "java(formatDateTime(summary.getCreatedAt()))")
+    @Mapping(target = "updatedAt", expression = "java(formatDateTime(summary.getUpdatedAt()))")
+    ProjectSummary toSummary(ProjectRepository.Summary summary);
+
     /**
      * Format LocalDateTime to String
      */
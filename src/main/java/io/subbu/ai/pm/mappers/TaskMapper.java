@@ -3,6 +3,7 @@ package io.subbu.ai.pm.mappers;
 import io.subbu.ai.pm.models.ProjectEntity;
 import io.subbu.ai.pm.models.TaskEntity;
 import io.subbu.ai.pm.vos.Task;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -29,8 +30,13 @@ public interface TaskMapper {
     @Mapping(target = "type", source = "type")
     @Mapping(target = "status", source = "status")
     @Mapping(target = "result", source = "result")
+    @Mapping(target = "resultOffset", source = "resultOffset")
     @Mapping(target = "assignedAgent", source = "assignedAgent")
+    @Mapping(target = "delegationSource", source = "delegationSource")
     @Mapping(target = "tokensUsed", source = "tokensUsed")
+    @Mapping(target = "promptTokens", source = "promptTokens")
+    @Mapping(target = "completionTokens", source = "completionTokens")
+    @Mapping(target = "dependsOn", source = "dependsOn")
     Task toVO(TaskEntity entity);
 
     /**
@@ -46,10 +52,16 @@ public interface TaskMapper {
     @Mapping(target = "type", source = "vo.type")
     @Mapping(target = "status", source = "vo.status")
     @Mapping(target = "result", source = "vo.result")
+    @Mapping(target = "resultOffset", source = "vo.resultOffset")
     @Mapping(target = "assignedAgent", source = "vo.assignedAgent")
+    @Mapping(target = "delegationSource", source = "vo.delegationSource")
+    @Mapping(target = "dependsOn", expression = "java(new java.util.ArrayList<>(vo.getDependsOn()))")
     @Mapping(target = "tokensUsed", ignore = true)
+    @Mapping(target = "promptTokens", ignore = true)
+    @Mapping(target = "completionTokens", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "persisted", ignore = true)
     TaskEntity toEntity(Task vo, ProjectEntity project);
 
     /**
@@ -62,8 +74,26 @@ public interface TaskMapper {
     @Mapping(target = "project", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "persisted", ignore = true)
+    @Mapping(target = "dependsOn", expression = "java(new java.util.ArrayList<>(vo.getDependsOn()))")
     void updateEntityFromVO(Task vo, @MappingTarget TaskEntity entity);
 
+    /**
+     * Update existing TaskEntity with the outcome of an execution
+     * Only status, result and token usage are copied, so dependencies changed while the task ran are kept.
+     *
+     * @param vo The VO with the execution outcome
+     * @param entity The entity to update
+     */
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "status", source = "status")
+    @Mapping(target = "result", source = "result")
+    @Mapping(target = "resultOffset", source = "resultOffset")
+    @Mapping(target = "tokensUsed", source = "tokensUsed")
+    @Mapping(target = "promptTokens", source = "promptTokens")
+    @Mapping(target = "completionTokens", source = "completionTokens")
+    void updateExecutionFromVO(Task vo, @MappingTarget TaskEntity entity);
+
     /**
      * Convert a list of TaskEntity to a list of Task VO
      *
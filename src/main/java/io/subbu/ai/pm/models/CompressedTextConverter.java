@@ -0,0 +1,117 @@
+package io.subbu.ai.pm.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * JPA converter that stores text in a BYTEA column, deflate-compressed when that makes it smaller
+ *
+ * The first byte of the column value is the format, so values written in an older format stay readable:
+ * - 0 (plain): the UTF-8 text. Used for short or incompressible text, for rows migrated from TEXT, and
+ *   for task checkpoints, which SQL appends to in place (see TaskRepository.appendCheckpoint).
+ * - 1 (deflate): the UTF-8 length as a 4-byte big-endian integer, then the text as a zlib stream.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    static final byte PLAIN = 0;
+    static final byte DEFLATE = 1;
+
+    /**
+     * Text shorter than this in UTF-8 is stored plain; deflate gains little on it
+     */
+    static final int MIN_COMPRESSED_BYTES = 512;
+
+    private static final int DEFLATE_HEADER_BYTES = 5;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= MIN_COMPRESSED_BYTES) {
+            byte[] compressed = deflate(utf8);
+            if (compressed != null) {
+                return compressed;
+            }
+        }
+        byte[] column = new byte[utf8.length + 1];
+        column[0] = PLAIN;
+        System.arraycopy(utf8, 0, column, 1, utf8.length);
+        return column;
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] column) {
+        if (column == null) {
+            return null;
+        }
+        if (column.length == 0) {
+            throw new IllegalStateException("Stored text has no format byte");
+        }
+        return switch (column[0]) {
+            case PLAIN -> new String(column, 1, column.length - 1, StandardCharsets.UTF_8);
+            case DEFLATE -> inflate(column);
+            default -> throw new IllegalStateException("Unknown stored text format: " + column[0]);
+        };
+    }
+
+    /**
+     * Compress text in the deflate format
+     *
+     * @return The column value, or null if it would not be smaller than the plain format
+     */
+    private static byte[] deflate(byte[] utf8) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            // Never more than the plain format would take
+            byte[] column = new byte[utf8.length + 1];
+            column[0] = DEFLATE;
+            ByteBuffer.wrap(column, 1, 4).putInt(utf8.length);
+            int length = DEFLATE_HEADER_BYTES;
+            while (!deflater.finished()) {
+                if (length == column.length) {
+                    return null;
+                }
+                length += deflater.deflate(column, length, column.length - length);
+            }
+            return Arrays.copyOf(column, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String inflate(byte[] column) {
+        if (column.length < DEFLATE_HEADER_BYTES) {
+            throw new IllegalStateException("Compressed text is truncated");
+        }
+        byte[] utf8 = new byte[ByteBuffer.wrap(column, 1, 4).getInt()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(column, DEFLATE_HEADER_BYTES, column.length - DEFLATE_HEADER_BYTES);
+            int length = 0;
+            while (length < utf8.length) {
+                int inflated = inflater.inflate(utf8, length, utf8.length - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Compressed text is truncated");
+                }
+                length += inflated;
+            }
+            return new String(utf8, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Compressed text is corrupt", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.subbu.ai.pm.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity representing a cached delegation decision
+ * The key is the normalized task description, so equivalent descriptions share one entry.
+ */
+@Entity
+@Table(name = "delegation_cache")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DelegationCacheEntity {
+
+    @Id
+    @Column(name = "description_key", nullable = false, columnDefinition = "TEXT")
+    private String descriptionKey;
+
+    @Column(name = "assigned_agent", nullable = false, length = 100)
+    private String assignedAgent;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -5,8 +5,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * JPA Entity representing a Task in the database
@@ -17,7 +20,7 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class TaskEntity {
+public class TaskEntity implements Persistable<String> {
 
     @Id
     @Column(name = "id", nullable = false, length = 36)
@@ -36,24 +39,78 @@ public class TaskEntity {
     @Column(name = "status", nullable = false, length = 50)
     private String status;
 
-    @Column(name = "result", columnDefinition = "TEXT")
+    /**
+     * Stored compressed, see {@link CompressedTextConverter}
+     */
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "result", columnDefinition = "BYTEA")
     private String result;
 
+    /**
+     * UTF-8 length in bytes of the stored result
+     * While the task is IN_PROGRESS the result holds the partial output of the last checkpoint.
+     */
+    @Column(name = "result_offset")
+    private Long resultOffset;
+
     @Column(name = "assigned_agent", length = 100)
     private String assignedAgent;
 
+    /**
+     * What decided the assigned agent: llm, classifier or cache
+     * Only LLM decisions are used to train the delegation classifier.
+     */
+    @Column(name = "delegation_source", length = 20)
+    private String delegationSource;
+
     @Column(name = "tokens_used")
     private Integer tokensUsed;
 
+    @Column(name = "prompt_tokens")
+    private Integer promptTokens;
+
+    @Column(name = "completion_tokens")
+    private Integer completionTokens;
+
+    /**
+     * IDs of tasks in the same project that must complete before this one can execute
+     */
+    @Convert(converter = StringListConverter.class)
+    @Column(name = "depends_on", columnDefinition = "TEXT")
+    @Builder.Default
+    private List<String> dependsOn = new ArrayList<>();
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * Whether the task has been inserted or loaded
+     * Task IDs are assigned before saving, so without this save() could not tell a new task from a
+     * detached one and would select every new task before inserting it.
+     */
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        persisted = true;
+    }
+
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
+        // Tasks inserted in one batch get increasing creation times from the caller to keep their order
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
         updatedAt = LocalDateTime.now();
         if (status == null) {
             status = "PENDING";
@@ -0,0 +1,75 @@
+package io.subbu.ai.pm.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA Entity representing an entry of the durable task execution queue
+ * Status is one of QUEUED, RUNNING, DONE or FAILED. A RUNNING entry is owned by the worker
+ * named in leaseOwner until leaseExpiresAt; expired leases are reclaimed by other workers.
+ */
+@Entity
+@Table(name = "task_queue")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskQueueEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id", nullable = false, length = 36)
+    private String id;
+
+    @Column(name = "task_id", nullable = false, length = 36)
+    private String taskId;
+
+    @Column(name = "status", nullable = false, length = 50)
+    private String status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "lease_owner", length = 255)
+    private String leaseOwner;
+
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    @Column(name = "available_at", nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(name = "bypass_cache", nullable = false, columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean bypassCache;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        if (availableAt == null) {
+            availableAt = createdAt;
+        }
+        if (status == null) {
+            status = "QUEUED";
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,33 @@
+package io.subbu.ai.pm.repos;
+
+import io.subbu.ai.pm.models.DelegationCacheEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JPA Repository for the persistent tier of the delegation cache
+ */
+@Repository
+public interface DelegationCacheRepository extends JpaRepository<DelegationCacheEntity, String> {
+
+    /**
+     * Insert or replace the cached delegation of a normalized description
+     * Safe to call concurrently from several nodes for the same key.
+     *
+     * @param descriptionKey The normalized task description
+     * @param assignedAgent The specialist role
+     * @return Number of rows written
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO delegation_cache (description_key, assigned_agent, created_at, updated_at)
+            VALUES (:descriptionKey, :assignedAgent, LOCALTIMESTAMP, LOCALTIMESTAMP)
+            ON CONFLICT (description_key)
+            DO UPDATE SET assigned_agent = EXCLUDED.assigned_agent, updated_at = LOCALTIMESTAMP
+            """, nativeQuery = true)
+    int upsert(String descriptionKey, String assignedAgent);
+}
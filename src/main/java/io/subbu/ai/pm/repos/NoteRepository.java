@@ -1,9 +1,12 @@
 package io.subbu.ai.pm.repos;
 
 import io.subbu.ai.pm.models.NoteEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -26,4 +29,26 @@ public interface NoteRepository extends JpaRepository<NoteEntity, String> {
      * @return List of notes ordered by newest first
      */
     List<NoteEntity> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Find the newest notes
+     *
+     * @param limit Max number of notes
+     * @return List of notes ordered by newest first
+     */
+    List<NoteEntity> findAllByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    /**
+     * Find the notes created before a cursor, newest first
+     * The separate created_at bound lets the index scan start at the cursor instead of filtering from the newest note.
+     *
+     * @param createdAt Creation time of the last note of the previous page
+     * @param id ID of the last note of the previous page
+     * @param limit Max number of notes
+     * @return List of notes ordered by newest first
+     */
+    @Query("SELECT n FROM NoteEntity n WHERE n.createdAt <= :createdAt " +
+            "AND (n.createdAt < :createdAt OR n.id < :id) " +
+            "ORDER BY n.createdAt DESC, n.id DESC")
+    List<NoteEntity> findPageAfter(LocalDateTime createdAt, String id, Limit limit);
 }
@@ -2,8 +2,10 @@ package io.subbu.ai.pm.repos;
 
 import io.subbu.ai.pm.models.ProjectEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -18,4 +20,71 @@ public interface ProjectRepository extends JpaRepository<ProjectEntity, String>
      * @return List of projects ordered by newest first
      */
     List<ProjectEntity> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Summarize the newest projects with their task counts per status in one query
+     * Only the counts leave the database, not the task rows and their results.
+     *
+     * @param limit Max number of projects
+     * @return List of project summaries ordered by newest first
+     */
+    @Query(value = """
+            SELECT p.id AS "projectId", p.title AS "title", p.tokens_used AS "tokensUsed",
+                   p.created_at AS "createdAt", p.updated_at AS "updatedAt",
+                   COUNT(t.id) AS "taskCount",
+                   COUNT(t.id) FILTER (WHERE t.status = 'COMPLETED') AS "completedCount",
+                   COUNT(t.id) FILTER (WHERE t.status = 'ASSIGNED') AS "assignedCount"
+            FROM (SELECT * FROM projects
+                  ORDER BY created_at DESC, id DESC
+                  LIMIT :limit) p
+            LEFT JOIN tasks t ON t.project_id = p.id
+            GROUP BY p.id, p.title, p.tokens_used, p.created_at, p.updated_at
+            ORDER BY p.created_at DESC, p.id DESC
+            """, nativeQuery = true)
+    List<Summary> findSummaries(int limit);
+
+    /**
+     * Summarize the projects created before a cursor, like {@link #findSummaries}
+     *
+     * @param createdAt Creation time of the last project of the previous page
+     * @param id ID of the last project of the previous page
+     * @param limit Max number of projects
+     * @return List of project summaries ordered by newest first
+     */
+    @Query(value = """
+            SELECT p.id AS "projectId", p.title AS "title", p.tokens_used AS "tokensUsed",
+                   p.created_at AS "createdAt", p.updated_at AS "updatedAt",
+                   COUNT(t.id) AS "taskCount",
+                   COUNT(t.id) FILTER (WHERE t.status = 'COMPLETED') AS "completedCount",
+                   COUNT(t.id) FILTER (WHERE t.status = 'ASSIGNED') AS "assignedCount"
+            FROM (SELECT * FROM projects
+                  WHERE (created_at, id) < (:createdAt, :id)
+                  ORDER BY created_at DESC, id DESC
+                  LIMIT :limit) p
+            LEFT JOIN tasks t ON t.project_id = p.id
+            GROUP BY p.id, p.title, p.tokens_used, p.created_at, p.updated_at
+            ORDER BY p.created_at DESC, p.id DESC
+            """, nativeQuery = true)
+    List<Summary> findSummariesAfter(LocalDateTime createdAt, String id, int limit);
+
+    /**
+     * Project row with the number of its tasks in total and per status
+     */
+    interface Summary {
+        String getProjectId();
+
+        String getTitle();
+
+        Integer getTokensUsed();
+
+        LocalDateTime getCreatedAt();
+
+        LocalDateTime getUpdatedAt();
+
+        long getTaskCount();
+
+        long getCompletedCount();
+
+        long getAssignedCount();
+    }
 }
@@ -0,0 +1,151 @@
+package io.subbu.ai.pm.repos;
+
+import io.subbu.ai.pm.models.TaskQueueEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JPA Repository for the durable task execution queue
+ * All lease timestamps are computed by the database so that every node uses the same clock.
+ */
+@Repository
+public interface TaskQueueRepository extends JpaRepository<TaskQueueEntity, String> {
+
+    /**
+     * Find the active (QUEUED or RUNNING) queue entry of a task, if any
+     *
+     * @param taskId The ID of the task
+     * @param statuses The statuses considered active
+     * @return The queue entry
+     */
+    Optional<TaskQueueEntity> findFirstByTaskIdAndStatusIn(String taskId, Collection<String> statuses);
+
+    /**
+     * Add a QUEUED entry for a task unless it already has an active (QUEUED or RUNNING) one
+     * Safe to call concurrently from several nodes: idx_task_queue_active_task allows one active entry
+     * per task, and a concurrent insert of the same task waits for the other one to commit.
+     *
+     * @param id The ID of the new entry
+     * @param taskId The ID of the task
+     * @param bypassCache Whether the worker should skip the specialist response cache
+     * @return 1 if the entry was added, 0 if the task already has an active entry
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO task_queue (id, task_id, status, attempts, available_at, bypass_cache, created_at, updated_at)
+            VALUES (:id, :taskId, 'QUEUED', 0, LOCALTIMESTAMP, :bypassCache, LOCALTIMESTAMP, LOCALTIMESTAMP)
+            ON CONFLICT (task_id) WHERE status IN ('QUEUED', 'RUNNING') DO NOTHING
+            """, nativeQuery = true)
+    int insertQueued(String id, String taskId, boolean bypassCache);
+
+    /**
+     * Lock the next claimable entries: queued entries that are due, and running entries whose lease expired
+     * Rows locked by other workers are skipped instead of waited for. Must run inside a transaction.
+     *
+     * @param limit Maximum number of entries to lock
+     * @return IDs of the locked entries
+     */
+    @Query(value = """
+            SELECT id FROM task_queue
+            WHERE (status = 'QUEUED' AND available_at <= LOCALTIMESTAMP)
+               OR (status = 'RUNNING' AND lease_expires_at < LOCALTIMESTAMP)
+            ORDER BY available_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<String> lockClaimableIds(int limit);
+
+    /**
+     * Mark locked entries as RUNNING under a new lease
+     *
+     * @param ids IDs of entries locked by {@link #lockClaimableIds(int)}
+     * @param owner The worker taking the lease
+     * @param leaseSeconds Lease duration
+     * @return Number of entries claimed
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE task_queue
+            SET status = 'RUNNING',
+                lease_owner = :owner,
+                lease_expires_at = LOCALTIMESTAMP + INTERVAL '1 second' * :leaseSeconds,
+                attempts = attempts + 1,
+                updated_at = LOCALTIMESTAMP
+            WHERE id IN (:ids)
+            """, nativeQuery = true)
+    int claim(Collection<String> ids, String owner, int leaseSeconds);
+
+    /**
+     * Extend the leases a worker still holds
+     *
+     * @param ids IDs of the entries the worker is processing
+     * @param owner The worker holding the leases
+     * @param leaseSeconds Lease duration from now
+     * @return Number of leases renewed; lower than ids.size() if some leases were lost
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE task_queue
+            SET lease_expires_at = LOCALTIMESTAMP + INTERVAL '1 second' * :leaseSeconds,
+                updated_at = LOCALTIMESTAMP
+            WHERE id IN (:ids) AND lease_owner = :owner AND status = 'RUNNING'
+            """, nativeQuery = true)
+    int renewLeases(Collection<String> ids, String owner, int leaseSeconds);
+
+    /**
+     * Mark an entry as DONE if the worker still holds its lease
+     *
+     * @param id The ID of the entry
+     * @param owner The worker holding the lease
+     * @return 1 if the entry was completed, 0 if the lease was lost
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE task_queue
+            SET status = 'DONE', lease_owner = NULL, lease_expires_at = NULL, updated_at = LOCALTIMESTAMP
+            WHERE id = :id AND lease_owner = :owner AND status = 'RUNNING'
+            """, nativeQuery = true)
+    int markDone(String id, String owner);
+
+    /**
+     * Put an entry back in the queue for another attempt after a delay
+     *
+     * @param id The ID of the entry
+     * @param owner The worker holding the lease
+     * @param error The error of the failed attempt
+     * @param delaySeconds Delay before the entry can be claimed again
+     * @return 1 if the entry was released, 0 if the lease was lost
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE task_queue
+            SET status = 'QUEUED', lease_owner = NULL, lease_expires_at = NULL, last_error = :error,
+                available_at = LOCALTIMESTAMP + INTERVAL '1 second' * :delaySeconds,
+                updated_at = LOCALTIMESTAMP
+            WHERE id = :id AND lease_owner = :owner AND status = 'RUNNING'
+            """, nativeQuery = true)
+    int releaseForRetry(String id, String owner, String error, int delaySeconds);
+
+    /**
+     * Mark an entry as permanently FAILED
+     *
+     * @param id The ID of the entry
+     * @param owner The worker holding the lease
+     * @param error The error of the last attempt
+     * @return 1 if the entry was failed, 0 if the lease was lost
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE task_queue
+            SET status = 'FAILED', lease_owner = NULL, lease_expires_at = NULL, last_error = :error,
+                updated_at = LOCALTIMESTAMP
+            WHERE id = :id AND lease_owner = :owner AND status = 'RUNNING'
+            """, nativeQuery = true)
+    int markFailed(String id, String owner, String error);
+}
@@ -2,11 +2,16 @@ package io.subbu.ai.pm.repos;
 
 import io.subbu.ai.pm.models.ProjectEntity;
 import io.subbu.ai.pm.models.TaskEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * JPA Repository for Task entities
@@ -31,6 +36,31 @@ public interface TaskRepository extends JpaRepository<TaskEntity, String> {
     @Query("SELECT t FROM TaskEntity t WHERE t.project.id = :projectId")
     List<TaskEntity> findByProjectId(String projectId);
 
+    /**
+     * Find the first tasks of a project in creation order
+     *
+     * @param projectId The ID of the project
+     * @param limit Max number of tasks
+     * @return List of tasks ordered by creation
+     */
+    @Query("SELECT t FROM TaskEntity t WHERE t.project.id = :projectId ORDER BY t.createdAt, t.id")
+    List<TaskEntity> findPageByProjectId(String projectId, Limit limit);
+
+    /**
+     * Find the tasks of a project created after a cursor, in creation order
+     * The separate created_at bound lets the index scan start at the cursor instead of filtering from the first task.
+     *
+     * @param projectId The ID of the project
+     * @param createdAt Creation time of the last task of the previous page
+     * @param id ID of the last task of the previous page
+     * @param limit Max number of tasks
+     * @return List of tasks ordered by creation
+     */
+    @Query("SELECT t FROM TaskEntity t WHERE t.project.id = :projectId " +
+            "AND t.createdAt >= :createdAt AND (t.createdAt > :createdAt OR t.id > :id) " +
+            "ORDER BY t.createdAt, t.id")
+    List<TaskEntity> findPageByProjectIdAfter(String projectId, LocalDateTime createdAt, String id, Limit limit);
+
     /**
      * Find all tasks by status
      *
@@ -66,6 +96,113 @@ public interface TaskRepository extends JpaRepository<TaskEntity, String> {
     @Query("SELECT COUNT(t) FROM TaskEntity t WHERE t.project.id = :projectId")
     long countByProjectId(String projectId);
 
+    /**
+     * Get description and assigned agent of the newest tasks delegated by the LLM
+     * Used to train the local delegation classifier, so tasks it or the cache delegated are left out.
+     *
+     * @param limit Max number of tasks
+     * @return Rows of [description, assignedAgent], newest first
+     */
+    @Query("""
+            SELECT t.description, t.assignedAgent FROM TaskEntity t
+            WHERE t.delegationSource = 'llm' AND t.assignedAgent IS NOT NULL
+            ORDER BY t.createdAt DESC
+            """)
+    List<Object[]> findDelegationHistory(Limit limit);
+
+    /**
+     * Make a generation the owner of the checkpoints of a task and mark the task IN_PROGRESS
+     * A CANCELLED or IN_PROGRESS task is taken over only if its stored result ends where the generation
+     * continues it; a generation that still writes to it afterwards is ignored.
+     *
+     * @param taskId The ID of the task
+     * @param generation The ID of the generation
+     * @param offset UTF-8 length in bytes of the stored result the generation continues
+     * @return Number of tasks updated, 0 if the task completed or its result changed
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE tasks
+            SET generation_id = :generation,
+                status = 'IN_PROGRESS',
+                updated_at = LOCALTIMESTAMP
+            WHERE id = :taskId
+              AND status IN ('ASSIGNED', 'IN_PROGRESS', 'CANCELLED')
+              AND COALESCE(result_offset, 0) = :offset
+              AND (result IS NULL OR get_byte(result, 0) = 0)
+            """, nativeQuery = true)
+    int claimGeneration(String taskId, String generation, long offset);
+
+    /**
+     * Append a checkpoint of streamed output to the stored result of a task
+     * Only the new text is sent. The append applies only if the generation still owns the IN_PROGRESS
+     * task and the stored result still ends at the given offset, so checkpoints that are stale, out of
+     * order or arrive after a cancellation are ignored.
+     * Checkpoints are kept in the plain format of {@link io.subbu.ai.pm.models.CompressedTextConverter},
+     * which can be appended to in place; a compressed result is never appended to.
+     *
+     * @param taskId The ID of the task
+     * @param generation The ID of the generation that claimed the task
+     * @param delta Text generated since the previous checkpoint
+     * @param offset UTF-8 length in bytes of the stored result the delta follows
+     * @param newOffset UTF-8 length in bytes of the result after the append
+     * @return Number of tasks updated, 0 if the checkpoint was ignored
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE tasks
+            SET result = COALESCE(result, decode('00', 'hex')) || convert_to(:delta, 'UTF8'),
+                result_offset = :newOffset,
+                updated_at = LOCALTIMESTAMP
+            WHERE id = :taskId
+              AND status = 'IN_PROGRESS'
+              AND generation_id = :generation
+              AND COALESCE(result_offset, 0) = :offset
+              AND (result IS NULL OR get_byte(result, 0) = 0)
+            """, nativeQuery = true)
+    int appendCheckpoint(String taskId, String generation, String delta, long offset, long newOffset);
+
+    /**
+     * Mark a task whose generation was cancelled as CANCELLED, keeping its checkpointed output
+     * A task that completed in the meantime or was claimed by another generation is left alone.
+     *
+     * @param taskId The ID of the task
+     * @param generation The ID of the cancelled generation
+     * @return Number of tasks updated
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE tasks
+            SET status = 'CANCELLED',
+                updated_at = LOCALTIMESTAMP
+            WHERE id = :taskId
+              AND status = 'IN_PROGRESS'
+              AND generation_id = :generation
+            """, nativeQuery = true)
+    int markCancelled(String taskId, String generation);
+
+    /**
+     * Find and lock a task while a generation still owns it, before its complete result is saved
+     * Same condition as {@link #appendCheckpoint}: a task that was cancelled, completed or claimed by another
+     * generation is not returned, and the lock keeps other generations from claiming it until the save commits.
+     * Must run inside a transaction.
+     *
+     * @param taskId The ID of the task
+     * @param generation The ID of the completed generation
+     * @return The task, if the generation still owns it
+     */
+    @Query(value = """
+            SELECT * FROM tasks
+            WHERE id = :taskId
+              AND status = 'IN_PROGRESS'
+              AND generation_id = :generation
+            FOR UPDATE
+            """, nativeQuery = true)
+    Optional<TaskEntity> lockOwnedByGeneration(String taskId, String generation);
+
     /**
      * Get all distinct project IDs
      *
@@ -0,0 +1,345 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.subbu.ai.pm.vos.StreamDelta;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges numbered response chunks into larger deltas for buffered streaming
+ *
+ * LLM chunks range from a single byte to whole words, so flushing on a fixed chunk count is uneven.
+ * Pending chunks are flushed as one delta when they end at a boundary and hold at least the minimum
+ * size, when they reach the byte budget, or when the oldest of them has waited for the latency budget.
+ * Boundaries are line ends and sentence ends; inside a fenced code block only the end of the closing
+ * fence line counts, so blocks are sent whole unless a budget runs out. When a budget forces a flush,
+ * the delta ends after the last chunk that ended at a boundary, if there is one.
+ *
+ * Deltas are only sent on demand. While the subscriber lags, for example a slow SSE client, pending
+ * chunks are coalesced into one larger delta that is sent once it requests more, so no text is dropped.
+ * To bound memory, a subscriber more than app.streaming.max-lag-bytes behind gets an error instead;
+ * it can resume after the last delta it received (Last-Event-ID).
+ *
+ * Configuration:
+ * - app.streaming.flush-min-bytes: Smallest delta flushed at a boundary (default: 64)
+ * - app.streaming.flush-max-bytes: Pending bytes that force a flush (default: 2048)
+ * - app.streaming.flush-max-latency-ms: Longest time a chunk waits before it is flushed (default: 500)
+ * - app.streaming.max-lag-bytes: Pending bytes per subscriber before a lagging one is disconnected (default: 1048576)
+ *
+ * Metrics:
+ * - agent.stream.ttfb: Time from subscription to the first delta
+ * - agent.stream.flush.size: Delta size in bytes, by trigger (boundary, size, latency, coalesced, complete)
+ * - agent.stream.overruns: Subscribers disconnected for falling more than max-lag-bytes behind
+ */
+@Component
+public class AdaptiveStreamFlusher {
+
+    private static final int FENCE_LENGTH = 3;
+
+    private final long minBytes;
+    private final long maxBytes;
+    private final long maxLatencyNanos;
+    private final long maxLagBytes;
+    private final Scheduler scheduler;
+    private final MeterRegistry meterRegistry;
+    private final Timer timeToFirstByte;
+    private final Counter overruns;
+
+    public AdaptiveStreamFlusher(
+            MeterRegistry meterRegistry,
+            @Value("${app.streaming.flush-min-bytes:64}") long minBytes,
+            @Value("${app.streaming.flush-max-bytes:2048}") long maxBytes,
+            @Value("${app.streaming.flush-max-latency-ms:500}") long maxLatencyMs,
+            @Value("${app.streaming.max-lag-bytes:1048576}") long maxLagBytes) {
+        this(meterRegistry, minBytes, maxBytes, Duration.ofMillis(maxLatencyMs), maxLagBytes, Schedulers.parallel());
+    }
+
+    AdaptiveStreamFlusher(MeterRegistry meterRegistry, long minBytes, long maxBytes,
+                          Duration maxLatency, long maxLagBytes, Scheduler scheduler) {
+        if (maxBytes < 1 || minBytes > maxBytes) {
+            throw new IllegalArgumentException(
+                    "app.streaming.flush-max-bytes must be at least 1 and not below app.streaming.flush-min-bytes");
+        }
+        if (maxLagBytes < maxBytes) {
+            throw new IllegalArgumentException("app.streaming.max-lag-bytes must not be below app.streaming.flush-max-bytes");
+        }
+        this.minBytes = minBytes;
+        this.maxBytes = maxBytes;
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.maxLagBytes = maxLagBytes;
+        this.scheduler = scheduler;
+        this.meterRegistry = meterRegistry;
+        this.timeToFirstByte = Timer.builder("agent.stream.ttfb")
+                .description("Time from subscription to the first buffered delta")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.overruns = Counter.builder("agent.stream.overruns")
+                .description("Stream subscribers disconnected for falling too far behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Merge numbered chunks into deltas
+     * Each delta carries the sequence number of its last chunk and the offset of its first chunk.
+     * Deltas are only sent as requested; chunks arriving in the meantime are coalesced.
+     *
+     * @param chunks Consecutive numbered chunks
+     * @return Flux of merged deltas
+     */
+    public Flux<StreamDelta> flush(Flux<StreamDelta> chunks) {
+        return Flux.create(sink -> {
+            // All flush state is confined to one worker, which also runs the latency timer
+            Scheduler.Worker worker = scheduler.createWorker();
+            Flush flush = new Flush(sink, worker);
+            sink.onRequest(n -> run(worker, flush::onDemand));
+            sink.onDispose(() -> {
+                flush.upstream.dispose();
+                worker.dispose();
+            });
+            flush.upstream.update(chunks.subscribe(
+                    chunk -> run(worker, () -> flush.onNext(chunk)),
+                    e -> run(worker, () -> flush.onError(e)),
+                    () -> run(worker, flush::onComplete)));
+        });
+    }
+
+    private static void run(Scheduler.Worker worker, Runnable task) {
+        try {
+            worker.schedule(task);
+        } catch (RejectedExecutionException e) {
+            // The subscriber is gone and the worker disposed
+        }
+    }
+
+    private DistributionSummary flushSize(String trigger) {
+        return DistributionSummary.builder("agent.stream.flush.size")
+                .description("Bytes per buffered streaming delta")
+                .baseUnit("bytes")
+                .tag("trigger", trigger)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether a chunk ends a line or sentence
+     */
+    static boolean endsAtBoundary(String text) {
+        int end = text.length();
+        while (end > 0 && " \t\"')*_".indexOf(text.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (end == 0) {
+            return false;
+        }
+        char last = text.charAt(end - 1);
+        return last == '\n' || last == '.' || last == '!' || last == '?';
+    }
+
+    /**
+     * A pending chunk with its size and arrival time
+     */
+    private record Pending(StreamDelta chunk, long bytes, long arrivedAt) {
+    }
+
+    /**
+     * Flush state of one subscription
+     * Only touched by its worker, so it needs no locking.
+     */
+    private final class Flush {
+
+        private final FluxSink<StreamDelta> sink;
+        private final Scheduler.Worker worker;
+        private final Disposable.Swap upstream = Disposables.swap();
+        private final Timer.Sample sinceSubscribe;
+        private final Deque<Pending> pending = new ArrayDeque<>();
+        private long pendingBytes;
+        private int boundaryChunks;
+        private boolean inFence;
+        private int backtickRun;
+        private boolean emitted;
+        private boolean flushDeferred;
+        private boolean upstreamDone;
+        private Throwable upstreamError;
+        private Disposable timer;
+
+        private Flush(FluxSink<StreamDelta> sink, Scheduler.Worker worker) {
+            this.sink = sink;
+            this.worker = worker;
+            this.sinceSubscribe = Timer.start(meterRegistry);
+        }
+
+        private void onNext(StreamDelta chunk) {
+            if (upstreamDone) {
+                return;
+            }
+            long bytes = chunk.getText().getBytes(StandardCharsets.UTF_8).length;
+            pending.addLast(new Pending(chunk, bytes, System.nanoTime()));
+            pendingBytes += bytes;
+            trackFences(chunk.getText());
+
+            if (pendingBytes > maxLagBytes) {
+                overrun();
+                return;
+            }
+            if (!inFence && endsAtBoundary(chunk.getText())) {
+                boundaryChunks = pending.size();
+                if (pendingBytes >= minBytes) {
+                    emit(pending.size(), "boundary");
+                }
+            }
+            while (pendingBytes >= maxBytes && emit(boundaryChunks > 0 ? boundaryChunks : pending.size(), "size")) {
+                // Keep flushing while the byte budget is exceeded and the subscriber keeps up
+            }
+            scheduleTimer();
+        }
+
+        private void onLatency() {
+            timer = null;
+            if (pending.isEmpty()) {
+                return;
+            }
+            emit(boundaryChunks > 0 ? boundaryChunks : pending.size(), "latency");
+            scheduleTimer();
+        }
+
+        /**
+         * The subscriber requested more deltas: send everything that waited for it as one delta
+         */
+        private void onDemand() {
+            if (flushDeferred && !pending.isEmpty()) {
+                emit(pending.size(), "coalesced");
+            }
+            if (upstreamDone && pending.isEmpty()) {
+                terminate();
+            }
+        }
+
+        private void onError(Throwable e) {
+            upstreamError = e;
+            onComplete();
+        }
+
+        private void onComplete() {
+            upstreamDone = true;
+            cancelTimer();
+            if (!pending.isEmpty()) {
+                emit(pending.size(), "complete");
+            }
+            if (pending.isEmpty()) {
+                terminate();
+            }
+        }
+
+        private void terminate() {
+            if (upstreamError != null) {
+                sink.error(upstreamError);
+            } else {
+                sink.complete();
+            }
+        }
+
+        /**
+         * The subscriber fell too far behind: end its stream rather than hold more text for it
+         * Nothing is lost; the subscriber resumes after the last delta it received.
+         */
+        private void overrun() {
+            upstreamDone = true;
+            upstream.dispose();
+            cancelTimer();
+            overruns.increment();
+            StreamDelta oldest = pending.peekFirst().chunk();
+            String resumeAfter = StreamDelta.eventId(oldest.getGeneration(), oldest.getSeq() - 1);
+            pending.clear();
+            pendingBytes = 0;
+            sink.error(new IllegalStateException("Stream subscriber fell more than " + maxLagBytes
+                    + " bytes behind, resume after event " + resumeAfter));
+        }
+
+        private void cancelTimer() {
+            if (timer != null) {
+                timer.dispose();
+                timer = null;
+            }
+        }
+
+        /**
+         * Track whether the text so far is inside a fenced code block
+         */
+        private void trackFences(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '`') {
+                    if (++backtickRun == FENCE_LENGTH) {
+                        inFence = !inFence;
+                    }
+                } else {
+                    backtickRun = 0;
+                }
+            }
+        }
+
+        /**
+         * Keep a timer running for the oldest pending chunk, unless a flush already waits for demand
+         */
+        private void scheduleTimer() {
+            if (timer != null || flushDeferred || pending.isEmpty()) {
+                return;
+            }
+            long waited = System.nanoTime() - pending.peekFirst().arrivedAt();
+            timer = worker.schedule(this::onLatency, Math.max(0, maxLatencyNanos - waited), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Send the first count pending chunks as one delta
+         * Without outstanding demand nothing is sent; the chunks stay pending and are coalesced with
+         * later ones into a single delta once the subscriber requests more.
+         *
+         * @return Whether the delta was sent
+         */
+        private boolean emit(int count, String trigger) {
+            if (sink.requestedFromDownstream() == 0) {
+                flushDeferred = true;
+                cancelTimer();
+                return false;
+            }
+            flushDeferred = false;
+
+            StringBuilder text = new StringBuilder();
+            Pending first = pending.peekFirst();
+            Pending last = first;
+            long bytes = 0;
+            for (int i = 0; i < count; i++) {
+                last = pending.removeFirst();
+                text.append(last.chunk().getText());
+                bytes += last.bytes();
+            }
+            pendingBytes -= bytes;
+            boundaryChunks = Math.max(0, boundaryChunks - count);
+
+            // The remaining chunks arrived later, so the timer of the flushed ones no longer applies
+            cancelTimer();
+
+            if (!emitted) {
+                emitted = true;
+                sinceSubscribe.stop(timeToFirstByte);
+            }
+            flushSize(trigger).record(bytes);
+            sink.next(new StreamDelta(last.chunk().getGeneration(), last.chunk().getSeq(), first.chunk().getOffset(), text.toString()));
+            return true;
+        }
+    }
+}
@@ -10,64 +10,105 @@ import io.subbu.ai.pm.models.ProjectEntity;
 import io.subbu.ai.pm.models.TaskEntity;
 import io.subbu.ai.pm.repos.ProjectRepository;
 import io.subbu.ai.pm.repos.TaskRepository;
+import io.subbu.ai.pm.vos.CursorPage;
 import io.subbu.ai.pm.vos.Project;
+import io.subbu.ai.pm.vos.ProjectSummary;
+import io.subbu.ai.pm.vos.StreamDelta;
 import io.subbu.ai.pm.vos.Task;
 import io.subbu.ai.pm.vos.TaskExecutionResult;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import reactor.core.publisher.Flux;
 
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Service that orchestrates the multi-agent system
  * Now uses JPA repository for persistent storage with Project entity
+ *
+ * LLM calls can take several seconds each, so they never run inside a transaction.
+ * Every operation is split into short persistence phases (via {@link TransactionTemplate})
+ * around connection-free LLM phases, and LLM calls are instrumented by {@link LlmCallMetrics}.
  */
 @Slf4j
 @Service
-@Transactional
 public class AgentOrchestrationService {
 
     private final ProjectManagerAgent projectManagerAgent;
     private final DevOpsEngineerAgent devOpsEngineerAgent;
     private final TechnicalLeadAgent technicalLeadAgent;
     private final SoftwareEngineerAgent softwareEngineerAgent;
+    private final ParallelTaskDelegator parallelTaskDelegator;
+    private final DependencyAwareTaskScheduler taskScheduler;
+    private final TaskQueueService taskQueueService;
     private final ProjectRepository projectRepository;
     private final TaskRepository taskRepository;
     private final ProjectMapper projectMapper;
     private final TaskMapper taskMapper;
-
-    @Value("${app.streaming.buffer-size:50}")
-    private int streamBufferSize;
-
-    @Value("${app.streaming.buffer-timeout-ms:500}")
-    private long streamBufferTimeoutMs;
+    private final TransactionTemplate transactionTemplate;
+    private final LlmCallMetrics llmCallMetrics;
+    private final LlmResponseCache llmResponseCache;
+    private final TaskStreamRegistry taskStreamRegistry;
+    private final TaskCheckpointer taskCheckpointer;
+    private final AdaptiveStreamFlusher streamFlusher;
+    private final KeysetPagination keysetPagination;
 
     public AgentOrchestrationService(
             ProjectManagerAgent projectManagerAgent,
             DevOpsEngineerAgent devOpsEngineerAgent,
             TechnicalLeadAgent technicalLeadAgent,
             SoftwareEngineerAgent softwareEngineerAgent,
+            ParallelTaskDelegator parallelTaskDelegator,
+            DependencyAwareTaskScheduler taskScheduler,
+            TaskQueueService taskQueueService,
             ProjectRepository projectRepository,
             TaskRepository taskRepository,
             ProjectMapper projectMapper,
-            TaskMapper taskMapper) {
+            TaskMapper taskMapper,
+            PlatformTransactionManager transactionManager,
+            LlmCallMetrics llmCallMetrics,
+            LlmResponseCache llmResponseCache,
+            TaskStreamRegistry taskStreamRegistry,
+            TaskCheckpointer taskCheckpointer,
+            AdaptiveStreamFlusher streamFlusher,
+            KeysetPagination keysetPagination) {
         this.projectManagerAgent = projectManagerAgent;
         this.devOpsEngineerAgent = devOpsEngineerAgent;
         this.technicalLeadAgent = technicalLeadAgent;
         this.softwareEngineerAgent = softwareEngineerAgent;
+        this.parallelTaskDelegator = parallelTaskDelegator;
+        this.taskScheduler = taskScheduler;
+        this.taskQueueService = taskQueueService;
         this.projectRepository = projectRepository;
         this.taskRepository = taskRepository;
         this.projectMapper = projectMapper;
         this.taskMapper = taskMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.llmCallMetrics = llmCallMetrics;
+        this.llmResponseCache = llmResponseCache;
+        this.taskStreamRegistry = taskStreamRegistry;
+        this.taskCheckpointer = taskCheckpointer;
+        this.streamFlusher = streamFlusher;
+        this.keysetPagination = keysetPagination;
     }
 
     /**
@@ -78,52 +119,73 @@ public class AgentOrchestrationService {
      * @return A map containing project info and tasks
      */
     public Map<String, Object> processProjectRequest(String projectTitle) {
-        // Step 1: Create and save the project
-        ProjectEntity projectEntity = ProjectEntity.builder()
-                .title(projectTitle)
-                .build();
-        projectEntity = projectRepository.save(projectEntity);
-
-        // Step 2: Project Manager analyzes the request and breaks it down into tasks
-        Map<String, Object> analysisResult = projectManagerAgent.analyzeProjectRequest(projectTitle);
+        return processProjectRequest(projectTitle, stage -> { });
+    }
+
+    /**
+     * Process a project request through the multi-agent system, reporting progress
+     * Creates a new project and associated tasks
+     *
+     * @param projectTitle The title/description of the project
+     * @param progressListener Receives a short description of each pipeline stage as it starts
+     * @return A map containing project info and tasks
+     */
+    public Map<String, Object> processProjectRequest(String projectTitle, Consumer<String> progressListener) {
+        // Step 1: Project Manager analyzes the request and breaks it down into tasks (no connection held)
+        progressListener.accept("Analyzing project request");
+        Map<String, Object> analysisResult = llmCallMetrics.recordCall("analysis",
+                () -> projectManagerAgent.analyzeProjectRequest(projectTitle));
         @SuppressWarnings("unchecked")
         List<String> taskDescriptions = (List<String>) analysisResult.get("tasks");
+        @SuppressWarnings("unchecked")
+        List<List<Integer>> taskDependencies = (List<List<Integer>>) analysisResult.get("dependencies");
         Integer tokensUsed = (Integer) analysisResult.get("tokensUsed");
 
-        // Store token usage in project
-        projectEntity.setTokensUsed(tokensUsed);
-        projectEntity = projectRepository.save(projectEntity);
-
-        // Step 3: Create task objects and save them to the database
+        // Step 2: Create the tasks in memory; IDs are assigned here so dependencies can refer to them
         List<Task> projectTaskList = new ArrayList<>();
-        for (String description : taskDescriptions) {
-            String taskId = UUID.randomUUID().toString();
-            Task task = new Task(taskId, description, "UNKNOWN");
-
-            // Convert to entity and save with project relationship
-            TaskEntity entity = taskMapper.toEntity(task, projectEntity);
-            entity = taskRepository.save(entity);
+        for (int i = 0; i < taskDescriptions.size(); i++) {
+            Task task = new Task(UUID.randomUUID().toString(), taskDescriptions.get(i), "UNKNOWN");
+
+            // Dependencies from the breakdown always point at earlier tasks
+            if (taskDependencies != null && i < taskDependencies.size()) {
+                task.setDependsOn(taskDependencies.get(i).stream()
+                        .map(index -> projectTaskList.get(index).getId())
+                        .toList());
+            }
+            projectTaskList.add(task);
+        }
 
-            // Convert back to VO and add to list
-            Task savedTask = taskMapper.toVO(entity);
-            projectTaskList.add(savedTask);
+        // Step 3: Project Manager delegates all tasks concurrently to the appropriate specialists (no connection held)
+        progressListener.accept("Delegating " + projectTaskList.size() + " tasks");
+        List<ParallelTaskDelegator.Delegation> delegations = llmCallMetrics.recordCall("delegation",
+                () -> parallelTaskDelegator.delegateAll(projectTaskList));
+        for (int i = 0; i < projectTaskList.size(); i++) {
+            projectTaskList.get(i).setAssignedAgent(delegations.get(i).role());
+            projectTaskList.get(i).setDelegationSource(delegations.get(i).source());
+            projectTaskList.get(i).setStatus("ASSIGNED");
         }
 
-        // Step 4: Project Manager delegates each task to the appropriate specialist
-        for (Task task : projectTaskList) {
-            String specialist = projectManagerAgent.delegateTask(task);
-            task.setAssignedAgent(specialist);
-            task.setStatus("ASSIGNED");
+        // Step 4: Store the project with its assigned tasks at once, as JDBC batches of inserts
+        ProjectEntity projectEntity = transactionTemplate.execute(status -> {
+            ProjectEntity entity = projectRepository.save(ProjectEntity.builder()
+                    .title(projectTitle)
+                    .tokensUsed(tokensUsed)
+                    .build());
+
+            // The tasks share one flush, so give them increasing creation times to keep their order
+            LocalDateTime createdAt = LocalDateTime.now();
+            List<TaskEntity> taskEntities = new ArrayList<>(projectTaskList.size());
+            for (int i = 0; i < projectTaskList.size(); i++) {
+                TaskEntity taskEntity = taskMapper.toEntity(projectTaskList.get(i), entity);
+                taskEntity.setCreatedAt(createdAt.plus(i, ChronoUnit.MICROS));
+                taskEntities.add(taskEntity);
+            }
+            taskRepository.saveAll(taskEntities);
+            return entity;
+        });
 
-            // Update in database
-            TaskEntity entity = taskRepository.findById(task.getId())
-                    .orElseThrow(() -> new IllegalStateException("Task not found after save: " + task.getId()));
-            taskMapper.updateEntityFromVO(task, entity);
-            taskRepository.save(entity);
-        }
-        
         // Return project info and tasks
-        Project project = projectMapper.toVO(projectEntity);
+        Project project = projectMapper.toVO(Objects.requireNonNull(projectEntity));
         return Map.of(
                 "project", project,
                 "tasks", projectTaskList
@@ -132,36 +194,87 @@ public class AgentOrchestrationService {
     
     /**
      * Execute a specific task
+     * The task is added to the durable execution queue and this call waits until a queue worker,
+     * on this or any other node, has completed it.
      * 
      * @param taskId The ID of the task to execute
      * @return The result of the task execution
      */
     public String executeTask(String taskId) {
+        return executeTask(taskId, false);
+    }
+
+    /**
+     * Execute a specific task, optionally skipping the specialist response cache
+     *
+     * @param taskId The ID of the task to execute
+     * @param bypassCache Whether to generate a fresh result even if an identical request is cached
+     * @return The result of the task execution
+     */
+    public String executeTask(String taskId, boolean bypassCache) {
+        // Load task from database
+        TaskEntity entity = taskRepository.findById(taskId)
+                .orElseThrow(() -> new IllegalArgumentException("Task not found: " + taskId));
+
+        if (!isExecutable(entity.getStatus())) {
+            throw new IllegalStateException("Task is not in an executable state (ASSIGNED, IN_PROGRESS or CANCELLED): " + taskId);
+        }
+
+        String entryId = taskQueueService.enqueue(taskId, bypassCache);
+        taskQueueService.awaitCompletion(entryId);
+
+        return getTask(taskId).getResult();
+    }
+
+    /**
+     * Generate and store the result of a task
+     * Called by {@link TaskQueueWorker}; a task that is already COMPLETED (e.g. a reclaimed queue entry
+     * whose previous worker died after saving) is not generated again. The partial output of an
+     * interrupted stream (IN_PROGRESS or CANCELLED) is replaced by a complete result.
+     *
+     * @param taskId The ID of the task to run
+     * @param bypassCache Whether to skip the specialist response cache
+     * @return The result of the task execution
+     */
+    public String runTask(String taskId, boolean bypassCache) {
         // Load task from database
         TaskEntity entity = taskRepository.findById(taskId)
                 .orElseThrow(() -> new IllegalArgumentException("Task not found: " + taskId));
 
         Task task = taskMapper.toVO(entity);
 
-        if (!"ASSIGNED".equals(task.getStatus())) {
-            throw new IllegalStateException("Task is not in ASSIGNED state: " + taskId);
+        if ("COMPLETED".equals(task.getStatus())) {
+            return task.getResult();
+        }
+        if (!isExecutable(task.getStatus())) {
+            throw new IllegalStateException("Task is not in an executable state (ASSIGNED, IN_PROGRESS or CANCELLED): " + taskId);
         }
         
-        TaskExecutionResult executionResult = switch (task.getAssignedAgent()) {
-            case "DevOps Engineer" -> devOpsEngineerAgent.executeTask(task);
-            case "Technical Lead" -> technicalLeadAgent.executeTask(task);
-            case "Software Engineer" -> softwareEngineerAgent.executeTask(task);
-            default -> throw new IllegalStateException("Unknown agent type: " + task.getAssignedAgent());
-        };
+        // Generate the result without holding a database connection, unless an identical request is cached
+        Prompt prompt = buildPrompt(task);
+        TaskExecutionResult executionResult = llmResponseCache.get(task.getAssignedAgent(), prompt, bypassCache)
+                .map(cached -> new TaskExecutionResult(cached.getResult(), 0))
+                .orElseGet(() -> {
+                    TaskExecutionResult generated = llmCallMetrics.recordCall("execution", () ->
+                            switch (task.getAssignedAgent()) {
+                                case "DevOps Engineer" -> devOpsEngineerAgent.executeTask(task);
+                                case "Technical Lead" -> technicalLeadAgent.executeTask(task);
+                                case "Software Engineer" -> softwareEngineerAgent.executeTask(task);
+                                default -> throw new IllegalStateException("Unknown agent type: " + task.getAssignedAgent());
+                            });
+                    llmResponseCache.put(task.getAssignedAgent(), prompt, generated);
+                    return generated;
+                });
 
         task.setResult(executionResult.getResult());
+        task.setResultOffset(executionResult.getResult() != null
+                ? (long) executionResult.getResult().getBytes(StandardCharsets.UTF_8).length
+                : null);
         task.setTokensUsed(executionResult.getTokensUsed());
         task.setStatus("COMPLETED");
         
         // Update in database
-        taskMapper.updateEntityFromVO(task, entity);
-        entity.setTokensUsed(executionResult.getTokensUsed());
-        taskRepository.save(entity);
+        saveExecution(task);
 
         return executionResult.getResult();
     }
@@ -173,40 +286,33 @@ public class AgentOrchestrationService {
      * @return Flux of response chunks
      */
     public Flux<String> executeTaskStream(String taskId) {
-        // Load task from database
-        TaskEntity entity = taskRepository.findById(taskId)
-                .orElseThrow(() -> new IllegalArgumentException("Task not found: " + taskId));
-
-        Task task = taskMapper.toVO(entity);
-
-        if (!"ASSIGNED".equals(task.getStatus())) {
-            return Flux.error(new IllegalStateException("Task is not in ASSIGNED state: " + taskId));
-        }
+        return executeTaskStream(taskId, false);
+    }
 
-        // Get the streaming response from the appropriate agent
-        Flux<String> contentStream = switch (task.getAssignedAgent()) {
-            case "DevOps Engineer" -> devOpsEngineerAgent.executeTaskStream(task);
-            case "Technical Lead" -> technicalLeadAgent.executeTaskStream(task);
-            case "Software Engineer" -> softwareEngineerAgent.executeTaskStream(task);
-            default -> Flux.error(new IllegalStateException("Unknown agent type: " + task.getAssignedAgent()));
-        };
+    /**
+     * Execute a specific task with streaming response, optionally skipping the specialist response cache
+     *
+     * @param taskId The ID of the task to execute
+     * @param bypassCache Whether to generate a fresh result even if an identical request is cached
+     * @return Flux of response chunks
+     */
+    public Flux<String> executeTaskStream(String taskId, boolean bypassCache) {
+        return executeTaskStreamChunks(taskId, bypassCache, null)
+                .map(StreamDelta::getText);
+    }
 
-        // Accumulate the full result and save to database when complete
-        AtomicReference<String> fullResult = new AtomicReference<>("");
-
-        return contentStream
-                .doOnNext(chunk -> fullResult.updateAndGet(current -> current + chunk))
-                .doOnComplete(() -> {
-                    // Save the complete result to database
-                    task.setResult(fullResult.get());
-                    task.setStatus("COMPLETED");
-
-                    // Update in database
-                    TaskEntity updatedEntity = taskRepository.findById(taskId)
-                            .orElseThrow(() -> new IllegalArgumentException("Task not found: " + taskId));
-                    taskMapper.updateEntityFromVO(task, updatedEntity);
-                    taskRepository.save(updatedEntity);
-                });
+    /**
+     * Execute a specific task with streaming response of numbered chunks
+     * A client that lost its connection can resume after the last chunk it received, without a
+     * second generation, while the generation runs and for a grace period after it completed.
+     *
+     * @param taskId The ID of the task to execute
+     * @param bypassCache Whether to generate a fresh result even if an identical request is cached
+     * @param lastEventId Event ID of the last chunk the client received, null to start from the beginning
+     * @return Flux of response chunks
+     */
+    public Flux<StreamDelta> executeTaskStreamChunks(String taskId, boolean bypassCache, String lastEventId) {
+        return sharedTaskStream(taskId, bypassCache, lastEventId);
     }
 
     /**
@@ -216,68 +322,293 @@ public class AgentOrchestrationService {
      *
      * Benefits:
      * - Reduces network overhead by sending fewer, larger chunks
-     * - Improves UI rendering by providing complete words/sentences
-     * - Configurable buffer size and timeout via application.yaml
-     *
-     * Configuration:
-     * - app.streaming.buffer-size: Number of chunks to buffer (default: 50)
-     * - app.streaming.buffer-timeout-ms: Max time to wait before flushing (default: 500ms)
+     * - Improves UI rendering by providing complete sentences, lines and code blocks
+     * - Configurable byte and latency budgets via application.yaml, see {@link AdaptiveStreamFlusher}
      *
      * @param taskId The ID of the task to execute
      * @return Flux of buffered response chunks
      */
     public Flux<String> executeTaskStreamBuffered(String taskId) {
+        return executeTaskStreamBuffered(taskId, false);
+    }
+
+    /**
+     * Execute a specific task with BUFFERED streaming response, optionally skipping the specialist response cache
+     *
+     * @param taskId The ID of the task to execute
+     * @param bypassCache Whether to generate a fresh result even if an identical request is cached
+     * @return Flux of buffered response chunks
+     */
+    public Flux<String> executeTaskStreamBuffered(String taskId, boolean bypassCache) {
+        return bufferedTaskStream(taskId, bypassCache, null)
+                .map(StreamDelta::getText)
+                .scan("", (accumulated, newChunk) -> accumulated + newChunk)
+                .skip(1); // Skip the first empty accumulated value
+    }
+
+    /**
+     * Execute a specific task with BUFFERED streaming response in the delta protocol
+     * Each element carries only the text added since the previous one, the sequence number of the last
+     * chunk it contains and the byte offset of the text, so the transferred size is that of the final
+     * result. A client that lost its connection can resume after the last sequence number it received.
+     *
+     * @param taskId The ID of the task to execute
+     * @param bypassCache Whether to generate a fresh result even if an identical request is cached
+     * @param lastEventId Event ID of the last delta the client received, null to start from the beginning
+     * @return Flux of buffered deltas
+     */
+    public Flux<StreamDelta> executeTaskStreamDelta(String taskId, boolean bypassCache, String lastEventId) {
+        return bufferedTaskStream(taskId, bypassCache, lastEventId);
+    }
+
+    /**
+     * Buffer the numbered response chunks of a task into larger deltas
+     */
+    private Flux<StreamDelta> bufferedTaskStream(String taskId, boolean bypassCache, String lastEventId) {
+        // Merge chunks into deltas at sentence, line and code block boundaries
+        // A slow client gets larger deltas instead of dropped ones
+        return streamFlusher.flush(sharedTaskStream(taskId, bypassCache, lastEventId));
+    }
+
+    /**
+     * Get the numbered response chunks of a task, attaching to its generation if one is registered
+     * Only the first caller starts a generation. Its output is checkpointed while it streams and the
+     * complete result is saved when it completes, if the generation still owns the task. A task left IN_PROGRESS or CANCELLED by an interrupted
+     * generation starts with its checkpointed output, and the specialist continues after it. A generation
+     * that loses all of its subscribers is cancelled by the registry, which stops the LLM request.
+     * A task with an active queue entry is not streamed, so a queue worker and a stream do not generate
+     * it at the same time. The reverse is not prevented: a stream started on another node only shows as
+     * IN_PROGRESS, like an interrupted one, so a queue worker may still continue a task that is streaming.
+     *
+     * @param taskId The ID of the task to execute
+     * @param bypassCache Whether to skip the specialist response cache when starting a generation
+     * @param lastEventId Event ID of the last chunk the caller already has, null to start from the beginning
+     * @return Flux of response chunks after lastEventId
+     */
+    private Flux<StreamDelta> sharedTaskStream(String taskId, boolean bypassCache, String lastEventId) {
+        Optional<Flux<StreamDelta>> running = taskStreamRegistry.find(taskId, lastEventId);
+        if (running.isPresent()) {
+            log.debug("Attaching to generation of task {} after event {}", taskId, lastEventId);
+            return running.get();
+        }
+
         // Load task from database
         TaskEntity entity = taskRepository.findById(taskId)
                 .orElseThrow(() -> new IllegalArgumentException("Task not found: " + taskId));
 
         Task task = taskMapper.toVO(entity);
 
-        if (!"ASSIGNED".equals(task.getStatus())) {
-            return Flux.error(new IllegalStateException("Task is not in ASSIGNED state: " + taskId));
+        if (!isExecutable(task.getStatus())) {
+            return Flux.error(new IllegalStateException("Task is not in an executable state (ASSIGNED, IN_PROGRESS or CANCELLED): " + taskId));
+        }
+        if (taskQueueService.isQueued(taskId)) {
+            return Flux.error(new IllegalStateException("Task is queued for execution by a queue worker: " + taskId));
         }
 
-        // Get the streaming response from the appropriate agent
-        Flux<String> contentStream = switch (task.getAssignedAgent()) {
-            case "DevOps Engineer" -> devOpsEngineerAgent.executeTaskStream(task);
-            case "Technical Lead" -> technicalLeadAgent.executeTaskStream(task);
-            case "Software Engineer" -> softwareEngineerAgent.executeTaskStream(task);
-            default -> Flux.error(new IllegalStateException("Unknown agent type: " + task.getAssignedAgent()));
+        return taskStreamRegistry.attach(taskId, lastEventId, () -> {
+            String partial = isResumable(task.getStatus()) && task.getResult() != null ? task.getResult() : "";
+            long storedBytes = partial.isEmpty() ? 0 : Objects.requireNonNullElse(task.getResultOffset(), 0L);
+
+            // Get the streaming response from the appropriate agent, or replay an identical cached one
+            AtomicReference<Usage> usage = new AtomicReference<>();
+            Flux<String> contentStream = partial.isEmpty()
+                    ? generateStream(task, bypassCache, usage::set)
+                    : continueStream(task, partial, usage::set);
+
+            // Checkpoint new output while it streams, accumulate the full result and save to database when complete
+            TaskCheckpointer.Checkpoint checkpoint = taskCheckpointer.start(taskId, storedBytes);
+            StreamAccumulator fullResult = new StreamAccumulator();
+
+            return Flux.concat(Flux.just(partial).filter(text -> !text.isEmpty()),
+                            contentStream.doOnNext(checkpoint::append))
+                    .doOnNext(fullResult::append)
+                    .doOnError(e -> checkpoint.flush())
+                    .doOnCancel(checkpoint::cancel)
+                    .doOnComplete(() -> {
+                        checkpoint.close();
+                        // The claim of the generation must have run before its ownership is checked
+                        checkpoint.pendingWrites().join();
+
+                        // Save the complete result to database
+                        task.setResult(fullResult.toString());
+                        task.setResultOffset(checkpoint.bytes());
+                        task.setStatus("COMPLETED");
+                        Usage finalUsage = usage.get();
+                        if (finalUsage != null) {
+                            task.setPromptTokens(finalUsage.getPromptTokens());
+                            task.setCompletionTokens(finalUsage.getCompletionTokens());
+                            task.setTokensUsed(finalUsage.getTotalTokens());
+                        }
+
+                        // Update in database, unless the generation was superseded or cancelled meanwhile
+                        if (!saveGeneration(task, checkpoint.generation())) {
+                            log.warn("Discarded the result of generation {} of task {}, it no longer owns the task",
+                                    checkpoint.generation(), taskId);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Build the prompt the assigned specialist sends for a task
+     *
+     * @param task The task
+     * @return The prompt
+     */
+    private Prompt buildPrompt(Task task) {
+        return switch (task.getAssignedAgent()) {
+            case "DevOps Engineer" -> devOpsEngineerAgent.buildPrompt(task);
+            case "Technical Lead" -> technicalLeadAgent.buildPrompt(task);
+            case "Software Engineer" -> softwareEngineerAgent.buildPrompt(task);
+            default -> throw new IllegalStateException("Unknown agent type: " + task.getAssignedAgent());
         };
+    }
 
-        // Accumulate the full result for database storage
-        AtomicReference<String> fullResult = new AtomicReference<>("");
-
-        // Buffer chunks and emit accumulated content periodically
-        // Add backpressure handling to prevent overflow errors
-        return contentStream
-                .doOnNext(chunk -> fullResult.updateAndGet(current -> current + chunk))
-                .bufferTimeout(streamBufferSize, Duration.ofMillis(streamBufferTimeoutMs))
-                .onBackpressureBuffer(1000, // Maximum number of buffered items
-                        dropped -> log.warn("Dropped {} buffered chunk(s) due to backpressure", dropped))
-                .map(chunks -> String.join("", chunks))
-                .scan("", (accumulated, newChunk) -> accumulated + newChunk)
-                .skip(1) // Skip the first empty accumulated value
-                .doOnComplete(() -> {
-                    // Save the complete result to database
-                    task.setResult(fullResult.get());
-                    task.setStatus("COMPLETED");
-
-                    // Update in database
-                    TaskEntity updatedEntity = taskRepository.findById(taskId)
-                            .orElseThrow(() -> new IllegalArgumentException("Task not found: " + taskId));
-                    taskMapper.updateEntityFromVO(task, updatedEntity);
-                    taskRepository.save(updatedEntity);
-                });
+    /**
+     * Stream the response of the assigned specialist, replaying a cached response when available
+     * A freshly generated response is cached once the stream completes.
+     *
+     * @param task The task to execute
+     * @param bypassCache Whether to skip the specialist response cache
+     * @param usageListener Receives the token usage reported by the model; not called for cached responses
+     * @return Flux of response chunks
+     */
+    private Flux<String> generateStream(Task task, boolean bypassCache, Consumer<Usage> usageListener) {
+        Prompt prompt;
+        try {
+            prompt = buildPrompt(task);
+        } catch (IllegalStateException e) {
+            return Flux.error(e);
+        }
+
+        return llmResponseCache.get(task.getAssignedAgent(), prompt, bypassCache)
+                .map(cached -> llmResponseCache.replay(cached.getResult()))
+                .orElseGet(() -> Flux.defer(() -> {
+                    StreamAccumulator generated = new StreamAccumulator();
+                    Flux<String> stream = agentStream(task.getAssignedAgent(), prompt, usageListener);
+                    return llmCallMetrics.recordStream("execution-stream",
+                                    llmCallMetrics.recordTokens(task.getAssignedAgent(), stream))
+                            .doOnNext(generated::append)
+                            .doOnComplete(() -> llmResponseCache.put(task.getAssignedAgent(), prompt,
+                                    new TaskExecutionResult(generated.toString(), null)));
+                }));
     }
 
     /**
-     * Execute all tasks for a project
-     * 
+     * Stream the rest of a result whose generation was interrupted after a checkpoint
+     * The specialist receives its partial output and is asked to continue it, so the stored text is not
+     * generated again. Continuations are not cached, since their prompt depends on where the interruption happened.
+     *
+     * @param task The task to execute
+     * @param partial The checkpointed output of the interrupted generation
+     * @param usageListener Receives the token usage the model reports for the continuation
+     * @return Flux of response chunks following the partial output
+     */
+    private Flux<String> continueStream(Task task, String partial, Consumer<Usage> usageListener) {
+        Prompt prompt;
+        try {
+            prompt = buildPrompt(task);
+        } catch (IllegalStateException e) {
+            return Flux.error(e);
+        }
+
+        List<Message> messages = new ArrayList<>(prompt.getInstructions());
+        messages.add(new UserMessage(
+                "Your previous answer to this task was interrupted. This is everything you wrote so far:\n\n" +
+                partial +
+                "\n\nContinue exactly where it stops. Do not repeat any of it and do not add an introduction."
+        ));
+        Prompt continuation = new Prompt(messages);
+
+        return Flux.defer(() -> llmCallMetrics.recordStream("execution-continuation",
+                llmCallMetrics.recordTokens(task.getAssignedAgent(),
+                        agentStream(task.getAssignedAgent(), continuation, usageListener))));
+    }
+
+    /**
+     * Stream the response of a specialist to a prompt
+     *
+     * @param assignedAgent The specialist role
+     * @param prompt The prompt to send
+     * @param usageListener Receives the token usage reported with the final chunk
+     * @return Flux of response chunks
+     */
+    private Flux<String> agentStream(String assignedAgent, Prompt prompt, Consumer<Usage> usageListener) {
+        return switch (assignedAgent) {
+            case "DevOps Engineer" -> devOpsEngineerAgent.executeTaskStream(prompt, usageListener);
+            case "Technical Lead" -> technicalLeadAgent.executeTaskStream(prompt, usageListener);
+            case "Software Engineer" -> softwareEngineerAgent.executeTaskStream(prompt, usageListener);
+            default -> Flux.error(new IllegalStateException("Unknown agent type: " + assignedAgent));
+        };
+    }
+
+    /**
+     * Whether a task can be executed: it is assigned, or an earlier generation was interrupted
+     *
+     * @param status The status of the task
+     * @return True for ASSIGNED, IN_PROGRESS and CANCELLED
+     */
+    private static boolean isExecutable(String status) {
+        return "ASSIGNED".equals(status) || isResumable(status);
+    }
+
+    /**
+     * Whether the stored result of a task is the partial output of an interrupted generation
+     *
+     * @param status The status of the task
+     * @return True for IN_PROGRESS (the node went away) and CANCELLED (all clients went away)
+     */
+    private static boolean isResumable(String status) {
+        return "IN_PROGRESS".equals(status) || "CANCELLED".equals(status);
+    }
+
+    /**
+     * Store the status, result and token usage of an executed task in a short transaction
+     * The task VO was loaded before the LLM call, so its other fields, e.g. dependencies, may be stale.
+     *
+     * @param task The task with the execution outcome
+     */
+    private void saveExecution(Task task) {
+        transactionTemplate.executeWithoutResult(status -> {
+            TaskEntity entity = taskRepository.findById(task.getId())
+                    .orElseThrow(() -> new IllegalArgumentException("Task not found: " + task.getId()));
+            taskMapper.updateExecutionFromVO(task, entity);
+            taskRepository.save(entity);
+        });
+    }
+
+    /**
+     * Store the complete result of a streamed generation, like {@link #saveExecution}
+     * The task is locked and only updated while the generation still owns it IN_PROGRESS, the same
+     * condition that guards its checkpoints, so a superseded generation cannot overwrite the result.
+     *
+     * @param task The task with the execution outcome
+     * @param generation The ID of the generation that produced it
+     * @return Whether the result was saved
+     */
+    private boolean saveGeneration(Task task, String generation) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            Optional<TaskEntity> entity = taskRepository.lockOwnedByGeneration(task.getId(), generation);
+            entity.ifPresent(owned -> {
+                taskMapper.updateExecutionFromVO(task, owned);
+                taskRepository.save(owned);
+            });
+            return entity.isPresent();
+        }));
+    }
+
+    /**
+     * Execute all tasks for a project, reporting progress
+     * Independent tasks run in parallel, dependent tasks wait for their predecessors.
+     * Tasks that are already COMPLETED are not executed again; their stored result is returned.
+     * Each result is persisted as soon as its task finishes. Can take as long as the slowest chain of
+     * dependent tasks, so it runs as a {@link ProjectJobService} job rather than on a request thread.
+     *
      * @param projectId The ID of the project
+     * @param progressListener Receives a short description of the progress whenever a task finishes
      * @return A map of task IDs to execution results
      */
-    public Map<String, String> executeAllProjectTasks(String projectId) {
+    public Map<String, String> executeAllProjectTasks(String projectId, Consumer<String> progressListener) {
         // Load tasks from database
         List<TaskEntity> entities = taskRepository.findByProjectId(projectId);
         if (entities.isEmpty()) {
@@ -287,13 +618,61 @@ public class AgentOrchestrationService {
         List<Task> projectTaskList = taskMapper.toVOList(entities);
 
         Map<String, String> results = new HashMap<>();
+        List<Task> pendingTasks = new ArrayList<>();
         for (Task task : projectTaskList) {
-            String result = executeTask(task.getId());
-            results.put(task.getId(), result);
+            if ("COMPLETED".equals(task.getStatus())) {
+                results.put(task.getId(), task.getResult());
+            } else {
+                pendingTasks.add(task);
+            }
         }
-        
+
+        progressListener.accept("Executing " + pendingTasks.size() + " tasks");
+        AtomicInteger executed = new AtomicInteger();
+        results.putAll(taskScheduler.executeAll(pendingTasks, task -> {
+            String result = executeTask(task.getId());
+            progressListener.accept("Executed " + executed.incrementAndGet() + " of " + pendingTasks.size() + " tasks");
+            return result;
+        }));
         return results;
     }
+
+    /**
+     * Set the tasks that must complete before a task can execute
+     *
+     * @param taskId The ID of the task
+     * @param dependsOn IDs of tasks in the same project
+     * @return The updated task
+     */
+    public Task updateTaskDependencies(String taskId, List<String> dependsOn) {
+        return transactionTemplate.execute(status -> {
+            TaskEntity entity = taskRepository.findById(taskId)
+                    .orElseThrow(() -> new IllegalArgumentException("Task not found: " + taskId));
+
+            List<Task> projectTasks = taskMapper.toVOList(taskRepository.findByProjectId(entity.getProjectId()));
+            Map<String, Task> projectTasksById = new HashMap<>();
+            for (Task projectTask : projectTasks) {
+                projectTasksById.put(projectTask.getId(), projectTask);
+            }
+
+            List<String> dependencies = dependsOn.stream().distinct().toList();
+            for (String dependencyId : dependencies) {
+                if (dependencyId.equals(taskId)) {
+                    throw new IllegalArgumentException("Task cannot depend on itself: " + taskId);
+                }
+                if (!projectTasksById.containsKey(dependencyId)) {
+                    throw new IllegalArgumentException("Dependency is not a task of the same project: " + dependencyId);
+                }
+            }
+
+            // Reject the change if it would introduce a cycle
+            projectTasksById.get(taskId).setDependsOn(dependencies);
+            taskScheduler.verifyAcyclic(projectTasks);
+
+            entity.setDependsOn(new ArrayList<>(dependencies));
+            return taskMapper.toVO(taskRepository.save(entity));
+        });
+    }
     
     /**
      * Get all tasks for a project
@@ -309,6 +688,42 @@ public class AgentOrchestrationService {
         
         return taskMapper.toVOList(entities);
     }
+
+    /**
+     * Count the tasks of a project without loading them
+     *
+     * @param projectId The ID of the project
+     * @return The number of tasks
+     */
+    public long countProjectTasks(String projectId) {
+        long count = taskRepository.countByProjectId(projectId);
+        if (count == 0) {
+            throw new IllegalArgumentException("No tasks found for project: " + projectId);
+        }
+        return count;
+    }
+
+    /**
+     * Get a page of the tasks of a project, in creation order
+     *
+     * @param projectId The ID of the project
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @param size Tasks per page, or null for the default
+     * @return The page of tasks
+     */
+    public CursorPage<Task> getProjectTasks(String projectId, String cursor, Integer size) {
+        KeysetPagination.Cursor after = keysetPagination.decode(cursor);
+        Limit limit = Limit.of(keysetPagination.fetchSize(size));
+        List<TaskEntity> entities = after == null
+                ? taskRepository.findPageByProjectId(projectId, limit)
+                : taskRepository.findPageByProjectIdAfter(projectId, after.createdAt(), after.id(), limit);
+        if (entities.isEmpty() && after == null) {
+            throw new IllegalArgumentException("No tasks found for project: " + projectId);
+        }
+
+        return keysetPagination.page(entities, size, TaskEntity::getCreatedAt, TaskEntity::getId)
+                .map(taskMapper::toVO);
+    }
     
     /**
      * Get a specific task
@@ -333,6 +748,25 @@ public class AgentOrchestrationService {
         return projectMapper.toVOList(entities);
     }
 
+    /**
+     * Get a page of projects with their task counts, newest first
+     * One aggregate query per page, instead of loading the tasks of every project.
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @param size Projects per page, or null for the default
+     * @return The page of project summaries
+     */
+    public CursorPage<ProjectSummary> getProjectSummaries(String cursor, Integer size) {
+        KeysetPagination.Cursor after = keysetPagination.decode(cursor);
+        int limit = keysetPagination.fetchSize(size);
+        List<ProjectRepository.Summary> summaries = after == null
+                ? projectRepository.findSummaries(limit)
+                : projectRepository.findSummariesAfter(after.createdAt(), after.id(), limit);
+        return keysetPagination.page(summaries, size, ProjectRepository.Summary::getCreatedAt,
+                        ProjectRepository.Summary::getProjectId)
+                .map(projectMapper::toSummary);
+    }
+
     /**
      * Get a specific project
      *
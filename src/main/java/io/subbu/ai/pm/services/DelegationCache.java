@@ -0,0 +1,220 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.subbu.ai.pm.models.DelegationCacheEntity;
+import io.subbu.ai.pm.repos.DelegationCacheRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Two-tier cache of delegation decisions keyed by normalized task description
+ *
+ * The first tier is a bounded in-memory LRU map, the second the delegation_cache table, which
+ * survives restarts and is shared by all nodes. Concurrent loads of the same key are collapsed
+ * into a single LLM call; the other callers wait for its result. Callers {@link #lookup} first and
+ * {@link #load} only on a miss, so every description is counted once in the metrics.
+ *
+ * Configuration:
+ * - app.delegation.cache.enabled: Whether delegation decisions are cached (default: true)
+ * - app.delegation.cache.max-entries: Max entries held in memory (default: 10000)
+ *
+ * Metrics:
+ * - agent.delegation.cache.lookups: Lookups tagged by result (hit or miss) and tier (memory, database or none)
+ * - agent.delegation.cache.size: Entries currently held in memory
+ */
+@Slf4j
+@Component
+public class DelegationCache {
+
+    private static final Pattern LEADING_NUMBERING = Pattern.compile("^(?:task\\s*)?(?:\\d+|[a-z])[.):]\\s+|^[-*•]\\s+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private final DelegationCacheRepository delegationCacheRepository;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<String, String> memory;
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    public DelegationCache(
+            DelegationCacheRepository delegationCacheRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.delegation.cache.enabled:true}") boolean enabled,
+            @Value("${app.delegation.cache.max-entries:10000}") int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("app.delegation.cache.max-entries must be at least 1");
+        }
+        this.delegationCacheRepository = delegationCacheRepository;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.memory = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        Gauge.builder("agent.delegation.cache.size", this, cache -> cache.memorySize())
+                .description("Delegation decisions held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Look up the cached role of a task description
+     *
+     * @param description The task description
+     * @return The cached role, or empty on a miss
+     */
+    public Optional<String> lookup(String description) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return lookupKey(normalize(description));
+    }
+
+    /**
+     * Delegate a task description that missed the cache and cache the result
+     * Concurrent loads of the same normalized description share one loader invocation.
+     *
+     * @param description The task description
+     * @param loader Delegates the task, typically with an LLM call; returns null if it could not decide
+     * @return The role, or null if the loader could not decide, which is not cached
+     */
+    public String load(String description, Supplier<String> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        String key = normalize(description);
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            // A flight for the same key may have finished between the caller's lookup and now
+            String role;
+            synchronized (memory) {
+                role = memory.get(key);
+            }
+            if (role == null) {
+                role = loader.get();
+                store(key, role);
+            }
+            flight.complete(role);
+            return role;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Cache the role of a task description in both tiers
+     *
+     * @param description The task description
+     * @param role The role it was delegated to
+     */
+    public void put(String description, String role) {
+        if (enabled) {
+            store(normalize(description), role);
+        }
+    }
+
+    /**
+     * Normalize a task description so that trivially different wordings share a cache key
+     * Lowercases, strips list numbering and bullets, drops punctuation and collapses whitespace.
+     *
+     * @param description The task description
+     * @return The cache key
+     */
+    static String normalize(String description) {
+        if (description == null) {
+            return "";
+        }
+        String key = description.strip().toLowerCase(Locale.ROOT);
+        key = LEADING_NUMBERING.matcher(key).replaceFirst("");
+        return NON_WORD.matcher(key).replaceAll(" ").strip();
+    }
+
+    private Optional<String> lookupKey(String key) {
+        String role;
+        synchronized (memory) {
+            role = memory.get(key);
+        }
+        if (role != null) {
+            lookups("hit", "memory").increment();
+            return Optional.of(role);
+        }
+
+        try {
+            Optional<String> stored = delegationCacheRepository.findById(key).map(DelegationCacheEntity::getAssignedAgent);
+            if (stored.isPresent()) {
+                synchronized (memory) {
+                    memory.put(key, stored.get());
+                }
+                lookups("hit", "database").increment();
+                return stored;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Delegation cache lookup failed, treating as a miss", e);
+        }
+        lookups("miss", "none").increment();
+        return Optional.empty();
+    }
+
+    private void store(String key, String role) {
+        if (key.isEmpty() || role == null) {
+            return;
+        }
+        synchronized (memory) {
+            memory.put(key, role);
+        }
+        try {
+            delegationCacheRepository.upsert(key, role);
+        } catch (RuntimeException e) {
+            // The in-memory entry is still usable; the decision is just not persisted
+            log.warn("Could not persist delegation cache entry", e);
+        }
+    }
+
+    private static String await(CompletableFuture<String> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private int memorySize() {
+        synchronized (memory) {
+            return memory.size();
+        }
+    }
+
+    private Counter lookups(String result, String tier) {
+        return Counter.builder("agent.delegation.cache.lookups")
+                .description("Delegation cache lookups")
+                .tag("result", result)
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,298 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.repos.TaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process classifier that assigns a specialist role to a task description without an LLM call
+ *
+ * The model is a multinomial naive Bayes over description words. It is seeded with weighted keywords
+ * per role, so it works on an empty database, and is retrained in the background from the newest
+ * tasks the Project Manager LLM delegated. Tasks delegated by the classifier itself or from the cache
+ * are not trained on, so the model does not reinforce its own mistakes. Callers only use a prediction
+ * when its confidence reaches the threshold and fall back to the Project Manager LLM otherwise.
+ *
+ * Configuration:
+ * - app.delegation.classifier.enabled: Whether to short-circuit delegation locally (default: true)
+ * - app.delegation.classifier.confidence-threshold: Minimum posterior to skip the LLM (default: 0.8)
+ * - app.delegation.classifier.retrain-minutes: How often the model is rebuilt from history (default: 60)
+ * - app.delegation.classifier.history-limit: Newest LLM delegations the model is trained on (default: 5000)
+ */
+@Slf4j
+@Component
+public class DelegationClassifier implements SmartLifecycle {
+
+    public static final List<String> ROLES = List.of("DevOps Engineer", "Technical Lead", "Software Engineer");
+
+    /**
+     * Keyword pseudo-counts per role; they act as the prior knowledge of the model
+     */
+    private static final Map<String, Map<String, Integer>> SEED_KEYWORDS = Map.of(
+            "DevOps Engineer", Map.ofEntries(
+                    Map.entry("deploy", 4), Map.entry("deployment", 4), Map.entry("pipeline", 4),
+                    Map.entry("ci", 4), Map.entry("cd", 4), Map.entry("docker", 4), Map.entry("kubernetes", 4),
+                    Map.entry("k8s", 4), Map.entry("helm", 4), Map.entry("terraform", 4), Map.entry("infrastructure", 4),
+                    Map.entry("monitoring", 3), Map.entry("logging", 3), Map.entry("alerting", 3), Map.entry("cloud", 3),
+                    Map.entry("aws", 3), Map.entry("azure", 3), Map.entry("gcp", 3), Map.entry("container", 3),
+                    Map.entry("provision", 3), Map.entry("hosting", 3), Map.entry("backup", 3), Map.entry("scaling", 2),
+                    Map.entry("ssl", 2), Map.entry("dns", 2), Map.entry("nginx", 2), Map.entry("server", 2),
+                    Map.entry("environment", 2), Map.entry("production", 2), Map.entry("staging", 2)),
+            "Technical Lead", Map.ofEntries(
+                    Map.entry("architecture", 4), Map.entry("design", 3), Map.entry("review", 4), Map.entry("reviews", 4),
+                    Map.entry("standards", 3), Map.entry("guidelines", 3), Map.entry("decision", 3), Map.entry("decide", 3),
+                    Map.entry("evaluate", 3), Map.entry("select", 2), Map.entry("choose", 2), Map.entry("strategy", 3),
+                    Map.entry("documentation", 2), Map.entry("document", 2), Map.entry("mentor", 3), Map.entry("plan", 2),
+                    Map.entry("technology", 2), Map.entry("stack", 2), Map.entry("requirements", 2), Map.entry("security", 2),
+                    Map.entry("performance", 2), Map.entry("scalability", 2), Map.entry("patterns", 3)),
+            "Software Engineer", Map.ofEntries(
+                    Map.entry("implement", 4), Map.entry("develop", 4), Map.entry("code", 3), Map.entry("build", 2),
+                    Map.entry("create", 2), Map.entry("write", 2), Map.entry("unit", 3), Map.entry("test", 3),
+                    Map.entry("tests", 3), Map.entry("feature", 3), Map.entry("api", 3), Map.entry("endpoint", 3),
+                    Map.entry("endpoints", 3), Map.entry("ui", 3), Map.entry("frontend", 3), Map.entry("backend", 3),
+                    Map.entry("component", 3), Map.entry("page", 2), Map.entry("form", 2), Map.entry("integrate", 2),
+                    Map.entry("function", 2), Map.entry("bug", 3), Map.entry("fix", 3), Map.entry("database", 2),
+                    Map.entry("login", 2), Map.entry("authentication", 2), Map.entry("crud", 3))
+    );
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "with", "from", "into", "that", "this", "all", "are", "its", "our", "your",
+            "will", "should", "using", "use", "based", "any", "each", "new", "set");
+
+    private final TaskRepository taskRepository;
+    private final boolean enabled;
+    private final double confidenceThreshold;
+    private final long retrainMinutes;
+    private final int historyLimit;
+
+    private volatile Model model = train(List.of());
+    private volatile boolean running;
+    private ScheduledExecutorService retrainer;
+
+    public DelegationClassifier(
+            TaskRepository taskRepository,
+            @Value("${app.delegation.classifier.enabled:true}") boolean enabled,
+            @Value("${app.delegation.classifier.confidence-threshold:0.8}") double confidenceThreshold,
+            @Value("${app.delegation.classifier.retrain-minutes:60}") long retrainMinutes,
+            @Value("${app.delegation.classifier.history-limit:5000}") int historyLimit) {
+        if (retrainMinutes < 1) {
+            throw new IllegalArgumentException("app.delegation.classifier.retrain-minutes must be at least 1");
+        }
+        if (historyLimit < 1) {
+            throw new IllegalArgumentException("app.delegation.classifier.history-limit must be at least 1");
+        }
+        this.taskRepository = taskRepository;
+        this.enabled = enabled;
+        this.confidenceThreshold = confidenceThreshold;
+        this.retrainMinutes = retrainMinutes;
+        this.historyLimit = historyLimit;
+    }
+
+    /**
+     * Train the model from history now and then every app.delegation.classifier.retrain-minutes
+     * Until the first training completes, predictions use the seed keywords only.
+     */
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            return;
+        }
+        retrainer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("delegation-classifier-retrain").daemon().factory());
+        retrainer.scheduleWithFixedDelay(this::retrainQuietly, 0, retrainMinutes, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (retrainer != null) {
+            retrainer.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * A predicted role and the posterior probability the model assigns to it
+     */
+    public record Prediction(String role, double confidence) {
+    }
+
+    /**
+     * A task description with the role it was delegated to
+     */
+    public record LabeledTask(String description, String role) {
+    }
+
+    /**
+     * Classify a task description if the classifier is enabled and confident enough
+     *
+     * @param description The task description
+     * @return The role, or empty if the LLM should decide
+     */
+    public Optional<String> classifyConfidently(String description) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Prediction prediction = model.predict(description);
+        return prediction.confidence() >= confidenceThreshold ? Optional.of(prediction.role()) : Optional.empty();
+    }
+
+    /**
+     * Classify a task description with the current model, regardless of confidence
+     *
+     * @param description The task description
+     * @return The prediction
+     */
+    public Prediction predict(String description) {
+        return model.predict(description);
+    }
+
+    /**
+     * Get the confidence threshold above which predictions skip the LLM
+     *
+     * @return The threshold
+     */
+    public double getConfidenceThreshold() {
+        return confidenceThreshold;
+    }
+
+    /**
+     * Load the historical delegations used for training
+     *
+     * @return Descriptions of the newest tasks the LLM delegated, labelled with a known role
+     */
+    public List<LabeledTask> loadHistory() {
+        return taskRepository.findDelegationHistory(Limit.of(historyLimit)).stream()
+                .map(row -> new LabeledTask((String) row[0], (String) row[1]))
+                .filter(labeled -> ROLES.contains(labeled.role()))
+                .toList();
+    }
+
+    /**
+     * Rebuild the model from historical delegations
+     */
+    public void retrain() {
+        List<LabeledTask> history = loadHistory();
+        model = train(history);
+        log.info("Trained delegation classifier on {} historical tasks", history.size());
+    }
+
+    private void retrainQuietly() {
+        try {
+            retrain();
+        } catch (RuntimeException e) {
+            // Keep using the previous model; try again after the next interval
+            log.warn("Could not retrain delegation classifier", e);
+        }
+    }
+
+    /**
+     * Train a model from the seed keywords plus the given labelled tasks
+     *
+     * @param history Labelled tasks
+     * @return The trained model
+     */
+    static Model train(List<LabeledTask> history) {
+        Map<String, Map<String, Integer>> tokenCounts = new HashMap<>();
+        Map<String, Integer> documentCounts = new HashMap<>();
+        for (String role : ROLES) {
+            tokenCounts.put(role, new HashMap<>(SEED_KEYWORDS.get(role)));
+            documentCounts.put(role, 1);
+        }
+
+        for (LabeledTask labeled : history) {
+            Map<String, Integer> counts = tokenCounts.get(labeled.role());
+            for (String token : tokenize(labeled.description())) {
+                counts.merge(token, 1, Integer::sum);
+            }
+            documentCounts.merge(labeled.role(), 1, Integer::sum);
+        }
+        return new Model(tokenCounts, documentCounts);
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^a-z0-9]+"))
+                .filter(token -> token.length() >= 2 && !STOP_WORDS.contains(token))
+                .toList();
+    }
+
+    /**
+     * Immutable multinomial naive Bayes model with Laplace smoothing
+     */
+    static final class Model {
+
+        private final Map<String, Map<String, Integer>> tokenCounts;
+        private final Map<String, Integer> totalTokens = new HashMap<>();
+        private final Map<String, Double> logPriors = new HashMap<>();
+        private final int vocabularySize;
+
+        Model(Map<String, Map<String, Integer>> tokenCounts, Map<String, Integer> documentCounts) {
+            this.tokenCounts = tokenCounts;
+
+            Set<String> vocabulary = new HashSet<>();
+            int documents = documentCounts.values().stream().mapToInt(Integer::intValue).sum();
+            for (String role : ROLES) {
+                Map<String, Integer> counts = tokenCounts.get(role);
+                vocabulary.addAll(counts.keySet());
+                totalTokens.put(role, counts.values().stream().mapToInt(Integer::intValue).sum());
+                logPriors.put(role, Math.log((double) documentCounts.get(role) / documents));
+            }
+            this.vocabularySize = vocabulary.size();
+        }
+
+        Prediction predict(String description) {
+            List<String> tokens = tokenize(description);
+            List<Double> scores = new ArrayList<>(ROLES.size());
+            boolean anyKnownToken = false;
+
+            for (String role : ROLES) {
+                Map<String, Integer> counts = tokenCounts.get(role);
+                double denominator = totalTokens.get(role) + vocabularySize;
+                double score = logPriors.get(role);
+                for (String token : tokens) {
+                    int count = counts.getOrDefault(token, 0);
+                    anyKnownToken |= count > 0;
+                    score += Math.log((count + 1) / denominator);
+                }
+                scores.add(score);
+            }
+
+            // Normalise log scores into posteriors
+            double max = scores.stream().mapToDouble(Double::doubleValue).max().orElse(0);
+            double sum = 0;
+            int best = 0;
+            for (int i = 0; i < scores.size(); i++) {
+                sum += Math.exp(scores.get(i) - max);
+                if (scores.get(i) > scores.get(best)) {
+                    best = i;
+                }
+            }
+            double confidence = anyKnownToken ? Math.exp(scores.get(best) - max) / sum : 0.0;
+            return new Prediction(ROLES.get(best), confidence);
+        }
+    }
+}
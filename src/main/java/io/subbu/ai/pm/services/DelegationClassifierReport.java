@@ -0,0 +1,106 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.subbu.ai.pm.services.DelegationClassifier.LabeledTask;
+import io.subbu.ai.pm.services.DelegationClassifier.Prediction;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline evaluation of the delegation classifier against historical delegations
+ *
+ * The history is the one the classifier trains on: the newest tasks delegated by the LLM, so the
+ * classifier is never scored against its own or cached labels. It is split into folds; each fold is classified by a model trained on the other folds,
+ * so no prediction sees its own label. Accuracy and latency are reported next to the latency of
+ * the delegation LLM calls recorded by {@link ParallelTaskDelegator} since startup.
+ */
+@Service
+public class DelegationClassifierReport {
+
+    private static final long SHUFFLE_SEED = 42L;
+
+    private final DelegationClassifier delegationClassifier;
+    private final MeterRegistry meterRegistry;
+
+    public DelegationClassifierReport(DelegationClassifier delegationClassifier, MeterRegistry meterRegistry) {
+        this.delegationClassifier = delegationClassifier;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Evaluate the classifier with k-fold cross-validation over the historical LLM delegations
+     *
+     * @param folds Number of folds, at least 2
+     * @return Accuracy, coverage and latency figures
+     */
+    public Map<String, Object> generate(int folds) {
+        if (folds < 2) {
+            throw new IllegalArgumentException("At least 2 folds are required");
+        }
+
+        List<LabeledTask> history = new ArrayList<>(delegationClassifier.loadHistory());
+        Collections.shuffle(history, new Random(SHUFFLE_SEED));
+        double threshold = delegationClassifier.getConfidenceThreshold();
+
+        int correct = 0;
+        int confident = 0;
+        int confidentCorrect = 0;
+        long classifyNanos = 0;
+
+        for (int fold = 0; fold < folds && !history.isEmpty(); fold++) {
+            List<LabeledTask> training = new ArrayList<>();
+            List<LabeledTask> holdout = new ArrayList<>();
+            for (int i = 0; i < history.size(); i++) {
+                (i % folds == fold ? holdout : training).add(history.get(i));
+            }
+
+            DelegationClassifier.Model model = DelegationClassifier.train(training);
+            for (LabeledTask labeled : holdout) {
+                long start = System.nanoTime();
+                Prediction prediction = model.predict(labeled.description());
+                classifyNanos += System.nanoTime() - start;
+
+                boolean match = prediction.role().equals(labeled.role());
+                if (match) {
+                    correct++;
+                }
+                if (prediction.confidence() >= threshold) {
+                    confident++;
+                    if (match) {
+                        confidentCorrect++;
+                    }
+                }
+            }
+        }
+
+        int total = history.size();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("samples", total);
+        report.put("folds", folds);
+        report.put("confidenceThreshold", threshold);
+        report.put("accuracy", ratio(correct, total));
+        report.put("coverage", ratio(confident, total));
+        report.put("accuracyAboveThreshold", ratio(confidentCorrect, confident));
+        report.put("classifierMeanMicros", total == 0 ? 0.0 : classifyNanos / 1_000.0 / total);
+        report.put("llmPerTaskMeanMillis", meanMillis("per-task"));
+        report.put("llmBatchMeanMillis", meanMillis("batch"));
+        return report;
+    }
+
+    private double meanMillis(String mode) {
+        Timer timer = meterRegistry.find("agent.delegation.llm.duration").tag("mode", mode).timer();
+        return timer != null ? timer.mean(TimeUnit.MILLISECONDS) : 0.0;
+    }
+
+    private static double ratio(int numerator, int denominator) {
+        return denominator == 0 ? 0.0 : (double) numerator / denominator;
+    }
+}
@@ -0,0 +1,179 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.vos.Task;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Joiner;
+import java.util.function.Function;
+
+/**
+ * Runs the tasks of a project concurrently while honouring their dependencies
+ *
+ * Every task gets its own virtual thread in a {@link StructuredTaskScope}. A task waits only for the
+ * tasks it depends on, then competes for one of the project-level permits before it executes.
+ * Tasks whose dependency failed are not executed. Dependencies on tasks outside the scheduled set
+ * are treated as already satisfied.
+ *
+ * The permits bound the tasks of a project that are queued at once. Execute-all hands every task to
+ * the task queue, so the tasks that actually generate at once are also bounded by the queue workers:
+ * app.queue.workers per node, summed over all nodes, and shared with every other project. With the
+ * defaults of a single node, at most 2 of the 4 queued tasks run and the others wait for a worker.
+ *
+ * Configuration:
+ * - app.execution.max-concurrency: Max tasks of one project queued for execution at once (default: 4)
+ */
+@Slf4j
+@Component
+public class DependencyAwareTaskScheduler {
+
+    private final int maxConcurrency;
+
+    public DependencyAwareTaskScheduler(@Value("${app.execution.max-concurrency:4}") int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("app.execution.max-concurrency must be at least 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Execute all given tasks, running independent tasks in parallel
+     * The executor is responsible for persisting each result as soon as it is produced.
+     *
+     * @param tasks The tasks to execute
+     * @param executor Executes a single task and returns its result
+     * @return A map of task IDs to execution results, in the order of the given tasks
+     * @throws IllegalArgumentException if the dependencies form a cycle
+     * @throws IllegalStateException if any task failed; results of the other tasks are still persisted
+     */
+    public Map<String, String> executeAll(List<Task> tasks, Function<Task, String> executor) {
+        Map<String, Task> tasksById = new LinkedHashMap<>();
+        for (Task task : tasks) {
+            tasksById.put(task.getId(), task);
+        }
+        verifyAcyclic(tasks);
+
+        Map<String, CompletableFuture<String>> futures = new HashMap<>();
+        for (String taskId : tasksById.keySet()) {
+            futures.put(taskId, new CompletableFuture<>());
+        }
+
+        Semaphore permits = new Semaphore(maxConcurrency);
+
+        try (var scope = StructuredTaskScope.open(Joiner.awaitAll())) {
+            for (Task task : tasksById.values()) {
+                scope.fork(() -> {
+                    runWhenReady(task, futures, permits, executor);
+                    return null;
+                });
+            }
+            scope.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Task execution was interrupted", e);
+        }
+
+        Map<String, String> results = new LinkedHashMap<>();
+        List<String> failedTaskIds = new ArrayList<>();
+        Throwable firstFailure = null;
+        for (String taskId : tasksById.keySet()) {
+            CompletableFuture<String> future = futures.get(taskId);
+            try {
+                results.put(taskId, future.join());
+            } catch (CompletionException e) {
+                failedTaskIds.add(taskId);
+                if (firstFailure == null) {
+                    firstFailure = e.getCause();
+                }
+            }
+        }
+
+        if (!failedTaskIds.isEmpty()) {
+            throw new IllegalStateException("Failed to execute tasks: " + failedTaskIds, firstFailure);
+        }
+        return results;
+    }
+
+    private void runWhenReady(Task task, Map<String, CompletableFuture<String>> futures,
+                              Semaphore permits, Function<Task, String> executor) {
+        CompletableFuture<String> future = futures.get(task.getId());
+
+        // Wait for predecessors only; tasks outside this run are considered done
+        for (String dependencyId : task.getDependsOn()) {
+            CompletableFuture<String> dependency = futures.get(dependencyId);
+            if (dependency == null) {
+                continue;
+            }
+            try {
+                dependency.join();
+            } catch (CompletionException e) {
+                future.completeExceptionally(
+                        new IllegalStateException("Dependency " + dependencyId + " of task " + task.getId() + " failed"));
+                return;
+            }
+        }
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return;
+        }
+
+        try {
+            future.complete(executor.apply(task));
+        } catch (RuntimeException | Error e) {
+            log.warn("Task {} failed", task.getId(), e);
+            future.completeExceptionally(e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Ensure the dependency graph of the given tasks has no cycle, which would deadlock a run
+     *
+     * @param tasks The tasks to check
+     * @throws IllegalArgumentException if the dependencies form a cycle
+     */
+    public void verifyAcyclic(List<Task> tasks) {
+        Map<String, Task> tasksById = new HashMap<>();
+        for (Task task : tasks) {
+            tasksById.put(task.getId(), task);
+        }
+
+        Set<String> done = new HashSet<>();
+        Set<String> visiting = new HashSet<>();
+        for (String taskId : tasksById.keySet()) {
+            visit(taskId, tasksById, visiting, done);
+        }
+    }
+
+    private static void visit(String taskId, Map<String, Task> tasksById, Set<String> visiting, Set<String> done) {
+        Task task = tasksById.get(taskId);
+        if (task == null || done.contains(taskId)) {
+            return;
+        }
+        if (!visiting.add(taskId)) {
+            throw new IllegalArgumentException("Task dependencies contain a cycle at task: " + taskId);
+        }
+        for (String dependencyId : task.getDependsOn()) {
+            visit(dependencyId, tasksById, visiting, done);
+        }
+        visiting.remove(taskId);
+        done.add(taskId);
+    }
+}
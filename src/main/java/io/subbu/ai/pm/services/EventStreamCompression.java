@@ -0,0 +1,167 @@
+package io.subbu.ai.pm.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes Server-Sent Events compressed with gzip or deflate, one sync flush per event
+ *
+ * Generic response compression buffers output until the compressor's block fills up, which holds
+ * back streamed events for seconds. Here the compressor is sync-flushed after every event, so each
+ * event reaches the client as soon as it is written and can be decompressed on its own, while the
+ * compression dictionary spans the whole stream. Markdown and code usually shrink several times.
+ *
+ * Configuration:
+ * - app.streaming.compression-level: Deflate level from 1 (fastest) to 9 (smallest) (default: 6)
+ */
+@Component
+public class EventStreamCompression {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    public static final String IDENTITY = "identity";
+
+    private final int level;
+
+    public EventStreamCompression(@Value("${app.streaming.compression-level:6}") int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("app.streaming.compression-level must be between 1 and 9");
+        }
+        this.level = level;
+    }
+
+    /**
+     * Choose the content coding for a compressed stream
+     *
+     * @param requested The coding the client asked for, gzip or deflate
+     * @param acceptEncoding The Accept-Encoding header of the request
+     * @return The requested coding, or identity if the client does not accept it
+     */
+    public String negotiate(String requested, String acceptEncoding) {
+        if (!GZIP.equals(requested) && !DEFLATE.equals(requested)) {
+            throw new IllegalArgumentException("Unknown compression: " + requested + " (gzip or deflate)");
+        }
+        if (acceptEncoding == null) {
+            return IDENTITY;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if ((name.equalsIgnoreCase(requested) || name.equals("*")) && !rejected(parts)) {
+                return requested;
+            }
+        }
+        return IDENTITY;
+    }
+
+    /**
+     * Open a writer for an event stream
+     *
+     * @param out The response body
+     * @param coding gzip, deflate or identity, as returned by {@link #negotiate}
+     * @return The writer, which must be closed to complete the compressed stream
+     * @throws IOException If the gzip header cannot be written
+     */
+    public Writer open(OutputStream out, String coding) throws IOException {
+        return switch (coding) {
+            case GZIP -> new Writer(new GZIPOutputStream(out, 8192, true) {
+                {
+                    def.setLevel(level);
+                }
+            });
+            case DEFLATE -> new Writer(new LevelDeflaterOutputStream(out, new Deflater(level)));
+            case IDENTITY -> new Writer(out);
+            default -> throw new IllegalArgumentException("Unknown content coding: " + coding);
+        };
+    }
+
+    /**
+     * Whether an Accept-Encoding entry has q=0
+     */
+    private static boolean rejected(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Zlib stream that sync-flushes on flush() and releases its deflater on close()
+     */
+    private static final class LevelDeflaterOutputStream extends DeflaterOutputStream {
+
+        private LevelDeflaterOutputStream(OutputStream out, Deflater deflater) {
+            super(out, deflater, 8192, true);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                def.end();
+            }
+        }
+    }
+
+    /**
+     * Event writer for one response
+     * Not thread-safe; events are written by the thread streaming the response.
+     */
+    public static final class Writer implements Closeable {
+
+        private final OutputStream out;
+
+        private Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        /**
+         * Write one event and flush it to the client
+         * Multi-line data is sent as one data line per line, as Spring's SSE support does.
+         *
+         * @param id The event ID, or null
+         * @param name The event name, or null for the default message event
+         * @param data The event data
+         * @throws IOException If the client has gone away
+         */
+        public void event(String id, String name, String data) throws IOException {
+            StringBuilder event = new StringBuilder(data.length() + 32);
+            if (id != null) {
+                event.append("id:").append(id).append('\n');
+            }
+            if (name != null) {
+                event.append("event:").append(name).append('\n');
+            }
+            event.append("data:").append(data.replace("\n", "\ndata:")).append("\n\n");
+            out.write(event.toString().getBytes(StandardCharsets.UTF_8));
+            // Sync flush: everything written so far leaves the compressor and the response buffer
+            out.flush();
+        }
+
+        /**
+         * Complete the compressed stream
+         *
+         * @throws IOException If the client has gone away
+         */
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.vos.CursorPage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Cursors and page sizes for listings paginated by (created_at, id)
+ *
+ * A cursor holds the created_at and id of the last row of a page, and the next page continues right after
+ * that key. Unlike offsets, the query cost does not grow with the page number, and rows inserted or
+ * deleted meanwhile do not shift later pages, since created_at never changes and id breaks ties.
+ *
+ * Configuration:
+ * - app.pagination.default-size: Rows per page when the client does not ask for a size (default: 50)
+ * - app.pagination.max-size: Largest page size a client can ask for (default: 500)
+ */
+@Component
+public class KeysetPagination {
+
+    private static final char SEPARATOR = '|';
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public KeysetPagination(@Value("${app.pagination.default-size:50}") int defaultSize,
+                            @Value("${app.pagination.max-size:500}") int maxSize) {
+        if (defaultSize < 1 || maxSize < defaultSize) {
+            throw new IllegalArgumentException(
+                    "app.pagination.default-size must be at least 1 and not above app.pagination.max-size");
+        }
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the page size for a request
+     *
+     * @param requested The size the client asked for, or null for the default
+     * @return The page size, capped at the maximum
+     */
+    public int pageSize(Integer requested) {
+        if (requested == null) {
+            return defaultSize;
+        }
+        if (requested < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1: " + requested);
+        }
+        return Math.min(requested, maxSize);
+    }
+
+    /**
+     * Get the number of rows to query for a page: one more than the page size, to tell whether another page follows
+     *
+     * @param requested The size the client asked for, or null for the default
+     * @return The query limit
+     */
+    public int fetchSize(Integer requested) {
+        return pageSize(requested) + 1;
+    }
+
+    /**
+     * Decode a cursor passed by a client
+     *
+     * @param cursor The cursor, or null or blank for the first page
+     * @return The key to continue after, or null for the first page
+     */
+    public Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.indexOf(SEPARATOR);
+            if (separator < 1 || separator == key.length() - 1) {
+                throw new IllegalArgumentException("Cursor key has no created_at and id");
+            }
+            return new Cursor(LocalDateTime.parse(key.substring(0, separator)), key.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Cut the rows of a query made with {@link #fetchSize} to a page
+     *
+     * @param rows The rows, ordered by (created_at, id), at most one more than the page size
+     * @param requested The size the client asked for, or null for the default
+     * @param createdAt Gets the created_at of a row
+     * @param id Gets the id of a row
+     * @return The page, with a cursor after its last row if more rows follow
+     */
+    public <T> CursorPage<T> page(List<T> rows, Integer requested,
+                                  Function<T, LocalDateTime> createdAt, Function<T, String> id) {
+        int size = pageSize(requested);
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        T last = items.getLast();
+        return new CursorPage<>(items, new Cursor(createdAt.apply(last), id.apply(last)).encode());
+    }
+
+    /**
+     * Key of the last row of a page
+     */
+    public record Cursor(LocalDateTime createdAt, String id) {
+
+        /**
+         * Encode the key as an opaque, URL-safe string
+         */
+        public String encode() {
+            String key = createdAt + String.valueOf(SEPARATOR) + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package io.subbu.ai.pm.services;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Records metrics around LLM calls made by the orchestration layer
+ *
+ * Besides call latency, every call checks whether the calling thread still has a transaction
+ * or JPA session bound to it and samples the Hikari pool occupancy. Together with the standard
+ * hikaricp.connections.* metrics this shows whether database connections are held during generation.
+ *
+ * Metrics:
+ * - agent.llm.calls.active: LLM calls currently in flight
+ * - agent.llm.call.duration: LLM call latency per phase
+ * - agent.llm.calls.holding.connection: LLM calls started while the thread held a transaction or session
+ * - agent.llm.pool.active.connections: Active pool connections sampled at the start of each LLM call
+ * - agent.llm.streams.cancelled: Streaming LLM calls cancelled before the model finished, e.g. on client disconnect
+ * - agent.llm.tokens.saved: Estimated completion tokens not generated because a stream was cancelled
+ *   (max-tokens minus the chunks received, an upper bound since the model may have stopped earlier)
+ * - agent.llm.stream.ttft: Time to first token of streamed responses, per agent and model
+ * - agent.llm.stream.inter.token.latency: Time between consecutive tokens, per agent and model
+ * - agent.llm.stream.tokens.per.second: Generation rate after the first token of completed streams, per agent and model
+ */
+@Slf4j
+@Component
+public class LlmCallMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final HikariDataSource hikariDataSource;
+    private final AtomicInteger activeCalls = new AtomicInteger();
+    private final int maxTokens;
+    private final String model;
+
+    public LlmCallMetrics(MeterRegistry meterRegistry, DataSource dataSource,
+                          @Value("${spring.ai.openai.chat.options.max-tokens:0}") int maxTokens,
+                          @Value("${spring.ai.openai.chat.options.model:unknown}") String model) {
+        this.meterRegistry = meterRegistry;
+        this.hikariDataSource = resolveHikari(dataSource);
+        this.maxTokens = maxTokens;
+        this.model = model;
+
+        Gauge.builder("agent.llm.calls.active", activeCalls, AtomicInteger::get)
+                .description("LLM calls currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a blocking LLM call
+     *
+     * @param phase The orchestration phase, used as a metric tag
+     * @param call The LLM call
+     * @return The result of the call
+     */
+    public <T> T recordCall(String phase, Supplier<T> call) {
+        onStart(phase);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return call.get();
+        } finally {
+            sample.stop(timer(phase));
+            activeCalls.decrementAndGet();
+        }
+    }
+
+    /**
+     * Record a streaming LLM call, from subscription until the stream terminates or is cancelled
+     * Each element is counted as one completion token, as OpenAI-compatible servers stream one token per chunk.
+     *
+     * @param phase The orchestration phase, used as a metric tag
+     * @param stream The LLM response stream
+     * @return The instrumented stream
+     */
+    public <T> Flux<T> recordStream(String phase, Flux<T> stream) {
+        return Flux.defer(() -> {
+            onStart(phase);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            AtomicInteger chunks = new AtomicInteger();
+            return stream
+                    .doOnNext(element -> chunks.incrementAndGet())
+                    .doFinally(signal -> {
+                        sample.stop(timer(phase));
+                        activeCalls.decrementAndGet();
+                        if (signal == SignalType.CANCEL) {
+                            onCancel(phase, chunks.get());
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Record token timing of a streamed response
+     * Each element is counted as one token. Tokens per second are measured from the first token to the
+     * last, so they reflect the generation rate independent of queueing and prompt processing.
+     *
+     * @param agent The specialist streaming the response, used as a metric tag
+     * @param stream The response chunks
+     * @return The instrumented stream
+     */
+    public Flux<String> recordTokens(String agent, Flux<String> stream) {
+        return Flux.defer(() -> {
+            Timer ttft = streamTimer("agent.llm.stream.ttft", "Time to first token of streamed responses", agent);
+            Timer interToken = streamTimer("agent.llm.stream.inter.token.latency",
+                    "Time between consecutive tokens of streamed responses", agent);
+            long subscribedAt = System.nanoTime();
+            long[] firstAndLast = new long[2];
+            AtomicInteger tokens = new AtomicInteger();
+
+            return stream
+                    .doOnNext(chunk -> {
+                        long now = System.nanoTime();
+                        if (tokens.getAndIncrement() == 0) {
+                            ttft.record(now - subscribedAt, TimeUnit.NANOSECONDS);
+                            firstAndLast[0] = now;
+                        } else {
+                            interToken.record(now - firstAndLast[1], TimeUnit.NANOSECONDS);
+                        }
+                        firstAndLast[1] = now;
+                    })
+                    .doOnComplete(() -> {
+                        long generationNanos = firstAndLast[1] - firstAndLast[0];
+                        if (tokens.get() > 1 && generationNanos > 0) {
+                            DistributionSummary.builder("agent.llm.stream.tokens.per.second")
+                                    .description("Generation rate of streamed responses after the first token")
+                                    .tag("agent", agent)
+                                    .tag("model", model)
+                                    .publishPercentiles(0.5, 0.95, 0.99)
+                                    .publishPercentileHistogram()
+                                    .register(meterRegistry)
+                                    .record((tokens.get() - 1) * 1e9 / generationNanos);
+                        }
+                    });
+        });
+    }
+
+    private Timer streamTimer(String name, String description, String agent) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("agent", agent)
+                .tag("model", model)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void onCancel(String phase, int chunksReceived) {
+        log.debug("LLM stream in phase {} cancelled after {} chunk(s)", phase, chunksReceived);
+        Counter.builder("agent.llm.streams.cancelled")
+                .description("Streaming LLM calls cancelled before the model finished")
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .increment();
+        Counter.builder("agent.llm.tokens.saved")
+                .description("Estimated completion tokens not generated because a stream was cancelled")
+                .tag("phase", phase)
+                .register(meterRegistry)
+                .increment(Math.max(0, maxTokens - chunksReceived));
+    }
+
+    private void onStart(String phase) {
+        activeCalls.incrementAndGet();
+
+        boolean holdingConnection = TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.getResourceMap().isEmpty();
+        if (holdingConnection) {
+            log.warn("LLM call in phase {} started while holding a transaction or session", phase);
+            Counter.builder("agent.llm.calls.holding.connection")
+                    .description("LLM calls started while the thread held a transaction or JPA session")
+                    .tag("phase", phase)
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        HikariPoolMXBean pool = hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+        if (pool != null) {
+            DistributionSummary.builder("agent.llm.pool.active.connections")
+                    .description("Active pool connections sampled at the start of each LLM call")
+                    .tag("phase", phase)
+                    .register(meterRegistry)
+                    .record(pool.getActiveConnections());
+        }
+    }
+
+    private Timer timer(String phase) {
+        return Timer.builder("agent.llm.call.duration")
+                .description("LLM call latency")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+
+    private static HikariDataSource resolveHikari(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            log.debug("Could not unwrap Hikari pool, pool occupancy will not be sampled", e);
+        }
+        return null;
+    }
+}
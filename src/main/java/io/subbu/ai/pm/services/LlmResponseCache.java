@@ -0,0 +1,199 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.subbu.ai.pm.vos.TaskExecutionResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Exact-match cache of specialist agent responses
+ *
+ * Entries are keyed by agent, a hash of the system prompt, a hash of the user message, the model
+ * and the temperature, so any change to the prompt or generation settings is a miss. The cache is
+ * bounded in entries and each entry expires after a TTL. Cached results are replayed to streaming
+ * clients at full speed instead of being generated again.
+ *
+ * Configuration:
+ * - app.response-cache.enabled: Whether specialist responses are cached (default: false)
+ * - app.response-cache.max-entries: Max cached responses, least recently used are evicted (default: 500)
+ * - app.response-cache.ttl-minutes: How long a cached response is served (default: 1440)
+ * - app.response-cache.replay-chunk-size: Characters per chunk when replaying to a stream (default: 512)
+ *
+ * Metrics:
+ * - agent.response.cache.lookups: Lookups tagged by result (hit, miss or bypass)
+ * - agent.response.cache.tokens.saved: Tokens of the original generations served from the cache
+ */
+@Slf4j
+@Component
+public class LlmResponseCache {
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int replayChunkSize;
+    private final String model;
+    private final String temperature;
+    private final Map<String, Entry> entries;
+
+    public LlmResponseCache(
+            MeterRegistry meterRegistry,
+            @Value("${app.response-cache.enabled:false}") boolean enabled,
+            @Value("${app.response-cache.max-entries:500}") int maxEntries,
+            @Value("${app.response-cache.ttl-minutes:1440}") long ttlMinutes,
+            @Value("${app.response-cache.replay-chunk-size:512}") int replayChunkSize,
+            @Value("${spring.ai.openai.chat.options.model:}") String model,
+            @Value("${spring.ai.openai.chat.options.temperature:}") String temperature) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("app.response-cache.max-entries must be at least 1");
+        }
+        if (replayChunkSize < 1) {
+            throw new IllegalArgumentException("app.response-cache.replay-chunk-size must be at least 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.replayChunkSize = replayChunkSize;
+        this.model = model;
+        this.temperature = temperature;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    private record Entry(TaskExecutionResult result, long expiresAtNanos) {
+    }
+
+    /**
+     * Look up the cached response of an agent to a prompt
+     *
+     * @param agent The specialist role
+     * @param prompt The prompt the agent would send
+     * @param bypass Whether the caller asked to skip the cache for this request
+     * @return The cached response, or empty if it must be generated
+     */
+    public Optional<TaskExecutionResult> get(String agent, Prompt prompt, boolean bypass) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        if (bypass) {
+            lookups("bypass").increment();
+            return Optional.empty();
+        }
+
+        String key = key(agent, prompt);
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.expiresAtNanos() >= 0) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            lookups("miss").increment();
+            return Optional.empty();
+        }
+
+        lookups("hit").increment();
+        Integer tokensUsed = entry.result().getTokensUsed();
+        if (tokensUsed != null) {
+            Counter.builder("agent.response.cache.tokens.saved")
+                    .description("Tokens of cached generations that did not have to be generated again")
+                    .register(meterRegistry)
+                    .increment(tokensUsed);
+        }
+        return Optional.of(entry.result());
+    }
+
+    /**
+     * Cache the response of an agent to a prompt
+     *
+     * @param agent The specialist role
+     * @param prompt The prompt the agent sent
+     * @param result The generated response
+     */
+    public void put(String agent, Prompt prompt, TaskExecutionResult result) {
+        if (!enabled || result.getResult() == null || result.getResult().isEmpty()) {
+            return;
+        }
+        Entry entry = new Entry(result, System.nanoTime() + ttl.toNanos());
+        synchronized (entries) {
+            entries.put(key(agent, prompt), entry);
+        }
+    }
+
+    /**
+     * Replay a cached response as a stream of chunks, without pacing
+     *
+     * @param result The cached response text
+     * @return Flux of response chunks
+     */
+    public Flux<String> replay(String result) {
+        List<String> chunks = new ArrayList<>(result.length() / replayChunkSize + 1);
+        int start = 0;
+        while (start < result.length()) {
+            int end = Math.min(result.length(), start + replayChunkSize);
+            // Do not split a surrogate pair across chunks
+            if (end < result.length() && Character.isHighSurrogate(result.charAt(end - 1))) {
+                end++;
+            }
+            chunks.add(result.substring(start, end));
+            start = end;
+        }
+        return Flux.fromIterable(chunks);
+    }
+
+    /**
+     * Build the cache key of an agent prompt under the current generation settings
+     *
+     * @param agent The specialist role
+     * @param prompt The prompt
+     * @return Hex digest identifying the request
+     */
+    String key(String agent, Prompt prompt) {
+        StringBuilder system = new StringBuilder();
+        StringBuilder user = new StringBuilder();
+        for (Message message : prompt.getInstructions()) {
+            StringBuilder target = message.getMessageType() == MessageType.SYSTEM ? system : user;
+            target.append(message.getMessageType()).append('\u0000').append(message.getText()).append('\u0000');
+        }
+        return sha256(String.join("\u0000", agent, sha256(system.toString()), sha256(user.toString()), model, temperature));
+    }
+
+    private Counter lookups(String result) {
+        return Counter.builder("agent.response.cache.lookups")
+                .description("Specialist response cache lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
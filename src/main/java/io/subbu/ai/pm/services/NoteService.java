@@ -3,7 +3,9 @@ package io.subbu.ai.pm.services;
 import io.subbu.ai.pm.mappers.NoteMapper;
 import io.subbu.ai.pm.models.NoteEntity;
 import io.subbu.ai.pm.repos.NoteRepository;
+import io.subbu.ai.pm.vos.CursorPage;
 import io.subbu.ai.pm.vos.Note;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,10 +20,12 @@ public class NoteService {
 
     private final NoteRepository noteRepository;
     private final NoteMapper noteMapper;
+    private final KeysetPagination keysetPagination;
 
-    public NoteService(NoteRepository noteRepository, NoteMapper noteMapper) {
+    public NoteService(NoteRepository noteRepository, NoteMapper noteMapper, KeysetPagination keysetPagination) {
         this.noteRepository = noteRepository;
         this.noteMapper = noteMapper;
+        this.keysetPagination = keysetPagination;
     }
 
     /**
@@ -34,6 +38,23 @@ public class NoteService {
         return noteMapper.toVOList(entities);
     }
 
+    /**
+     * Get a page of notes, newest first
+     *
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @param size Notes per page, or null for the default
+     * @return The page of notes
+     */
+    public CursorPage<Note> getNotes(String cursor, Integer size) {
+        KeysetPagination.Cursor after = keysetPagination.decode(cursor);
+        Limit limit = Limit.of(keysetPagination.fetchSize(size));
+        List<NoteEntity> entities = after == null
+                ? noteRepository.findAllByOrderByCreatedAtDescIdDesc(limit)
+                : noteRepository.findPageAfter(after.createdAt(), after.id(), limit);
+        return keysetPagination.page(entities, size, NoteEntity::getCreatedAt, NoteEntity::getId)
+                .map(noteMapper::toVO);
+    }
+
     /**
      * Get a note by ID
      *
@@ -0,0 +1,257 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.agents.ProjectManagerAgent;
+import io.subbu.ai.pm.vos.Task;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.StructuredTaskScope.Joiner;
+import java.util.concurrent.StructuredTaskScope.Subtask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delegates a batch of tasks to the Project Manager agent concurrently.
+ *
+ * Each delegation runs in its own virtual thread forked from a {@link StructuredTaskScope}.
+ * The scope uses an all-successful joiner, so the first failing delegation cancels its
+ * siblings and the whole batch fails fast instead of leaving orphaned LLM calls behind.
+ *
+ * In batch mode all tasks are first classified with a single LLM call and only the entries
+ * that could not be parsed go through the per-task path.
+ *
+ * Before any LLM call, each task is offered to the local {@link DelegationClassifier}; only the
+ * tasks it cannot classify confidently are sent to the Project Manager agent. LLM decisions are
+ * kept in the {@link DelegationCache}, so repeated descriptions are only delegated once.
+ * Each role is returned with its source, so that only LLM decisions are used to train the classifier.
+ * A task whose LLM answer names no known role gets the default role; that guess is neither cached
+ * nor trained on, so the task is asked again the next time its description comes up.
+ *
+ * Metrics:
+ * - agent.delegation.tasks: Delegated tasks, tagged by source (classifier, cache, llm or default)
+ * - agent.delegation.llm.duration: Latency of delegation LLM calls, tagged by mode
+ *
+ * Configuration:
+ * - app.delegation.mode: per-task or batch (default: per-task)
+ * - app.delegation.max-concurrency: Max delegations in flight at once (default: 4)
+ */
+@Slf4j
+@Service
+public class ParallelTaskDelegator {
+
+    public static final String SOURCE_CLASSIFIER = "classifier";
+    public static final String SOURCE_CACHE = "cache";
+    public static final String SOURCE_LLM = "llm";
+    public static final String SOURCE_DEFAULT = "default";
+
+    /**
+     * Role of a task whose LLM answer could not be parsed
+     */
+    public static final String DEFAULT_ROLE = "Software Engineer";
+
+    private final ProjectManagerAgent projectManagerAgent;
+    private final DelegationClassifier delegationClassifier;
+    private final DelegationCache delegationCache;
+    private final MeterRegistry meterRegistry;
+    private final int maxConcurrency;
+    private final boolean batchMode;
+
+    public ParallelTaskDelegator(
+            ProjectManagerAgent projectManagerAgent,
+            DelegationClassifier delegationClassifier,
+            DelegationCache delegationCache,
+            MeterRegistry meterRegistry,
+            @Value("${app.delegation.max-concurrency:4}") int maxConcurrency,
+            @Value("${app.delegation.mode:per-task}") String mode) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("app.delegation.max-concurrency must be at least 1");
+        }
+        if (!"per-task".equalsIgnoreCase(mode) && !"batch".equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("app.delegation.mode must be per-task or batch: " + mode);
+        }
+        this.projectManagerAgent = projectManagerAgent;
+        this.delegationClassifier = delegationClassifier;
+        this.delegationCache = delegationCache;
+        this.meterRegistry = meterRegistry;
+        this.maxConcurrency = maxConcurrency;
+        this.batchMode = "batch".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * A specialist role and what decided it: {@link #SOURCE_CLASSIFIER}, {@link #SOURCE_CACHE}, {@link #SOURCE_LLM}
+     * or {@link #SOURCE_DEFAULT}
+     */
+    public record Delegation(String role, String source) {
+    }
+
+    /**
+     * Delegate every task to the appropriate specialist
+     *
+     * @param tasks The tasks to delegate
+     * @return The specialist roles with their sources, in the same order as the given tasks
+     */
+    public List<Delegation> delegateAll(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return List.of();
+        }
+
+        long start = System.nanoTime();
+        List<Delegation> delegations = new ArrayList<>(tasks.size());
+        List<Integer> undecided = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            Optional<String> role = delegationClassifier.classifyConfidently(tasks.get(i).getDescription());
+            delegations.add(role.map(r -> new Delegation(r, SOURCE_CLASSIFIER)).orElse(null));
+            if (role.isEmpty()) {
+                undecided.add(i);
+            }
+        }
+
+        for (Iterator<Integer> it = undecided.iterator(); it.hasNext(); ) {
+            int index = it.next();
+            Optional<String> role = delegationCache.lookup(tasks.get(index).getDescription());
+            if (role.isPresent()) {
+                delegations.set(index, new Delegation(role.get(), SOURCE_CACHE));
+                it.remove();
+            }
+        }
+
+        if (!undecided.isEmpty()) {
+            List<Task> llmTasks = undecided.stream().map(tasks::get).toList();
+            List<Delegation> llmDelegations = batchMode ? delegateBatch(llmTasks) : delegateEach(llmTasks);
+            for (int i = 0; i < undecided.size(); i++) {
+                delegations.set(undecided.get(i), llmDelegations.get(i));
+            }
+        }
+
+        int classified = count(delegations, SOURCE_CLASSIFIER);
+        int cached = count(delegations, SOURCE_CACHE);
+        int llm = count(delegations, SOURCE_LLM);
+        int defaulted = count(delegations, SOURCE_DEFAULT);
+        delegatedTasks(SOURCE_CLASSIFIER).increment(classified);
+        delegatedTasks(SOURCE_CACHE).increment(cached);
+        delegatedTasks(SOURCE_LLM).increment(llm);
+        delegatedTasks(SOURCE_DEFAULT).increment(defaulted);
+        log.info("Delegated {} tasks in {} ms ({} by classifier, {} from cache, {} by LLM in {} mode, {} defaulted)",
+                tasks.size(), (System.nanoTime() - start) / 1_000_000, classified, cached,
+                llm, batchMode ? "batch" : "per-task", defaulted);
+        return delegations;
+    }
+
+    /**
+     * Classify all tasks in one LLM call, falling back to per-task delegation for unparsed entries
+     */
+    private List<Delegation> delegateBatch(List<Task> tasks) {
+        Map<Integer, String> delegations;
+        try {
+            delegations = llmDuration("batch").record(() -> projectManagerAgent.delegateTasks(tasks));
+        } catch (RuntimeException e) {
+            log.warn("Batch delegation failed, falling back to per-task delegation", e);
+            delegations = Map.of();
+        }
+
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            if (!delegations.containsKey(i)) {
+                missing.add(i);
+            }
+        }
+
+        List<Delegation> roles = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            roles.add(delegations.containsKey(i) ? new Delegation(delegations.get(i), SOURCE_LLM) : null);
+            if (delegations.containsKey(i)) {
+                delegationCache.put(tasks.get(i).getDescription(), delegations.get(i));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            log.debug("Batch delegation left {} of {} tasks unparsed", missing.size(), tasks.size());
+            List<Delegation> fallbackRoles = delegateEach(missing.stream().map(tasks::get).toList());
+            for (int i = 0; i < missing.size(); i++) {
+                roles.set(missing.get(i), fallbackRoles.get(i));
+            }
+        }
+        return roles;
+    }
+
+    /**
+     * Delegate each task with its own LLM call, running the calls concurrently
+     * A task whose description another task of the batch is already delegating shares that call
+     * through the cache and is counted as cached.
+     */
+    private List<Delegation> delegateEach(List<Task> tasks) {
+        Semaphore permits = new Semaphore(maxConcurrency);
+
+        try (var scope = StructuredTaskScope.open(Joiner.<Delegation>allSuccessfulOrThrow())) {
+            List<Subtask<Delegation>> subtasks = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                subtasks.add(scope.fork(() -> {
+                    AtomicBoolean asked = new AtomicBoolean();
+                    String role = delegationCache.load(task.getDescription(), () -> {
+                        asked.set(true);
+                        return delegateWithPermit(task, permits);
+                    });
+                    if (role == null) {
+                        return new Delegation(DEFAULT_ROLE, SOURCE_DEFAULT);
+                    }
+                    return new Delegation(role, asked.get() ? SOURCE_LLM : SOURCE_CACHE);
+                }));
+            }
+
+            scope.join();
+
+            return subtasks.stream()
+                    .map(Subtask::get)
+                    .toList();
+        } catch (StructuredTaskScope.FailedException e) {
+            throw new IllegalStateException("Task delegation failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Task delegation was interrupted", e);
+        }
+    }
+
+    private String delegateWithPermit(Task task, Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Task delegation was interrupted", e);
+        }
+        try {
+            String specialist = llmDuration("per-task").record(() -> projectManagerAgent.delegateTask(task));
+            log.debug("Delegated task {} to {}", task.getId(), specialist);
+            return specialist;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static int count(List<Delegation> delegations, String source) {
+        return (int) delegations.stream().filter(delegation -> source.equals(delegation.source())).count();
+    }
+
+    private Counter delegatedTasks(String source) {
+        return Counter.builder("agent.delegation.tasks")
+                .description("Delegated tasks by deciding source")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    private Timer llmDuration(String mode) {
+        return Timer.builder("agent.delegation.llm.duration")
+                .description("Latency of delegation LLM calls")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+}
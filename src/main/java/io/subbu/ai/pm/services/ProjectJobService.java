@@ -0,0 +1,266 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.vos.Project;
+import io.subbu.ai.pm.vos.ProjectJob;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Service that runs project creation and execute-all as background jobs
+ *
+ * The analysis-plus-delegation pipeline and the execution of all tasks of a project run on a bounded
+ * executor instead of the request thread. Clients poll {@link #getJob(String)} or subscribe to
+ * {@link #streamJob(String)} for progress. Finished jobs are kept in memory for a retention period;
+ * expired jobs are no longer returned and are purged every minute, so they do not pile up between submissions.
+ *
+ * An execute-all job holds its pool thread while the queue workers execute the tasks, so long-running
+ * executions reduce the jobs that can run at once.
+ *
+ * Configuration:
+ * - app.jobs.pool-size: Number of jobs processed concurrently (default: 4)
+ * - app.jobs.queue-capacity: Number of jobs waiting for a worker before new ones are rejected (default: 50)
+ * - app.jobs.retention-minutes: How long finished jobs stay queryable (default: 30)
+ */
+@Slf4j
+@Service
+public class ProjectJobService {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final long PURGE_INTERVAL_SECONDS = 60;
+
+    private final AgentOrchestrationService agentOrchestrationService;
+    private final ThreadPoolTaskExecutor executor;
+    private final ScheduledExecutorService purger;
+    private final Duration retention;
+    private final Map<String, JobHandle> jobs = new ConcurrentHashMap<>();
+
+    public ProjectJobService(
+            AgentOrchestrationService agentOrchestrationService,
+            @Value("${app.jobs.pool-size:4}") int poolSize,
+            @Value("${app.jobs.queue-capacity:50}") int queueCapacity,
+            @Value("${app.jobs.retention-minutes:30}") long retentionMinutes) {
+        this.agentOrchestrationService = agentOrchestrationService;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(poolSize);
+        this.executor.setMaxPoolSize(poolSize);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setThreadNamePrefix("project-job-");
+        this.executor.initialize();
+
+        this.purger = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("project-job-purge").daemon().factory());
+        this.purger.scheduleAtFixedRate(this::purgeExpiredJobs, PURGE_INTERVAL_SECONDS, PURGE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queue a project request for background processing
+     *
+     * @param projectRequest The project request/title to process
+     * @return The queued job
+     * @throws TaskRejectedException if the job queue is full
+     */
+    public ProjectJob submit(String projectRequest) {
+        return submit(new JobHandle(UUID.randomUUID().toString(), JobType.CREATE_PROJECT, projectRequest, null),
+                progress -> agentOrchestrationService.processProjectRequest(projectRequest, progress));
+    }
+
+    /**
+     * Queue the execution of all tasks of a project
+     * Once COMPLETED, the job result holds the project ID, its tasks and the result of each task.
+     *
+     * @param projectId The ID of the project
+     * @return The queued job
+     * @throws TaskRejectedException if the job queue is full
+     */
+    public ProjectJob submitExecuteAll(String projectId) {
+        return submit(new JobHandle(UUID.randomUUID().toString(), JobType.EXECUTE_ALL, null, projectId),
+                progress -> {
+                    Map<String, String> results = agentOrchestrationService.executeAllProjectTasks(projectId, progress);
+                    return Map.of(
+                            "projectId", projectId,
+                            "tasks", agentOrchestrationService.getProjectTasks(projectId),
+                            "results", results);
+                });
+    }
+
+    private ProjectJob submit(JobHandle handle, Function<Consumer<String>, Map<String, Object>> work) {
+        jobs.put(handle.jobId, handle);
+
+        try {
+            executor.execute(() -> run(handle, work));
+        } catch (TaskRejectedException e) {
+            jobs.remove(handle.jobId);
+            throw e;
+        }
+
+        log.debug("Queued {} job {}", handle.type, handle.jobId);
+        return handle.snapshot();
+    }
+
+    /**
+     * Get the current state of a job
+     *
+     * @param jobId The ID of the job
+     * @return The job
+     */
+    public ProjectJob getJob(String jobId) {
+        return findJob(jobId).snapshot();
+    }
+
+    /**
+     * Stream job state changes, starting with the current state
+     * The stream completes once the job has COMPLETED or FAILED.
+     *
+     * @param jobId The ID of the job
+     * @return Flux of job snapshots
+     */
+    public Flux<ProjectJob> streamJob(String jobId) {
+        return findJob(jobId).sink.asFlux();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        purger.shutdownNow();
+        executor.shutdown();
+    }
+
+    private JobHandle findJob(String jobId) {
+        JobHandle handle = jobs.get(jobId);
+        if (handle != null && handle.isExpired(cutoff())) {
+            // Expired since the last purge
+            jobs.remove(jobId, handle);
+            handle = null;
+        }
+        if (handle == null) {
+            throw new IllegalArgumentException("Job not found: " + jobId);
+        }
+        return handle;
+    }
+
+    private void run(JobHandle handle, Function<Consumer<String>, Map<String, Object>> work) {
+        handle.update("RUNNING", handle.type.startStage);
+        try {
+            handle.complete(work.apply(stage -> handle.update("RUNNING", stage)));
+        } catch (RuntimeException e) {
+            log.error("{} job {} failed", handle.type, handle.jobId, e);
+            handle.fail(e);
+        }
+    }
+
+    private void purgeExpiredJobs() {
+        LocalDateTime cutoff = cutoff();
+        jobs.values().removeIf(handle -> handle.isExpired(cutoff));
+    }
+
+    /**
+     * Jobs that finished at or before this time have expired
+     */
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minus(retention);
+    }
+
+    /**
+     * Kinds of jobs with the stages they start, complete and fail with
+     */
+    private enum JobType {
+        CREATE_PROJECT("Creating project", "Project created", "Project creation failed"),
+        EXECUTE_ALL("Executing tasks", "Tasks executed", "Task execution failed");
+
+        private final String startStage;
+        private final String completedStage;
+        private final String failedStage;
+
+        JobType(String startStage, String completedStage, String failedStage) {
+            this.startStage = startStage;
+            this.completedStage = completedStage;
+            this.failedStage = failedStage;
+        }
+    }
+
+    /**
+     * Mutable job state, guarded by its own monitor so that sink emissions are serialized
+     */
+    private static final class JobHandle {
+
+        private final String jobId;
+        private final JobType type;
+        private final String projectRequest;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final Sinks.Many<ProjectJob> sink = Sinks.many().replay().latest();
+
+        private String status = "QUEUED";
+        private String stage = "Waiting for a worker";
+        private String projectId;
+        private Map<String, Object> result;
+        private String error;
+        private LocalDateTime updatedAt = createdAt;
+
+        private JobHandle(String jobId, JobType type, String projectRequest, String projectId) {
+            this.jobId = jobId;
+            this.type = type;
+            this.projectRequest = projectRequest;
+            this.projectId = projectId;
+            sink.tryEmitNext(snapshot());
+        }
+
+        synchronized void update(String status, String stage) {
+            this.status = status;
+            this.stage = stage;
+            this.updatedAt = LocalDateTime.now();
+            sink.tryEmitNext(snapshot());
+        }
+
+        synchronized void complete(Map<String, Object> result) {
+            this.result = result;
+            if (result.get("project") instanceof Project project) {
+                this.projectId = project.getId();
+            }
+            update("COMPLETED", type.completedStage);
+            sink.tryEmitComplete();
+        }
+
+        synchronized void fail(Exception e) {
+            this.error = e.getMessage();
+            update("FAILED", type.failedStage);
+            sink.tryEmitComplete();
+        }
+
+        synchronized boolean isExpired(LocalDateTime cutoff) {
+            boolean finished = "COMPLETED".equals(status) || "FAILED".equals(status);
+            return finished && !updatedAt.isAfter(cutoff);
+        }
+
+        synchronized ProjectJob snapshot() {
+            return new ProjectJob(
+                    jobId,
+                    type.name(),
+                    projectRequest,
+                    status,
+                    stage,
+                    projectId,
+                    result,
+                    error,
+                    createdAt.format(FORMATTER),
+                    updatedAt.format(FORMATTER));
+        }
+    }
+}
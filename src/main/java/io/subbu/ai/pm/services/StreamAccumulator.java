@@ -0,0 +1,64 @@
+package io.subbu.ai.pm.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the chunks of a streamed LLM response in linear time
+ *
+ * Appending only records a reference to the chunk, so the text is copied once, when the result
+ * is materialized, instead of on every token as with repeated string concatenation. The
+ * materialized result is cached until the next append.
+ *
+ * Not thread-safe; Reactor delivers the signals of one stream sequentially.
+ */
+public class StreamAccumulator {
+
+    private final List<String> chunks = new ArrayList<>();
+    private int length;
+    private String materialized = "";
+
+    /**
+     * Append a chunk
+     *
+     * @param chunk The chunk to append
+     * @return This accumulator
+     */
+    public StreamAccumulator append(String chunk) {
+        if (chunk != null && !chunk.isEmpty()) {
+            chunks.add(chunk);
+            length += chunk.length();
+            materialized = null;
+        }
+        return this;
+    }
+
+    /**
+     * Get the number of characters accumulated so far
+     *
+     * @return The length of the accumulated text
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Get the accumulated text
+     *
+     * @return All chunks, concatenated in order
+     */
+    @Override
+    public String toString() {
+        if (materialized == null) {
+            StringBuilder builder = new StringBuilder(length);
+            for (String chunk : chunks) {
+                builder.append(chunk);
+            }
+            materialized = builder.toString();
+            // Keep a single chunk so that further appends do not copy the prefix again
+            chunks.clear();
+            chunks.add(materialized);
+        }
+        return materialized;
+    }
+}
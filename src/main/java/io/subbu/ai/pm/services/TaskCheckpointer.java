@@ -0,0 +1,286 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.subbu.ai.pm.repos.TaskRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes periodic checkpoints of streamed task output to the database
+ *
+ * While a task streams, the text generated since the previous checkpoint is appended to tasks.result
+ * every app.streaming.checkpoint-kb or app.streaming.checkpoint-interval-ms, whichever comes first,
+ * and the task is marked IN_PROGRESS with the byte offset of the stored text. If the node goes away,
+ * the partial output stays readable and a new stream of the task continues after it.
+ *
+ * The thread delivering tokens only collects text; the writes run on virtual threads, in order per task.
+ * The size threshold is checked as tokens arrive, the interval by a timer, so the output of a model that
+ * stalls is still written. A cancelled generation writes its remaining output and leaves the task
+ * CANCELLED, from where it can be continued like an IN_PROGRESS one.
+ *
+ * Each generation first claims the task in tasks.generation_id, which also moves a CANCELLED task back to
+ * IN_PROGRESS. Checkpoints and cancellations apply only while the generation still owns an IN_PROGRESS
+ * task, so late writes of a cancelled or superseded generation cannot change it.
+ *
+ * Configuration:
+ * - app.streaming.checkpoint-kb: Generated output in KB that triggers a checkpoint (default: 16)
+ * - app.streaming.checkpoint-interval-ms: Max time generated output waits before it is checkpointed (default: 2000)
+ *
+ * Metrics:
+ * - agent.stream.checkpoints: Checkpoint writes by result (written, ignored, failed)
+ */
+@Slf4j
+@Component
+public class TaskCheckpointer {
+
+    private final TaskRepository taskRepository;
+    private final long checkpointBytes;
+    private final long intervalNanos;
+    private final ExecutorService writer;
+    private final ScheduledExecutorService timer;
+    private final Counter written;
+    private final Counter ignored;
+    private final Counter failed;
+
+    public TaskCheckpointer(
+            TaskRepository taskRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.streaming.checkpoint-kb:16}") int checkpointKb,
+            @Value("${app.streaming.checkpoint-interval-ms:2000}") long checkpointIntervalMs) {
+        this(taskRepository, meterRegistry, checkpointKb * 1024L, Duration.ofMillis(checkpointIntervalMs),
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-checkpoint-", 0).factory()),
+                Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("task-checkpoint-timer").daemon().factory()));
+    }
+
+    TaskCheckpointer(TaskRepository taskRepository, MeterRegistry meterRegistry, long checkpointBytes,
+                     Duration checkpointInterval, ExecutorService writer, ScheduledExecutorService timer) {
+        if (checkpointBytes < 1) {
+            throw new IllegalArgumentException("app.streaming.checkpoint-kb must be at least 1");
+        }
+        this.taskRepository = taskRepository;
+        this.checkpointBytes = checkpointBytes;
+        this.intervalNanos = checkpointInterval.toNanos();
+        this.writer = writer;
+        this.timer = timer;
+        this.written = counter(meterRegistry, "written");
+        this.ignored = counter(meterRegistry, "ignored");
+        this.failed = counter(meterRegistry, "failed");
+    }
+
+    /**
+     * Start checkpointing the output of a generation
+     *
+     * @param taskId The ID of the task
+     * @param storedBytes UTF-8 length in bytes of the result already stored for the task, 0 for a new generation
+     * @return The checkpoint, fed with the generated text in order
+     */
+    public Checkpoint start(String taskId, long storedBytes) {
+        Checkpoint checkpoint = new Checkpoint(taskId, storedBytes);
+        checkpoint.claim();
+        return checkpoint;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        writer.shutdown();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("agent.stream.checkpoints")
+                .description("Checkpoint writes of streamed task output")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checkpoint state of one generation
+     * Synchronized because a cancellation can arrive on another thread than the generated text.
+     */
+    public final class Checkpoint {
+
+        private final String taskId;
+        private final String generation = UUID.randomUUID().toString();
+        private final StringBuilder pending = new StringBuilder();
+        private long pendingBytes;
+        private long dispatchedBytes;
+        private long lastDispatch = System.nanoTime();
+        private ScheduledFuture<?> scheduledFlush;
+        private CompletableFuture<Void> writes = CompletableFuture.completedFuture(null);
+        private volatile boolean stopped;
+
+        private Checkpoint(String taskId, long storedBytes) {
+            this.taskId = taskId;
+            this.dispatchedBytes = storedBytes;
+        }
+
+        /**
+         * Take ownership of the task before the first checkpoint
+         */
+        private synchronized void claim() {
+            long offset = dispatchedBytes;
+            dispatch(() -> {
+                if (taskRepository.claimGeneration(taskId, generation, offset) == 0) {
+                    // The task completed, or its stored result no longer ends where this generation starts
+                    stopped = true;
+                    ignored.increment();
+                    log.debug("Task {} could not be claimed for checkpoints at byte {}", taskId, offset);
+                }
+            });
+        }
+
+        /**
+         * Add generated text, writing a checkpoint if a threshold is reached
+         *
+         * @param text The generated text
+         */
+        public synchronized void append(String text) {
+            if (text == null || text.isEmpty()) {
+                return;
+            }
+            pending.append(text);
+            pendingBytes += text.getBytes(StandardCharsets.UTF_8).length;
+            long sinceDispatch = System.nanoTime() - lastDispatch;
+            if (pendingBytes >= checkpointBytes || sinceDispatch >= intervalNanos) {
+                flush();
+            } else if (scheduledFlush == null && !stopped) {
+                // Write the output by the end of the interval even if no more tokens arrive
+                try {
+                    scheduledFlush = timer.schedule(this::flush, intervalNanos - sinceDispatch, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    log.debug("Could not schedule a checkpoint of task {}, the application is shutting down", taskId);
+                }
+            }
+        }
+
+        /**
+         * Write the text collected since the previous checkpoint, e.g. when the generation fails
+         */
+        public synchronized void flush() {
+            lastDispatch = System.nanoTime();
+            cancelScheduledFlush();
+            if (stopped || pending.isEmpty()) {
+                return;
+            }
+            String delta = pending.toString();
+            long offset = dispatchedBytes;
+            long newOffset = offset + pendingBytes;
+            pending.setLength(0);
+            pendingBytes = 0;
+            dispatchedBytes = newOffset;
+
+            dispatch(() -> write(delta, offset, newOffset));
+        }
+
+        /**
+         * Stop checkpointing; writes not started yet are skipped
+         * Called before the complete result is saved.
+         */
+        public synchronized void close() {
+            stopped = true;
+            cancelScheduledFlush();
+        }
+
+        /**
+         * Write the remaining output and then mark the task CANCELLED
+         * Called when the generation is cancelled; the task can be continued from its stored output.
+         */
+        public synchronized void cancel() {
+            flush();
+            dispatch(this::markCancelled);
+        }
+
+        /**
+         * Get the UTF-8 length in bytes of the stored result plus all text appended since
+         *
+         * @return The byte offset at the end of the generated output
+         */
+        public synchronized long bytes() {
+            return dispatchedBytes + pendingBytes;
+        }
+
+        /**
+         * Get the ID under which this generation claimed the task
+         *
+         * @return The generation ID
+         */
+        public String generation() {
+            return generation;
+        }
+
+        /**
+         * Completes once all dispatched writes have run
+         */
+        synchronized CompletableFuture<Void> pendingWrites() {
+            return writes;
+        }
+
+        /**
+         * Run a write after the ones dispatched before it
+         */
+        private void dispatch(Runnable write) {
+            try {
+                writes = writes.thenRunAsync(write, writer);
+            } catch (RejectedExecutionException e) {
+                stopped = true;
+                log.debug("Stopped checkpointing task {}, the application is shutting down", taskId);
+            }
+        }
+
+        private void cancelScheduledFlush() {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+        }
+
+        private void markCancelled() {
+            if (stopped) {
+                // Another generation owns the stored result, or it is already complete
+                return;
+            }
+            stopped = true;
+            try {
+                taskRepository.markCancelled(taskId, generation);
+            } catch (RuntimeException e) {
+                log.warn("Failed to mark task {} as cancelled", taskId, e);
+            }
+        }
+
+        private void write(String delta, long offset, long newOffset) {
+            if (stopped) {
+                return;
+            }
+            try {
+                if (taskRepository.appendCheckpoint(taskId, generation, delta, offset, newOffset) == 1) {
+                    written.increment();
+                } else {
+                    // The task completed or was cancelled, another generation claimed it, or its stored
+                    // result no longer ends where this generation expects
+                    stopped = true;
+                    ignored.increment();
+                    log.debug("Ignored checkpoint of task {} at byte {}", taskId, offset);
+                }
+            } catch (RuntimeException e) {
+                // Later checkpoints would not line up with the stored result; the final save still writes everything
+                stopped = true;
+                failed.increment();
+                log.warn("Failed to checkpoint task {} at byte {}", taskId, offset, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.models.TaskQueueEntity;
+import io.subbu.ai.pm.repos.TaskQueueRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service for the durable, Postgres-backed task execution queue
+ *
+ * Producers enqueue tasks and wait for them; {@link TaskQueueWorker} threads on every node claim
+ * entries with FOR UPDATE SKIP LOCKED and hold a lease that they renew while the task runs.
+ * If a node dies, its leases expire and the entries are reclaimed by another worker.
+ *
+ * Configuration:
+ * - app.queue.lease-seconds: How long a claim is valid without a heartbeat (default: 60)
+ * - app.queue.max-attempts: Attempts before an entry is marked FAILED (default: 3)
+ * - app.queue.retry-delay-seconds: Delay per attempt before a failed entry is retried (default: 10)
+ * - app.queue.poll-interval-ms: How often waiting producers re-check the entry (default: 1000)
+ * - app.queue.await-timeout-seconds: How long a producer waits for the result (default: 900)
+ */
+@Slf4j
+@Service
+public class TaskQueueService {
+
+    private static final List<String> ACTIVE_STATUSES = List.of("QUEUED", "RUNNING");
+
+    // An active entry can finish between a rejected insert and its lookup; then the insert is retried
+    private static final int ENQUEUE_ATTEMPTS = 3;
+
+    private final TaskQueueRepository taskQueueRepository;
+    private final int leaseSeconds;
+    private final int maxAttempts;
+    private final int retryDelaySeconds;
+    private final long pollIntervalMs;
+    private final Duration awaitTimeout;
+    private final String nodeId;
+
+    // Lets a producer wake up immediately when its entry was processed on this node
+    private final Map<String, CompletableFuture<Void>> localWaiters = new ConcurrentHashMap<>();
+
+    public TaskQueueService(
+            TaskQueueRepository taskQueueRepository,
+            @Value("${app.queue.lease-seconds:60}") int leaseSeconds,
+            @Value("${app.queue.max-attempts:3}") int maxAttempts,
+            @Value("${app.queue.retry-delay-seconds:10}") int retryDelaySeconds,
+            @Value("${app.queue.poll-interval-ms:1000}") long pollIntervalMs,
+            @Value("${app.queue.await-timeout-seconds:900}") long awaitTimeoutSeconds) {
+        this.taskQueueRepository = taskQueueRepository;
+        this.leaseSeconds = leaseSeconds;
+        this.maxAttempts = maxAttempts;
+        this.retryDelaySeconds = retryDelaySeconds;
+        this.pollIntervalMs = pollIntervalMs;
+        this.awaitTimeout = Duration.ofSeconds(awaitTimeoutSeconds);
+        this.nodeId = resolveHostName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Add a task to the queue, reusing its entry if it is already queued or running
+     * Concurrent calls for the same task, on this or other nodes, all get the same entry.
+     *
+     * @param taskId The ID of the task to execute
+     * @param bypassCache Whether the worker should skip the specialist response cache
+     * @return The ID of the queue entry
+     */
+    @Transactional
+    public String enqueue(String taskId, boolean bypassCache) {
+        String id = UUID.randomUUID().toString();
+        for (int attempt = 0; attempt < ENQUEUE_ATTEMPTS; attempt++) {
+            if (taskQueueRepository.insertQueued(id, taskId, bypassCache) == 1) {
+                log.debug("Enqueued task {} as queue entry {}", taskId, id);
+                return id;
+            }
+            Optional<TaskQueueEntity> active = taskQueueRepository.findFirstByTaskIdAndStatusIn(taskId, ACTIVE_STATUSES);
+            if (active.isPresent()) {
+                return active.get().getId();
+            }
+        }
+        throw new IllegalStateException("Could not enqueue task " + taskId + ", its queue entries keep changing");
+    }
+
+    /**
+     * Whether a task has a queue entry that is waiting or running
+     *
+     * @param taskId The ID of the task
+     * @return True if the task is QUEUED or RUNNING in the queue
+     */
+    public boolean isQueued(String taskId) {
+        return taskQueueRepository.findFirstByTaskIdAndStatusIn(taskId, ACTIVE_STATUSES).isPresent();
+    }
+
+    /**
+     * Claim the next due or abandoned entries for this node
+     *
+     * @param limit Maximum number of entries to claim
+     * @return The claimed entries, now RUNNING under a lease owned by this node
+     */
+    @Transactional
+    public List<TaskQueueEntity> claim(int limit) {
+        List<String> ids = taskQueueRepository.lockClaimableIds(limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        taskQueueRepository.claim(ids, nodeId, leaseSeconds);
+        return taskQueueRepository.findAllById(ids);
+    }
+
+    /**
+     * Renew the leases of entries this node is still processing
+     *
+     * @param ids IDs of the entries in progress
+     */
+    @Transactional
+    public void renewLeases(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        int renewed = taskQueueRepository.renewLeases(ids, nodeId, leaseSeconds);
+        if (renewed < ids.size()) {
+            log.warn("Lost {} of {} task queue leases; the tasks may be executed again elsewhere",
+                    ids.size() - renewed, ids.size());
+        }
+    }
+
+    /**
+     * Mark a claimed entry as DONE
+     *
+     * @param entryId The ID of the queue entry
+     */
+    @Transactional
+    public void complete(String entryId) {
+        if (taskQueueRepository.markDone(entryId, nodeId) == 0) {
+            log.warn("Lease of queue entry {} was lost before completion", entryId);
+        }
+        notifyLocalWaiterAfterCommit(entryId);
+    }
+
+    /**
+     * Record a failed attempt, retrying the entry later or failing it after max attempts
+     *
+     * @param entry The claimed queue entry
+     * @param error The error of the attempt
+     */
+    @Transactional
+    public void fail(TaskQueueEntity entry, Exception error) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getName();
+        if (entry.getAttempts() >= maxAttempts) {
+            log.warn("Task {} failed after {} attempts", entry.getTaskId(), entry.getAttempts(), error);
+            taskQueueRepository.markFailed(entry.getId(), nodeId, message);
+        } else {
+            log.warn("Task {} failed on attempt {}, retrying", entry.getTaskId(), entry.getAttempts(), error);
+            taskQueueRepository.releaseForRetry(entry.getId(), nodeId, message, retryDelaySeconds * entry.getAttempts());
+        }
+        notifyLocalWaiterAfterCommit(entry.getId());
+    }
+
+    /**
+     * Block until a queue entry is DONE
+     * Entries processed on this node wake the caller immediately; otherwise the entry is polled.
+     *
+     * @param entryId The ID of the queue entry
+     * @throws IllegalStateException if the entry FAILED or did not finish within the await timeout
+     */
+    public void awaitCompletion(String entryId) {
+        CompletableFuture<Void> localSignal = localWaiters.computeIfAbsent(entryId, id -> new CompletableFuture<>());
+        long deadline = System.nanoTime() + awaitTimeout.toNanos();
+
+        try {
+            while (true) {
+                TaskQueueEntity entry = taskQueueRepository.findById(entryId)
+                        .orElseThrow(() -> new IllegalArgumentException("Queue entry not found: " + entryId));
+
+                switch (entry.getStatus()) {
+                    case "DONE" -> {
+                        return;
+                    }
+                    case "FAILED" -> throw new IllegalStateException(
+                            "Task execution failed: " + entry.getTaskId() + ": " + entry.getLastError());
+                    default -> {
+                        if (System.nanoTime() > deadline) {
+                            throw new IllegalStateException("Timed out waiting for task execution: " + entry.getTaskId());
+                        }
+                    }
+                }
+
+                try {
+                    localSignal.get(pollIntervalMs, TimeUnit.MILLISECONDS);
+                    // A local attempt finished; re-arm for a possible retry and re-check the entry
+                    localSignal = new CompletableFuture<>();
+                    localWaiters.put(entryId, localSignal);
+                } catch (TimeoutException e) {
+                    // Not finished on this node yet, poll the entry again
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for task execution", e);
+        } finally {
+            localWaiters.remove(entryId);
+        }
+    }
+
+    /**
+     * Get the identity this node uses as lease owner
+     *
+     * @return The node ID
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void notifyLocalWaiterAfterCommit(String entryId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                CompletableFuture<Void> waiter = localWaiters.get(entryId);
+                if (waiter != null) {
+                    waiter.complete(null);
+                }
+            }
+        });
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
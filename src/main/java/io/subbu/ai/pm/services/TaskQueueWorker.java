@@ -0,0 +1,136 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.models.TaskQueueEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background workers that consume the durable task execution queue on this node
+ *
+ * Each worker claims one entry at a time, executes the task through the orchestration service
+ * and marks the entry DONE, or releases it for a retry on failure. A heartbeat renews the leases
+ * of all entries in progress so that only entries of crashed or stalled nodes get reclaimed.
+ *
+ * Configuration:
+ * - app.queue.workers: Worker threads on this node, 0 disables consumption (default: 2)
+ * - app.queue.poll-interval-ms: Idle delay between claims when the queue is empty (default: 1000)
+ * - app.queue.heartbeat-seconds: Interval between lease renewals (default: 20)
+ */
+@Slf4j
+@Component
+public class TaskQueueWorker implements SmartLifecycle {
+
+    private final TaskQueueService taskQueueService;
+    private final AgentOrchestrationService agentOrchestrationService;
+    private final int workers;
+    private final long pollIntervalMs;
+    private final long heartbeatSeconds;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private ExecutorService workerThreads;
+    private ScheduledExecutorService heartbeat;
+
+    public TaskQueueWorker(
+            TaskQueueService taskQueueService,
+            AgentOrchestrationService agentOrchestrationService,
+            @Value("${app.queue.workers:2}") int workers,
+            @Value("${app.queue.poll-interval-ms:1000}") long pollIntervalMs,
+            @Value("${app.queue.heartbeat-seconds:20}") long heartbeatSeconds) {
+        this.taskQueueService = taskQueueService;
+        this.agentOrchestrationService = agentOrchestrationService;
+        this.workers = workers;
+        this.pollIntervalMs = pollIntervalMs;
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (workers <= 0) {
+            log.info("Task queue consumption is disabled on this node");
+            return;
+        }
+
+        workerThreads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-queue-worker-", 0).factory());
+        for (int i = 0; i < workers; i++) {
+            workerThreads.execute(this::pollLoop);
+        }
+
+        heartbeat = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("task-queue-heartbeat").daemon().factory());
+        heartbeat.scheduleAtFixedRate(this::renewLeases, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+
+        log.info("Started {} task queue workers as {}", workers, taskQueueService.getNodeId());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (heartbeat != null) {
+            heartbeat.shutdownNow();
+        }
+        if (workerThreads != null) {
+            // Entries still in progress keep their lease until it expires and are then reclaimed elsewhere
+            workerThreads.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                List<TaskQueueEntity> claimed = taskQueueService.claim(1);
+                if (claimed.isEmpty()) {
+                    Thread.sleep(pollIntervalMs);
+                    continue;
+                }
+                claimed.forEach(this::process);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Task queue worker failed to claim work", e);
+                try {
+                    Thread.sleep(pollIntervalMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void process(TaskQueueEntity entry) {
+        inFlight.add(entry.getId());
+        try {
+            agentOrchestrationService.runTask(entry.getTaskId(), entry.isBypassCache());
+            taskQueueService.complete(entry.getId());
+        } catch (RuntimeException e) {
+            taskQueueService.fail(entry, e);
+        } finally {
+            inFlight.remove(entry.getId());
+        }
+    }
+
+    private void renewLeases() {
+        try {
+            taskQueueService.renewLeases(Set.copyOf(inFlight));
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew task queue leases", e);
+        }
+    }
+}
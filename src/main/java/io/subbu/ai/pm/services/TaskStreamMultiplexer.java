@@ -0,0 +1,241 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.subbu.ai.pm.vos.StreamDelta;
+import io.subbu.ai.pm.vos.TaskStreamCommand;
+import io.subbu.ai.pm.vos.TaskStreamFrame;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Multiplexes the buffered delta streams of many tasks over one connection
+ *
+ * Browsers allow only a few HTTP/1.1 connections per origin, so one EventSource per executing task
+ * serializes parallel executions. A channel carries any number of task streams instead, each with
+ * its own flow control: the client grants credits per task and every delta uses one. A task without
+ * credits does not block the others; its output is coalesced by {@link AdaptiveStreamFlusher} until
+ * the client grants more. Streams attach to the shared generations of {@link TaskStreamRegistry},
+ * so resuming after lastEventId works as with Last-Event-ID.
+ *
+ * Configuration:
+ * - app.streaming.socket-max-streams: Task streams open at once per channel (default: 32)
+ *
+ * Metrics:
+ * - agent.stream.multiplexed: Task streams currently open on multiplexed channels
+ */
+@Slf4j
+@Component
+public class TaskStreamMultiplexer {
+
+    private final AgentOrchestrationService agentOrchestrationService;
+    private final int maxStreams;
+    private final AtomicInteger openStreams = new AtomicInteger();
+
+    public TaskStreamMultiplexer(
+            AgentOrchestrationService agentOrchestrationService,
+            MeterRegistry meterRegistry,
+            @Value("${app.streaming.socket-max-streams:32}") int maxStreams) {
+        if (maxStreams < 1) {
+            throw new IllegalArgumentException("app.streaming.socket-max-streams must be at least 1");
+        }
+        this.agentOrchestrationService = agentOrchestrationService;
+        this.maxStreams = maxStreams;
+        Gauge.builder("agent.stream.multiplexed", openStreams, AtomicInteger::get)
+                .description("Task streams currently open on multiplexed channels")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a channel
+     *
+     * @param sender Delivers frames to the client; called from several threads, one frame at a time per task
+     * @return The channel, which must be closed when the connection ends
+     */
+    public Channel open(Consumer<TaskStreamFrame> sender) {
+        return new Channel(sender);
+    }
+
+    /**
+     * Task streams of one connection
+     */
+    public final class Channel {
+
+        private final Consumer<TaskStreamFrame> sender;
+        private final Map<String, TaskSubscriber> streams = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+
+        private Channel(Consumer<TaskStreamFrame> sender) {
+            this.sender = sender;
+        }
+
+        /**
+         * Handle a client message; invalid messages are answered with an error frame
+         *
+         * @param command The client message
+         */
+        public void handle(TaskStreamCommand command) {
+            if (command.getTaskId() == null || command.getTaskId().isBlank()) {
+                send(TaskStreamFrame.error(null, "taskId is required"));
+                return;
+            }
+            switch (String.valueOf(command.getType())) {
+                case "subscribe" -> subscribe(command.getTaskId(), command.getLastEventId(),
+                        command.isBypassCache(), command.getCredits());
+                case "credit" -> credit(command.getTaskId(), command.getCredits());
+                case "cancel" -> cancel(command.getTaskId());
+                default -> send(TaskStreamFrame.error(command.getTaskId(), "Unknown message type: " + command.getType()));
+            }
+        }
+
+        /**
+         * Start streaming a task, or resume it after the last delta the client received
+         *
+         * @param taskId The ID of the task to execute
+         * @param lastEventId Event ID of the last delta the client received, null to start from the beginning
+         * @param bypassCache Whether to generate a fresh result even if an identical request is cached
+         * @param credits Deltas the client accepts before it grants more
+         */
+        public void subscribe(String taskId, String lastEventId, boolean bypassCache, long credits) {
+            if (credits < 1) {
+                send(TaskStreamFrame.error(taskId, "credits must be at least 1"));
+                return;
+            }
+            if (streams.size() >= maxStreams) {
+                send(TaskStreamFrame.error(taskId, "Too many open streams on this channel, max " + maxStreams));
+                return;
+            }
+            TaskSubscriber subscriber = new TaskSubscriber(taskId, credits);
+            if (streams.putIfAbsent(taskId, subscriber) != null) {
+                send(TaskStreamFrame.error(taskId, "Task is already streaming on this channel: " + taskId));
+                return;
+            }
+
+            Flux<StreamDelta> deltas;
+            try {
+                deltas = agentOrchestrationService.executeTaskStreamDelta(taskId, bypassCache, lastEventId);
+            } catch (RuntimeException e) {
+                streams.remove(taskId, subscriber);
+                send(TaskStreamFrame.error(taskId, e.getMessage()));
+                return;
+            }
+            deltas.subscribe(subscriber);
+            if (closed) {
+                // The connection ended while subscribing
+                subscriber.dispose();
+            }
+        }
+
+        /**
+         * Allow more deltas for a task
+         *
+         * @param taskId The ID of the streaming task
+         * @param credits Additional deltas the client accepts
+         */
+        public void credit(String taskId, long credits) {
+            TaskSubscriber subscriber = streams.get(taskId);
+            if (subscriber != null && credits > 0) {
+                subscriber.request(credits);
+            }
+        }
+
+        /**
+         * Stop streaming a task to this client
+         * The generation keeps running while other clients stream it, see {@link TaskStreamRegistry}.
+         *
+         * @param taskId The ID of the streaming task
+         */
+        public void cancel(String taskId) {
+            TaskSubscriber subscriber = streams.remove(taskId);
+            if (subscriber != null) {
+                subscriber.dispose();
+            }
+        }
+
+        /**
+         * Stop all task streams of the channel, e.g. when the connection ends
+         */
+        public void close() {
+            closed = true;
+            streams.values().forEach(TaskSubscriber::dispose);
+            streams.clear();
+        }
+
+        /**
+         * Number of task streams currently open on the channel
+         */
+        int openStreams() {
+            return streams.size();
+        }
+
+        private void send(TaskStreamFrame frame) {
+            if (closed) {
+                return;
+            }
+            try {
+                sender.accept(frame);
+            } catch (RuntimeException e) {
+                log.debug("Closing task stream channel after failed send", e);
+                close();
+            }
+        }
+
+        /**
+         * Forwards the deltas of one task as frames, requesting only as many as the client granted credits
+         */
+        private final class TaskSubscriber extends BaseSubscriber<StreamDelta> {
+
+            private final String taskId;
+            private final long initialCredits;
+            private volatile boolean counted;
+
+            private TaskSubscriber(String taskId, long initialCredits) {
+                this.taskId = taskId;
+                this.initialCredits = initialCredits;
+            }
+
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                counted = true;
+                openStreams.incrementAndGet();
+                request(initialCredits);
+            }
+
+            @Override
+            protected void hookOnNext(StreamDelta delta) {
+                send(TaskStreamFrame.delta(taskId, delta));
+            }
+
+            @Override
+            protected void hookOnComplete() {
+                if (streams.remove(taskId, this)) {
+                    send(TaskStreamFrame.complete(taskId));
+                }
+            }
+
+            @Override
+            protected void hookOnError(Throwable throwable) {
+                if (streams.remove(taskId, this)) {
+                    send(TaskStreamFrame.error(taskId, throwable.getMessage()));
+                }
+            }
+
+            @Override
+            protected void hookFinally(SignalType type) {
+                if (counted) {
+                    openStreams.decrementAndGet();
+                }
+            }
+        }
+    }
+}
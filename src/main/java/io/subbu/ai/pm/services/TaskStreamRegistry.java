@@ -0,0 +1,254 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.vos.StreamDelta;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Registry of task generations streaming on this node
+ *
+ * The first subscriber of a task starts its generation; every later subscriber attaches to the
+ * same upstream. Each chunk is numbered and kept in a bounded per-task ring buffer, so a subscriber
+ * can start from the beginning or resume after the last chunk it received (SSE Last-Event-ID).
+ * Event IDs name the generation of the chunk, because numbering restarts when a task gets a new
+ * generation after a cancel, a failure or the loss of a node. A subscriber resuming with an ID of another
+ * generation gets the new generation from its first chunk, which holds the checkpointed output.
+ * When the last subscriber goes away, e.g. the browser tab was closed, the generation is cancelled
+ * after a grace period unless a subscriber attaches or resumes in the meantime. Cancelling stops the
+ * request to the model server, so no tokens are generated for nobody.
+ * The buffer stays available for a grace period after the generation completes so that clients which
+ * lost their connection near the end can still resume; a failed or cancelled generation is released
+ * immediately so that it can be retried.
+ *
+ * Configuration:
+ * - app.streaming.replay-buffer-size: Chunks kept per task for replay (default: 10000)
+ * - app.streaming.resume-grace-seconds: How long a finished generation can still be resumed (default: 60)
+ * - app.streaming.cancel-grace-seconds: How long a generation keeps running without subscribers (default: 15)
+ */
+@Slf4j
+@Component
+public class TaskStreamRegistry {
+
+    private final Map<String, TaskStream> streams = new ConcurrentHashMap<>();
+    private final int replayBufferSize;
+    private final Duration resumeGrace;
+    private final Duration cancelGrace;
+    private final Scheduler evictionScheduler;
+
+    public TaskStreamRegistry(
+            @Value("${app.streaming.replay-buffer-size:10000}") int replayBufferSize,
+            @Value("${app.streaming.resume-grace-seconds:60}") long resumeGraceSeconds,
+            @Value("${app.streaming.cancel-grace-seconds:15}") long cancelGraceSeconds) {
+        this(replayBufferSize, Duration.ofSeconds(resumeGraceSeconds), Duration.ofSeconds(cancelGraceSeconds),
+                Schedulers.parallel());
+    }
+
+    TaskStreamRegistry(int replayBufferSize, Duration resumeGrace, Duration cancelGrace, Scheduler evictionScheduler) {
+        if (replayBufferSize < 1) {
+            throw new IllegalArgumentException("app.streaming.replay-buffer-size must be at least 1");
+        }
+        this.replayBufferSize = replayBufferSize;
+        this.resumeGrace = resumeGrace;
+        this.cancelGrace = cancelGrace;
+        this.evictionScheduler = evictionScheduler;
+    }
+
+    /**
+     * Find the generation of a task that is streaming or was finished within the grace period
+     *
+     * @param taskId The ID of the task
+     * @param lastEventId Event ID of the last chunk the subscriber already has, null to start from the beginning
+     * @return The chunks after lastEventId, followed by the live chunks of the generation
+     */
+    public Optional<Flux<StreamDelta>> find(String taskId, String lastEventId) {
+        return Optional.ofNullable(streams.get(taskId)).map(stream -> stream.subscribe(lastEventId));
+    }
+
+    /**
+     * Attach to the generation of a task, starting it if none is registered
+     *
+     * @param taskId The ID of the task
+     * @param lastEventId Event ID of the last chunk the subscriber already has, null to start from the beginning
+     * @param generation Creates the upstream generation; called at most once per registered task
+     * @return The chunks after lastEventId, followed by the live chunks of the generation
+     */
+    public Flux<StreamDelta> attach(String taskId, String lastEventId, Supplier<Flux<String>> generation) {
+        return Flux.defer(() -> {
+            TaskStream created = new TaskStream(taskId);
+            TaskStream stream = streams.computeIfAbsent(taskId, id -> created);
+            Flux<StreamDelta> chunks = stream.subscribe(lastEventId);
+            if (stream == created) {
+                created.start(generation);
+            }
+            return chunks;
+        });
+    }
+
+    /**
+     * Get the number of registered generations, including those in their grace period
+     *
+     * @return The number of registered generations
+     */
+    public int size() {
+        return streams.size();
+    }
+
+    /**
+     * A single generation with its replay buffer and live subscribers
+     */
+    private final class TaskStream {
+
+        private final String taskId;
+        private final String id = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        private final Deque<StreamDelta> buffer = new ArrayDeque<>();
+        private final List<FluxSink<StreamDelta>> subscribers = new ArrayList<>();
+        private long seq;
+        private long offset;
+        private boolean done;
+        private Throwable error;
+        private Disposable generation;
+        private Disposable pendingCancel;
+
+        private TaskStream(String taskId) {
+            this.taskId = taskId;
+        }
+
+        private void start(Supplier<Flux<String>> generation) {
+            Disposable subscription = Flux.defer(generation).subscribe(this::emit, this::fail, this::complete);
+            synchronized (this) {
+                this.generation = subscription;
+            }
+        }
+
+        private Flux<StreamDelta> subscribe(String lastEventId) {
+            long afterSeq = resumeAfter(lastEventId);
+            return Flux.create(sink -> {
+                synchronized (this) {
+                    long oldest = buffer.isEmpty() ? seq + 1 : buffer.peekFirst().getSeq();
+                    if (afterSeq + 1 < oldest) {
+                        sink.error(new IllegalStateException("Cannot resume task " + taskId + " after chunk " + afterSeq
+                                + ", the oldest buffered chunk is " + oldest));
+                        return;
+                    }
+                    for (StreamDelta chunk : buffer) {
+                        if (chunk.getSeq() > afterSeq) {
+                            sink.next(chunk);
+                        }
+                    }
+                    if (done) {
+                        terminate(sink);
+                        return;
+                    }
+                    subscribers.add(sink);
+                    if (pendingCancel != null) {
+                        pendingCancel.dispose();
+                        pendingCancel = null;
+                    }
+                }
+                sink.onDispose(() -> {
+                    synchronized (this) {
+                        if (subscribers.remove(sink) && subscribers.isEmpty() && !done) {
+                            pendingCancel = evictionScheduler.schedule(this::cancel,
+                                    cancelGrace.toMillis(), TimeUnit.MILLISECONDS);
+                        }
+                    }
+                });
+            });
+        }
+
+        /**
+         * Sequence number of this generation after which a subscriber continues
+         *
+         * @param lastEventId Event ID of the last chunk the subscriber has, possibly of an earlier generation
+         * @return The sequence number, or 0 to replay this generation from its first chunk
+         */
+        private long resumeAfter(String lastEventId) {
+            if (lastEventId == null || lastEventId.isBlank()) {
+                return 0;
+            }
+            int separator = lastEventId.lastIndexOf(':');
+            if (separator < 0 || !lastEventId.substring(0, separator).equals(id)) {
+                log.debug("Replaying generation {} of task {} to a subscriber of an earlier one ({})", id, taskId, lastEventId);
+                return 0;
+            }
+            try {
+                return Long.parseLong(lastEventId.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid event ID: " + lastEventId, e);
+            }
+        }
+
+        private synchronized void emit(String text) {
+            StreamDelta chunk = new StreamDelta(id, ++seq, offset, text);
+            offset += text.getBytes(StandardCharsets.UTF_8).length;
+            buffer.addLast(chunk);
+            if (buffer.size() > replayBufferSize) {
+                buffer.removeFirst();
+            }
+            for (FluxSink<StreamDelta> subscriber : subscribers) {
+                subscriber.next(chunk);
+            }
+        }
+
+        private synchronized void fail(Throwable e) {
+            error = e;
+            finish();
+            // The task is still executable, so a retry must be able to start a new generation right away
+            streams.remove(taskId, this);
+        }
+
+        private synchronized void cancel() {
+            if (done || !subscribers.isEmpty()) {
+                return;
+            }
+            log.debug("Cancelling generation of task {}, no subscriber attached within {}", taskId, cancelGrace);
+            done = true;
+            streams.remove(taskId, this);
+            if (generation != null) {
+                generation.dispose();
+            }
+        }
+
+        private synchronized void complete() {
+            finish();
+            evictionScheduler.schedule(() -> {
+                streams.remove(taskId, this);
+                log.debug("Released replay buffer of task {}", taskId);
+            }, resumeGrace.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        private void finish() {
+            done = true;
+            List<FluxSink<StreamDelta>> remaining = new ArrayList<>(subscribers);
+            subscribers.clear();
+            remaining.forEach(this::terminate);
+        }
+
+        private void terminate(FluxSink<StreamDelta> sink) {
+            if (error != null) {
+                sink.error(error);
+            } else {
+                sink.complete();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.subbu.ai.pm.vos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Value Object for an asynchronous project job
+ * Type is CREATE_PROJECT or EXECUTE_ALL; status is one of QUEUED, RUNNING, COMPLETED or FAILED
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectJob {
+    private String jobId;
+    private String type;
+    private String projectRequest;
+    private String status;
+    private String stage;
+    private String projectId;
+    private Map<String, Object> result;
+    private String error;
+    private String createdAt;
+    private String updatedAt;
+}
@@ -0,0 +1,22 @@
+package io.subbu.ai.pm.vos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Value Object for a project in the project list, with its task counts
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectSummary {
+    private String projectId;
+    private String title;
+    private long taskCount;
+    private long completedCount;
+    private long assignedCount;
+    private Integer tokensUsed;
+    private String createdAt;
+    private String updatedAt;
+}
@@ -0,0 +1,43 @@
+package io.subbu.ai.pm.vos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A piece of streamed task output in the delta protocol
+ * seq is the number of the last generated chunk contained in text. Clients append text in seq order;
+ * offset is the UTF-8 byte position of text in the full result, which lets a client detect gaps or duplicates.
+ * Sequence numbers restart with every generation of a task, e.g. one that continues a cancelled task, so
+ * generation identifies the generation they count. A delta of another generation than the previous one
+ * starts the output over, since a new generation replays the result from its beginning.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamDelta {
+    private String generation;
+    private long seq;
+    private long offset;
+    private String text;
+
+    /**
+     * Get the SSE event ID a client resumes from after this delta
+     *
+     * @return The generation and sequence number
+     */
+    public String eventId() {
+        return eventId(generation, seq);
+    }
+
+    /**
+     * Get the SSE event ID of a chunk of a generation
+     *
+     * @param generation The ID of the generation
+     * @param seq The sequence number of the chunk
+     * @return The generation and sequence number
+     */
+    public static String eventId(String generation, long seq) {
+        return generation + ":" + seq;
+    }
+}
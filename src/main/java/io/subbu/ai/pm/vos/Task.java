@@ -1,5 +1,8 @@
 package io.subbu.ai.pm.vos;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents a task that can be delegated to different agents
  */
@@ -9,8 +12,13 @@ public class Task {
     private final String type;
     private String status;
     private String result;
+    private Long resultOffset;
     private String assignedAgent;
+    private String delegationSource;
     private Integer tokensUsed;
+    private Integer promptTokens;
+    private Integer completionTokens;
+    private List<String> dependsOn;
 
     public Task(String id, String description, String type) {
         this.id = id;
@@ -18,8 +26,13 @@ public class Task {
         this.type = type;
         this.status = "PENDING";
         this.result = null;
+        this.resultOffset = null;
         this.assignedAgent = null;
+        this.delegationSource = null;
         this.tokensUsed = null;
+        this.promptTokens = null;
+        this.completionTokens = null;
+        this.dependsOn = new ArrayList<>();
     }
 
     public String getId() {
@@ -50,6 +63,14 @@ public class Task {
         this.result = result;
     }
 
+    public Long getResultOffset() {
+        return resultOffset;
+    }
+
+    public void setResultOffset(Long resultOffset) {
+        this.resultOffset = resultOffset;
+    }
+
     public String getAssignedAgent() {
         return assignedAgent;
     }
@@ -58,6 +79,14 @@ public class Task {
         this.assignedAgent = assignedAgent;
     }
 
+    public String getDelegationSource() {
+        return delegationSource;
+    }
+
+    public void setDelegationSource(String delegationSource) {
+        this.delegationSource = delegationSource;
+    }
+
     public Integer getTokensUsed() {
         return tokensUsed;
     }
@@ -66,6 +95,30 @@ public class Task {
         this.tokensUsed = tokensUsed;
     }
 
+    public Integer getPromptTokens() {
+        return promptTokens;
+    }
+
+    public void setPromptTokens(Integer promptTokens) {
+        this.promptTokens = promptTokens;
+    }
+
+    public Integer getCompletionTokens() {
+        return completionTokens;
+    }
+
+    public void setCompletionTokens(Integer completionTokens) {
+        this.completionTokens = completionTokens;
+    }
+
+    public List<String> getDependsOn() {
+        return dependsOn;
+    }
+
+    public void setDependsOn(List<String> dependsOn) {
+        this.dependsOn = dependsOn != null ? new ArrayList<>(dependsOn) : new ArrayList<>();
+    }
+
     @Override
     public String toString() {
         return "Task{" +
@@ -74,6 +127,7 @@ public class Task {
                 ", type='" + type + '\'' +
                 ", status='" + status + '\'' +
                 ", assignedAgent='" + assignedAgent + '\'' +
+                ", dependsOn=" + dependsOn +
                 '}';
     }
 }
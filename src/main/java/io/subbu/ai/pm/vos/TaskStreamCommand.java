@@ -0,0 +1,21 @@
+package io.subbu.ai.pm.vos;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Client message on the multiplexed task stream socket
+ * Type is one of subscribe, credit or cancel. A subscribe starts streaming a task after lastEventId with
+ * an initial number of credits; a credit message allows that many more deltas for the task.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskStreamCommand {
+    private String type;
+    private String taskId;
+    private String lastEventId;
+    private boolean bypassCache;
+    private long credits;
+}
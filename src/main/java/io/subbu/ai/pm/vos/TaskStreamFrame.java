@@ -0,0 +1,38 @@
+package io.subbu.ai.pm.vos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Server message on the multiplexed task stream socket
+ * Type is one of delta, complete or error. A delta carries the same generation, seq, offset and text as a
+ * {@link StreamDelta} of the SSE delta protocol, so a client resumes a task by subscribing after its
+ * {@link StreamDelta#eventId()}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskStreamFrame {
+    private String type;
+    private String taskId;
+    private String generation;
+    private Long seq;
+    private Long offset;
+    private String text;
+    private String error;
+
+    public static TaskStreamFrame delta(String taskId, StreamDelta delta) {
+        return new TaskStreamFrame("delta", taskId, delta.getGeneration(), delta.getSeq(), delta.getOffset(), delta.getText(), null);
+    }
+
+    public static TaskStreamFrame complete(String taskId) {
+        return new TaskStreamFrame("complete", taskId, null, null, null, null, null);
+    }
+
+    public static TaskStreamFrame error(String taskId, String error) {
+        return new TaskStreamFrame("error", taskId, null, null, null, null, error);
+    }
+}
@@ -0,0 +1,72 @@
+-- Schema of the entities before migrations were introduced.
+-- Databases created earlier by Hibernate's ddl-auto are baselined at version 0
+-- (spring.flyway.baseline-on-migrate), so this migration also runs on them: the tables they already
+-- have are kept and the columns and tables added since are created below.
+
+CREATE TABLE IF NOT EXISTS projects (
+    id          VARCHAR(36)  NOT NULL,
+    title       VARCHAR(500) NOT NULL,
+    tokens_used INTEGER,
+    created_at  TIMESTAMP(6) NOT NULL,
+    updated_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT projects_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS tasks (
+    id                VARCHAR(36)  NOT NULL,
+    project_id        VARCHAR(36)  NOT NULL,
+    description       TEXT         NOT NULL,
+    type              VARCHAR(100),
+    status            VARCHAR(50)  NOT NULL,
+    result            TEXT,
+    result_offset     BIGINT,
+    assigned_agent    VARCHAR(100),
+    tokens_used       INTEGER,
+    prompt_tokens     INTEGER,
+    completion_tokens INTEGER,
+    depends_on        TEXT,
+    created_at        TIMESTAMP(6) NOT NULL,
+    updated_at        TIMESTAMP(6) NOT NULL,
+    CONSTRAINT tasks_pkey PRIMARY KEY (id),
+    CONSTRAINT fk_tasks_project FOREIGN KEY (project_id) REFERENCES projects (id)
+);
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS result_offset BIGINT;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS prompt_tokens INTEGER;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS completion_tokens INTEGER;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS depends_on TEXT;
+
+CREATE TABLE IF NOT EXISTS notes (
+    id         VARCHAR(36)  NOT NULL,
+    title      VARCHAR(255) NOT NULL,
+    content    TEXT         NOT NULL,
+    project_id VARCHAR(36),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    CONSTRAINT notes_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS task_queue (
+    id               VARCHAR(36)  NOT NULL,
+    task_id          VARCHAR(36)  NOT NULL,
+    status           VARCHAR(50)  NOT NULL,
+    attempts         INTEGER      NOT NULL,
+    lease_owner      VARCHAR(255),
+    lease_expires_at TIMESTAMP(6),
+    available_at     TIMESTAMP(6) NOT NULL,
+    bypass_cache     BOOLEAN      NOT NULL DEFAULT FALSE,
+    last_error       TEXT,
+    created_at       TIMESTAMP(6) NOT NULL,
+    updated_at       TIMESTAMP(6) NOT NULL,
+    CONSTRAINT task_queue_pkey PRIMARY KEY (id)
+);
+
+ALTER TABLE task_queue ADD COLUMN IF NOT EXISTS bypass_cache BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE TABLE IF NOT EXISTS delegation_cache (
+    description_key TEXT         NOT NULL,
+    assigned_agent  VARCHAR(100) NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    updated_at      TIMESTAMP(6) NOT NULL,
+    CONSTRAINT delegation_cache_pkey PRIMARY KEY (description_key)
+);
@@ -0,0 +1,37 @@
+-- Indexes for the queries of the repositories, checked by QueryPlanTests.
+-- Earlier builds created some of these through @Index with ddl-auto; they are recreated here
+-- so every database ends up with the same definitions.
+
+DROP INDEX IF EXISTS idx_projects_created_at_id;
+DROP INDEX IF EXISTS idx_tasks_project_status;
+DROP INDEX IF EXISTS idx_tasks_project_created_at_id;
+DROP INDEX IF EXISTS idx_notes_created_at_id;
+
+-- Newest-first project listing and its keyset pages, scanned backwards
+CREATE INDEX idx_projects_created_at_id ON projects (created_at, id);
+
+-- Tasks of a project in creation order, their keyset pages and their count
+CREATE INDEX idx_tasks_project_created_at_id ON tasks (project_id, created_at, id);
+
+-- Tasks of a project by status; covers the per-status counts of the project summaries
+CREATE INDEX idx_tasks_project_status ON tasks (project_id, status) INCLUDE (id);
+
+-- Tasks by status across projects, e.g. the few IN_PROGRESS among many COMPLETED
+CREATE INDEX idx_tasks_status ON tasks (status);
+
+-- Tasks by specialist
+CREATE INDEX idx_tasks_assigned_agent ON tasks (assigned_agent);
+
+-- Newest-first note listing and its keyset pages, scanned backwards
+CREATE INDEX idx_notes_created_at_id ON notes (created_at, id);
+
+-- Notes of a project
+CREATE INDEX idx_notes_project_id ON notes (project_id);
+
+-- Active queue entry of a task
+CREATE INDEX idx_task_queue_task_status ON task_queue (task_id, status);
+
+-- Claimable entries: queued ones by availability and running ones by lease expiry.
+-- Partial, so the DONE and FAILED entries that make up most of the queue are not indexed.
+CREATE INDEX idx_task_queue_queued ON task_queue (available_at) WHERE status = 'QUEUED';
+CREATE INDEX idx_task_queue_running ON task_queue (lease_expires_at) WHERE status = 'RUNNING';
@@ -0,0 +1,9 @@
+-- Task results move to BYTEA in the format of CompressedTextConverter: a format byte, then the data.
+-- Existing results become format 0 (plain UTF-8); they are compressed when a task is saved again.
+ALTER TABLE tasks
+    ALTER COLUMN result TYPE BYTEA
+    USING CASE WHEN result IS NOT NULL THEN decode('00', 'hex') || convert_to(result, 'UTF8') END;
+
+-- Completed results are already compressed by the application, so TOAST should move large values
+-- out of line without trying to compress them again
+ALTER TABLE tasks ALTER COLUMN result SET STORAGE EXTERNAL;
@@ -0,0 +1,16 @@
+-- At most one active (QUEUED or RUNNING) queue entry per task, so concurrent execute requests for a
+-- task share one entry instead of generating it twice (TaskQueueRepository.insertQueued).
+
+-- Entries that concurrent requests added before the constraint: keep the running or else the oldest one
+UPDATE task_queue q
+SET status = 'FAILED', lease_owner = NULL, lease_expires_at = NULL,
+    last_error = 'Duplicate of another active queue entry of the task', updated_at = LOCALTIMESTAMP
+WHERE q.status IN ('QUEUED', 'RUNNING')
+  AND EXISTS (SELECT 1 FROM task_queue o
+              WHERE o.task_id = q.task_id AND o.status IN ('QUEUED', 'RUNNING') AND o.id <> q.id
+                AND (o.status = 'RUNNING' AND q.status = 'QUEUED'
+                     OR o.status = q.status AND (o.created_at, o.id) < (q.created_at, q.id)));
+
+-- Replaces the index on (task_id, status) for looking up the active entry of a task
+DROP INDEX IF EXISTS idx_task_queue_task_status;
+CREATE UNIQUE INDEX idx_task_queue_active_task ON task_queue (task_id) WHERE status IN ('QUEUED', 'RUNNING');
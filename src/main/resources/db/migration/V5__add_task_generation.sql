@@ -0,0 +1,3 @@
+-- Generation that owns the checkpoints of a streaming task (TaskRepository.claimGeneration), so writes
+-- of a cancelled or superseded generation cannot change the task
+ALTER TABLE tasks ADD COLUMN generation_id VARCHAR(36);
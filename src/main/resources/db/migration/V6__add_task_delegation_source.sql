@@ -0,0 +1,7 @@
+-- What decided the specialist of a task: llm, classifier or cache (ParallelTaskDelegator).
+-- The delegation classifier trains only on llm decisions; tasks delegated before this column
+-- existed have no source and are left out, since some of them were labelled by the classifier itself.
+ALTER TABLE tasks ADD COLUMN delegation_source VARCHAR(20);
+
+-- Training history of the delegation classifier: the newest LLM decisions
+CREATE INDEX idx_tasks_llm_delegations ON tasks (created_at) WHERE delegation_source = 'llm';
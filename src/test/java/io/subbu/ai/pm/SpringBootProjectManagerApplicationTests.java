@@ -3,7 +3,8 @@ package io.subbu.ai.pm;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// Queue workers of a cached context would otherwise claim the entries of TaskQueueServiceTests
+@SpringBootTest(properties = "app.queue.workers=0")
 class SpringBootProjectManagerApplicationTests {
 
     @Test
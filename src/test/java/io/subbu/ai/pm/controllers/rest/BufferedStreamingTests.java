@@ -0,0 +1,138 @@
+package io.subbu.ai.pm.controllers.rest;
+
+import io.subbu.ai.pm.repos.ProjectRepository;
+import io.subbu.ai.pm.services.AgentOrchestrationService;
+import io.subbu.ai.pm.vos.Project;
+import io.subbu.ai.pm.vos.StreamDelta;
+import io.subbu.ai.pm.vos.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Events of execute-stream-buffered in delta and snapshot mode, with a stubbed chat model streaming multibyte text
+ * Every chunk ends a line and the minimum delta size is one byte, so each chunk is sent as a delta of its own.
+ * Runs against the PostgreSQL database configured in application.yaml, like the application test, without queue workers.
+ */
+@SpringBootTest(properties = {"app.queue.workers=0", "app.streaming.flush-min-bytes=1"})
+@Import(BufferedStreamingTests.StubChatModelConfiguration.class)
+class BufferedStreamingTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String BREAKDOWN = "1. Design the REST API\n2. Implement the checkout (depends on: 1)";
+    private static final List<String> CHUNKS = List.of(
+            "Grüße aus München.\n", "Déjà vu – naïve café.\n", "Launch 🚀 ready.\n", "日本語のテキスト\n");
+
+    @Autowired
+    private AgentRestController agentRestController;
+
+    @Autowired
+    private AgentOrchestrationService agentOrchestrationService;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    private String projectId;
+    private List<Task> tasks;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void createProject() {
+        Map<String, Object> created = agentOrchestrationService.processProjectRequest("Build an online shop");
+        projectId = ((Project) created.get("project")).getId();
+        tasks = (List<Task>) created.get("tasks");
+    }
+
+    @AfterEach
+    void deleteProject() {
+        projectRepository.deleteById(projectId);
+    }
+
+    @Test
+    void deltasAreNumberedAndPositionedByUtf8Bytes() {
+        List<ServerSentEvent<Object>> events = agentRestController
+                .executeTaskStreamBuffered(tasks.getFirst().getId(), true, "delta", null)
+                .collectList()
+                .block(TIMEOUT);
+
+        List<ServerSentEvent<Object>> deltas = events.subList(0, events.size() - 1);
+        assertThat(events.getLast().event()).isEqualTo("complete");
+        assertThat(deltas).hasSize(CHUNKS.size());
+
+        long offset = 0;
+        for (int i = 0; i < deltas.size(); i++) {
+            StreamDelta delta = (StreamDelta) deltas.get(i).data();
+            assertThat(delta.getSeq()).isEqualTo(i + 1);
+            assertThat(delta.getOffset()).isEqualTo(offset);
+            assertThat(delta.getText()).isEqualTo(CHUNKS.get(i));
+            assertThat(deltas.get(i).id()).isEqualTo(delta.getGeneration() + ":" + delta.getSeq());
+            offset += delta.getText().getBytes(StandardCharsets.UTF_8).length;
+        }
+        assertThat(offset).isEqualTo(String.join("", CHUNKS).getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void snapshotsCarryTheAccumulatedText() {
+        List<ServerSentEvent<Object>> events = agentRestController
+                .executeTaskStreamBuffered(tasks.getLast().getId(), true, "snapshot", null)
+                .collectList()
+                .block(TIMEOUT);
+
+        List<Object> snapshots = events.subList(0, events.size() - 1).stream()
+                .map(ServerSentEvent::data)
+                .toList();
+        assertThat(snapshots).containsExactly(
+                CHUNKS.get(0),
+                String.join("", CHUNKS.subList(0, 2)),
+                String.join("", CHUNKS.subList(0, 3)),
+                String.join("", CHUNKS));
+    }
+
+    /**
+     * Answers the breakdown and delegation prompts, and streams the same multibyte result for every task
+     */
+    @TestConfiguration
+    static class StubChatModelConfiguration {
+
+        @Bean
+        @Primary
+        ChatModel stubChatModel() {
+            return new ChatModel() {
+                @Override
+                public ChatResponse call(Prompt prompt) {
+                    String request = prompt.getUserMessage().getText();
+                    return response(request.contains("break it down") ? BREAKDOWN : "Software Engineer");
+                }
+
+                @Override
+                public Flux<ChatResponse> stream(Prompt prompt) {
+                    return Flux.fromIterable(CHUNKS).map(StubChatModelConfiguration::response);
+                }
+            };
+        }
+
+        private static ChatResponse response(String text) {
+            return new ChatResponse(List.of(new Generation(AssistantMessage.builder().content(text).build())));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package io.subbu.ai.pm.models;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+class CompressedTextConverterTests {
+
+    private static final int RESULTS = 200;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private final CompressedTextConverter converter = new CompressedTextConverter();
+
+    @Test
+    void compressesLongTextAndReadsItBack() {
+        String text = results(1).getFirst();
+
+        byte[] column = converter.convertToDatabaseColumn(text);
+
+        assertThat(column[0]).isEqualTo(CompressedTextConverter.DEFLATE);
+        assertThat(column.length).isLessThan(text.length() / 2);
+        assertThat(converter.convertToEntityAttribute(column)).isEqualTo(text);
+    }
+
+    @Test
+    void storesShortTextPlain() {
+        for (String text : List.of("", "# Done ✓", "x".repeat(CompressedTextConverter.MIN_COMPRESSED_BYTES - 1))) {
+            byte[] column = converter.convertToDatabaseColumn(text);
+
+            assertThat(column[0]).isEqualTo(CompressedTextConverter.PLAIN);
+            assertThat(column).hasSize(text.getBytes(StandardCharsets.UTF_8).length + 1);
+            assertThat(converter.convertToEntityAttribute(column)).isEqualTo(text);
+        }
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    void readsResultsMigratedFromTextAndAppendedCheckpoints() {
+        // V3 migration and TaskRepository.appendCheckpoint: a zero byte, then UTF-8 text appended in place
+        byte[] migrated = concat(new byte[]{0}, "## Step 1\n".getBytes(StandardCharsets.UTF_8));
+        byte[] appended = concat(migrated, "Configure the café ✓\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(converter.convertToEntityAttribute(migrated)).isEqualTo("## Step 1\n");
+        assertThat(converter.convertToEntityAttribute(appended)).isEqualTo("## Step 1\nConfigure the café ✓\n");
+    }
+
+    @Test
+    void rejectsUnknownFormatsAndTruncatedValues() {
+        byte[] column = converter.convertToDatabaseColumn(results(1).getFirst());
+
+        assertThatThrownBy(() -> converter.convertToEntityAttribute(new byte[]{2, 'x'}))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> converter.convertToEntityAttribute(new byte[0]))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> converter.convertToEntityAttribute(Arrays.copyOf(column, column.length / 2)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void storesSpecialistAnswersInLessThanHalfTheBytes() {
+        List<String> results = results(RESULTS);
+        long textBytes = results.stream().mapToLong(text -> text.getBytes(StandardCharsets.UTF_8).length).sum();
+
+        long storedBytes = 0;
+        for (String text : results) {
+            byte[] column = converter.convertToDatabaseColumn(text);
+            storedBytes += column.length;
+            assertThat(converter.convertToEntityAttribute(column)).isEqualTo(text);
+        }
+
+        assertThat(storedBytes).isLessThan(textBytes / 2);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void compressionCpuCostBenchmark() {
+        List<String> results = results(RESULTS);
+        long textBytes = results.stream().mapToLong(text -> text.getBytes(StandardCharsets.UTF_8).length).sum();
+
+        long bestWrite = Long.MAX_VALUE;
+        long bestRead = Long.MAX_VALUE;
+        long storedBytes = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            List<byte[]> columns = new ArrayList<>(results.size());
+            long start = System.nanoTime();
+            for (String text : results) {
+                columns.add(converter.convertToDatabaseColumn(text));
+            }
+            long write = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < columns.size(); i++) {
+                assertThat(converter.convertToEntityAttribute(columns.get(i)).length()).isEqualTo(results.get(i).length());
+            }
+            long read = System.nanoTime() - start;
+
+            storedBytes = columns.stream().mapToLong(column -> column.length).sum();
+            if (round >= WARMUP_ROUNDS) {
+                bestWrite = Math.min(bestWrite, write);
+                bestRead = Math.min(bestRead, read);
+            }
+        }
+
+        log.info("{} results, {} bytes of text stored in {} bytes ({}% saved)",
+                results.size(), textBytes, storedBytes, 100 * (textBytes - storedBytes) / textBytes);
+        log.info("write {} us per result, {} MB/s of text",
+                bestWrite / 1_000 / results.size(), textBytes * 1_000 / bestWrite);
+        log.info("read {} us per result, {} MB/s of text",
+                bestRead / 1_000 / results.size(), textBytes * 1_000 / bestRead);
+    }
+
+    /**
+     * Specialist answers of 10 to 40 KB: headings, prose, lists and Java, YAML and shell code blocks
+     */
+    private static List<String> results(int count) {
+        Random random = new Random(42);
+        String[] words = {"the", "service", "task", "stream", "request", "database", "configure", "deploy",
+                "pipeline", "container", "endpoint", "returns", "cache", "should", "with", "and", "for", "each",
+                "retry", "timeout", "schema", "migration", "index", "query", "cluster", "replica", "secret",
+                "token", "handler", "controller", "repository", "entity", "validate", "monitor", "metrics"};
+        String[] types = {"Order", "Customer", "Invoice", "Payment", "Shipment", "Account", "Product", "Report"};
+        List<String> results = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            int size = 10_000 + random.nextInt(30_001);
+            StringBuilder text = new StringBuilder(size + 1_000);
+            int step = 1;
+            while (text.length() < size) {
+                String type = types[random.nextInt(types.length)];
+                text.append("## Step ").append(step++).append(": ").append(words[random.nextInt(words.length)])
+                        .append(' ').append(type).append("\n\n");
+                for (int sentence = 0; sentence < 2 + random.nextInt(4); sentence++) {
+                    for (int word = 0; word < 8 + random.nextInt(12); word++) {
+                        text.append(words[random.nextInt(words.length)]).append(' ');
+                    }
+                    text.append(type.toLowerCase()).append(random.nextInt(1000)).append(".\n");
+                }
+                switch (random.nextInt(3)) {
+                    case 0 -> text.append("\n```java\n@Service\npublic class ").append(type).append("Service {\n\n")
+                            .append("    private final ").append(type).append("Repository repository;\n\n")
+                            .append("    public ").append(type).append(" find").append(type).append("(String id) {\n")
+                            .append("        return repository.findById(id)\n")
+                            .append("                .orElseThrow(() -> new IllegalArgumentException(\"")
+                            .append(type).append(" not found: \" + id));\n    }\n}\n```\n\n");
+                    case 1 -> text.append("\n```yaml\napp:\n  ").append(type.toLowerCase()).append(":\n")
+                            .append("    timeout-ms: ").append(500 + random.nextInt(10_000)).append('\n')
+                            .append("    retries: ").append(1 + random.nextInt(5)).append('\n')
+                            .append("    url: https://").append(type.toLowerCase()).append(".example.com/api/v")
+                            .append(1 + random.nextInt(3)).append("\n```\n\n");
+                    default -> text.append("\n- Run `kubectl rollout status deployment/")
+                            .append(type.toLowerCase()).append("-service`\n- Check the `")
+                            .append(words[random.nextInt(words.length)]).append("` dashboard\n\n");
+                }
+            }
+            results.add(text.toString());
+        }
+        return results;
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] both = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+        return both;
+    }
+}
@@ -0,0 +1,225 @@
+package io.subbu.ai.pm.repos;
+
+import io.subbu.ai.pm.mappers.TaskMapper;
+import io.subbu.ai.pm.models.ProjectEntity;
+import io.subbu.ai.pm.models.TaskEntity;
+import io.subbu.ai.pm.vos.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statements sent to store a project created from a request, before and after batching the writes
+ * Their timing is logged by the benchmark, which only runs with mvn test -Pbenchmark.
+ * Runs against the PostgreSQL database configured in application.yaml, like the application test.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Slf4j
+class ProjectCreationWritesTests {
+
+    private static final int TASKS = 20;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private final TaskMapper taskMapper = TaskMapper.INSTANCE;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void batchedWritesUseAFewStatementsPerProject() {
+        Result before = write(() -> saveOneByOne(tasks()));
+        Result after = write(() -> saveBatched(tasks()));
+
+        assertThat(before.statements()).isGreaterThanOrEqualTo(4 * TASKS);
+        assertThat(after.statements()).isLessThanOrEqualTo(3);
+        assertThat(after.inserts()).isEqualTo(TASKS + 1);
+        assertThat(after.updates()).isZero();
+    }
+
+    @Test
+    void batchedTasksKeepTheirOrder() {
+        List<Task> tasks = tasks();
+        String projectId = saveBatched(tasks);
+        try {
+            List<TaskEntity> stored = taskRepository.findPageByProjectId(projectId, Limit.of(TASKS));
+
+            assertThat(stored).extracting(TaskEntity::getId)
+                    .containsExactlyElementsOf(tasks.stream().map(Task::getId).toList());
+            assertThat(stored).allSatisfy(task -> assertThat(task.getStatus()).isEqualTo("ASSIGNED"));
+            assertThat(stored.get(1).getDependsOn()).containsExactly(tasks.get(0).getId());
+        } finally {
+            projectRepository.deleteById(projectId);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void projectCreationWritesBenchmark() {
+        measure("save each, reload, save again", () -> saveOneByOne(tasks()));
+        measure("saveAll once, batched", () -> saveBatched(tasks()));
+    }
+
+    /**
+     * Statements, inserts and updates of storing one project, and the time it took
+     */
+    private Result write(Supplier<String> save) {
+        statistics.clear();
+        long start = System.nanoTime();
+        String projectId = save.get();
+        long nanos = System.nanoTime() - start;
+        Result result = new Result(statistics.getPrepareStatementCount(), statistics.getEntityInsertCount(),
+                statistics.getEntityUpdateCount(), nanos);
+        projectRepository.deleteById(projectId);
+        return result;
+    }
+
+    /**
+     * Log the best time of the measured rounds after warming up
+     */
+    private void measure(String name, Supplier<String> save) {
+        Result best = null;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            Result result = write(save);
+            if (round >= WARMUP_ROUNDS && (best == null || result.nanos() < best.nanos())) {
+                best = result;
+            }
+        }
+        log.info("{}: {} statements, {} inserts, {} updates, {} us for {} tasks",
+                name, best.statements(), best.inserts(), best.updates(), best.nanos() / 1_000, TASKS);
+    }
+
+    /**
+     * The writes of project creation before batching: the project is saved and reloaded, every task
+     * is saved on its own, then reloaded and saved again with its assignment, without JDBC batches
+     */
+    private String saveOneByOne(List<Task> tasks) {
+        ProjectEntity saved = transactionTemplate.execute(status -> projectRepository.save(
+                ProjectEntity.builder().title("Project").build()));
+        String projectId = saved.getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            unbatched();
+            ProjectEntity entity = projectRepository.findById(projectId).orElseThrow();
+            entity.setTokensUsed(1_000);
+            entity = projectRepository.save(entity);
+            for (Task task : tasks) {
+                TaskEntity taskEntity = taskMapper.toEntity(task, entity);
+                // Tasks did not tell save() that they are new, so it merged them, selecting each first
+                taskEntity.setPersisted(true);
+                taskRepository.save(taskEntity);
+            }
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            unbatched();
+            for (Task task : tasks) {
+                task.setAssignedAgent("SoftwareEngineer");
+                task.setStatus("ASSIGNED");
+                TaskEntity entity = taskRepository.findById(task.getId()).orElseThrow();
+                taskMapper.updateEntityFromVO(task, entity);
+                taskRepository.save(entity);
+            }
+        });
+        return projectId;
+    }
+
+    /**
+     * Turn JDBC batching off for the session of the current transaction, as before batch_size was set
+     */
+    private void unbatched() {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(1);
+    }
+
+    /**
+     * The writes of project creation now: the project and its assigned tasks are inserted at once
+     */
+    private String saveBatched(List<Task> tasks) {
+        tasks.forEach(task -> {
+            task.setAssignedAgent("SoftwareEngineer");
+            task.setStatus("ASSIGNED");
+        });
+
+        return transactionTemplate.execute(status -> {
+            ProjectEntity entity = projectRepository.save(ProjectEntity.builder()
+                    .title("Project")
+                    .tokensUsed(1_000)
+                    .build());
+
+            LocalDateTime createdAt = LocalDateTime.now();
+            List<TaskEntity> taskEntities = new ArrayList<>(tasks.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                TaskEntity taskEntity = taskMapper.toEntity(tasks.get(i), entity);
+                taskEntity.setCreatedAt(createdAt.plus(i, ChronoUnit.MICROS));
+                taskEntities.add(taskEntity);
+            }
+            taskRepository.saveAll(taskEntities);
+            return entity.getId();
+        });
+    }
+
+    /**
+     * Tasks of a project breakdown, each depending on the one before
+     */
+    private static List<Task> tasks() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task(UUID.randomUUID().toString(), "Task " + (i + 1) + " of the project", "UNKNOWN");
+            if (i > 0) {
+                task.setDependsOn(List.of(tasks.get(i - 1).getId()));
+            }
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private record Result(long statements, long inserts, long updates, long nanos) {
+    }
+}
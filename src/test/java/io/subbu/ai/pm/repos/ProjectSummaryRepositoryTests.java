@@ -0,0 +1,103 @@
+package io.subbu.ai.pm.repos;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Task counts and keyset pages of the project summaries against the PostgreSQL database configured in application.yaml
+ * The projects are created after any real ones so that they are the newest, and rolled back with the test transaction.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProjectSummaryRepositoryTests {
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        // summary-c and summary-d share a creation time, so only the ID orders them
+        insertProject("summary-a", "2100-01-01 00:03:00");
+        insertProject("summary-b", "2100-01-01 00:02:00");
+        insertProject("summary-c", "2100-01-01 00:01:00");
+        insertProject("summary-d", "2100-01-01 00:01:00");
+        insertTask("summary-a-1", "summary-a", "COMPLETED");
+        insertTask("summary-a-2", "summary-a", "COMPLETED");
+        insertTask("summary-a-3", "summary-a", "ASSIGNED");
+        insertTask("summary-a-4", "summary-a", "IN_PROGRESS");
+        insertTask("summary-c-1", "summary-c", "ASSIGNED");
+        insertTask("summary-c-2", "summary-c", "ASSIGNED");
+    }
+
+    @Test
+    void summariesCountTasksPerStatus() {
+        List<ProjectRepository.Summary> summaries = projectRepository.findSummaries(4);
+
+        assertThat(summaries)
+                .extracting(ProjectRepository.Summary::getProjectId, ProjectRepository.Summary::getTaskCount,
+                        ProjectRepository.Summary::getCompletedCount, ProjectRepository.Summary::getAssignedCount)
+                .containsExactly(
+                        tuple("summary-a", 4L, 2L, 1L),
+                        tuple("summary-b", 0L, 0L, 0L),
+                        tuple("summary-d", 0L, 0L, 0L),
+                        tuple("summary-c", 2L, 0L, 2L));
+    }
+
+    @Test
+    void nextPageContinuesNewestFirstAfterTheCursor() {
+        List<ProjectRepository.Summary> first = projectRepository.findSummaries(3);
+        ProjectRepository.Summary last = first.getLast();
+        List<ProjectRepository.Summary> next = projectRepository.findSummariesAfter(last.getCreatedAt(), last.getProjectId(), 1);
+
+        assertThat(first).extracting(ProjectRepository.Summary::getProjectId)
+                .containsExactly("summary-a", "summary-b", "summary-d");
+        assertThat(next).extracting(ProjectRepository.Summary::getProjectId, ProjectRepository.Summary::getAssignedCount)
+                .containsExactly(tuple("summary-c", 2L));
+    }
+
+    @Test
+    void pageAfterAProjectWithoutTasksStillCountsTheNextOnes() {
+        ProjectRepository.Summary withoutTasks = projectRepository.findSummaries(2).getLast();
+        List<ProjectRepository.Summary> next =
+                projectRepository.findSummariesAfter(withoutTasks.getCreatedAt(), withoutTasks.getProjectId(), 2);
+
+        assertThat(withoutTasks.getProjectId()).isEqualTo("summary-b");
+        assertThat(next)
+                .extracting(ProjectRepository.Summary::getProjectId, ProjectRepository.Summary::getTaskCount)
+                .containsExactly(tuple("summary-d", 0L), tuple("summary-c", 2L));
+    }
+
+    private void insertProject(String id, String createdAt) {
+        entityManager.createNativeQuery("""
+                        INSERT INTO projects (id, title, tokens_used, created_at, updated_at)
+                        VALUES (:id, :id, 0, CAST(:createdAt AS TIMESTAMP), CAST(:createdAt AS TIMESTAMP))
+                        """)
+                .setParameter("id", id)
+                .setParameter("createdAt", createdAt)
+                .executeUpdate();
+    }
+
+    private void insertTask(String id, String projectId, String status) {
+        entityManager.createNativeQuery("""
+                        INSERT INTO tasks (id, project_id, description, type, status, created_at, updated_at)
+                        VALUES (:id, :projectId, :id, 'UNKNOWN', :status, LOCALTIMESTAMP, LOCALTIMESTAMP)
+                        """)
+                .setParameter("id", id)
+                .setParameter("projectId", projectId)
+                .setParameter("status", status)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,186 @@
+package io.subbu.ai.pm.repos;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plans of the repository queries on a seeded dataset, so a dropped index or a query that can no
+ * longer use one fails here instead of in production
+ * Runs against the PostgreSQL database configured in application.yaml after the Flyway migrations.
+ * The seed rows and their statistics are rolled back with the test transaction.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryPlanTests {
+
+    private static final int PROJECTS = 2_000;
+    private static final int TASKS_PER_PROJECT = 20;
+    private static final int NOTES = 20_000;
+    private static final int QUEUE_ENTRIES = 20_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        // Projects one minute apart, each with tasks mostly COMPLETED and few IN_PROGRESS, DevOps or delegated by the LLM
+        execute("""
+                INSERT INTO projects (id, title, tokens_used, created_at, updated_at)
+                SELECT 'p-' || lpad(CAST(g AS TEXT), 5, '0'), 'Project ' || g, 1000,
+                       TIMESTAMP '2026-01-01' + g * INTERVAL '1 minute',
+                       TIMESTAMP '2026-01-01' + g * INTERVAL '1 minute'
+                FROM generate_series(1, %d) g
+                """.formatted(PROJECTS));
+        execute("""
+                INSERT INTO tasks (id, project_id, description, type, status, result, result_offset,
+                                   assigned_agent, delegation_source, depends_on, created_at, updated_at)
+                SELECT 't-' || lpad(CAST(g AS TEXT), 6, '0'),
+                       'p-' || lpad(CAST((g - 1) / %1$d + 1 AS TEXT), 5, '0'),
+                       'Task ' || g, 'UNKNOWN',
+                       CASE WHEN g %% 100 = 0 THEN 'IN_PROGRESS' WHEN g %% 10 = 0 THEN 'ASSIGNED' ELSE 'COMPLETED' END,
+                       decode('00', 'hex') || convert_to(repeat('Generated result line. ', 20), 'UTF8'), 460,
+                       CASE WHEN g %% 50 = 0 THEN 'DevOpsEngineer' WHEN g %% 2 = 0 THEN 'SoftwareEngineer'
+                            ELSE 'TechnicalLead' END,
+                       CASE WHEN g %% 20 = 0 THEN 'llm' WHEN g %% 2 = 0 THEN 'classifier' ELSE 'cache' END,
+                       NULL,
+                       TIMESTAMP '2026-01-01' + ((g - 1) / %1$d + 1) * INTERVAL '1 minute' + g * INTERVAL '1 microsecond',
+                       TIMESTAMP '2026-01-01' + ((g - 1) / %1$d + 1) * INTERVAL '1 minute'
+                FROM generate_series(1, %2$d) g
+                """.formatted(TASKS_PER_PROJECT, PROJECTS * TASKS_PER_PROJECT));
+        execute("""
+                INSERT INTO notes (id, title, content, project_id, created_at, updated_at)
+                SELECT 'n-' || lpad(CAST(g AS TEXT), 6, '0'), 'Note ' || g, repeat('Note text. ', 20),
+                       CASE WHEN g %% 10 = 0 THEN 'p-' || lpad(CAST(g / 10 AS TEXT), 5, '0') END,
+                       TIMESTAMP '2026-01-01' + g * INTERVAL '1 second',
+                       TIMESTAMP '2026-01-01' + g * INTERVAL '1 second'
+                FROM generate_series(1, %d) g
+                """.formatted(NOTES));
+        // A queue of mostly finished entries with a few waiting or running
+        execute("""
+                INSERT INTO task_queue (id, task_id, status, attempts, lease_owner, lease_expires_at,
+                                        available_at, bypass_cache, created_at, updated_at)
+                SELECT 'q-' || lpad(CAST(g AS TEXT), 6, '0'), 't-' || lpad(CAST(g AS TEXT), 6, '0'),
+                       CASE WHEN g %% 500 = 0 THEN 'RUNNING' WHEN g %% 200 = 0 THEN 'QUEUED' ELSE 'DONE' END,
+                       1,
+                       CASE WHEN g %% 500 = 0 THEN 'worker' END,
+                       CASE WHEN g %% 500 = 0 THEN TIMESTAMP '2026-01-01' END,
+                       TIMESTAMP '2026-01-01' + g * INTERVAL '1 second', FALSE,
+                       TIMESTAMP '2026-01-01', TIMESTAMP '2026-01-01'
+                FROM generate_series(1, %d) g
+                """.formatted(QUEUE_ENTRIES));
+        execute("ANALYZE projects");
+        execute("ANALYZE tasks");
+        execute("ANALYZE notes");
+        execute("ANALYZE task_queue");
+    }
+
+    @Test
+    void projectSummaryPagesScanTheNewestProjectsAndCountTasksFromTheIndex() {
+        String summary = """
+                SELECT p.id, COUNT(t.id),
+                       COUNT(t.id) FILTER (WHERE t.status = 'COMPLETED'),
+                       COUNT(t.id) FILTER (WHERE t.status = 'ASSIGNED')
+                FROM (SELECT * FROM projects %s ORDER BY created_at DESC, id DESC LIMIT 51) p
+                LEFT JOIN tasks t ON t.project_id = p.id
+                GROUP BY p.id, p.title, p.tokens_used, p.created_at, p.updated_at
+                ORDER BY p.created_at DESC, p.id DESC
+                """;
+
+        for (String where : new String[]{"", "WHERE (created_at, id) < (TIMESTAMP '2026-01-01 12:00', 'p-00720')"}) {
+            String plan = plan(summary.formatted(where));
+
+            assertThat(plan).as(plan)
+                    .contains("idx_projects_created_at_id")
+                    .doesNotContain("Seq Scan on projects")
+                    .doesNotContain("Seq Scan on tasks");
+        }
+    }
+
+    @Test
+    void projectTaskPagesFollowCreationOrder() {
+        assertUses("""
+                SELECT * FROM tasks WHERE project_id = 'p-01000'
+                ORDER BY created_at, id LIMIT 51
+                """, "idx_tasks_project_created_at_id", "tasks");
+        assertUses("""
+                SELECT * FROM tasks WHERE project_id = 'p-01000'
+                  AND created_at >= TIMESTAMP '2026-01-01 16:40:00.019990'
+                  AND (created_at > TIMESTAMP '2026-01-01 16:40:00.019990' OR id > 't-019990')
+                ORDER BY created_at, id LIMIT 51
+                """, "idx_tasks_project_created_at_id", "tasks");
+        assertUses("SELECT COUNT(id) FROM tasks WHERE project_id = 'p-01000'", "idx_tasks_project_", "tasks");
+    }
+
+    @Test
+    void tasksAreFoundByProjectAndStatus() {
+        assertUses("SELECT * FROM tasks WHERE project_id = 'p-01000' AND status = 'ASSIGNED'",
+                "idx_tasks_project_status", "tasks");
+        assertUses("SELECT * FROM tasks WHERE status = 'IN_PROGRESS'", "idx_tasks_status", "tasks");
+        assertUses("SELECT * FROM tasks WHERE assigned_agent = 'DevOpsEngineer'", "idx_tasks_assigned_agent", "tasks");
+    }
+
+    @Test
+    void classifierHistoryReadsOnlyLlmDelegations() {
+        assertUses("""
+                SELECT description, assigned_agent FROM tasks
+                WHERE delegation_source = 'llm' AND assigned_agent IS NOT NULL
+                ORDER BY created_at DESC LIMIT 500
+                """, "idx_tasks_llm_delegations", "tasks");
+    }
+
+    @Test
+    void notePagesScanTheNewestNotes() {
+        assertUses("SELECT * FROM notes ORDER BY created_at DESC, id DESC LIMIT 51",
+                "idx_notes_created_at_id", "notes");
+        assertUses("""
+                SELECT * FROM notes
+                WHERE created_at <= TIMESTAMP '2026-01-01 01:00' AND (created_at < TIMESTAMP '2026-01-01 01:00' OR id < 'n-003600')
+                ORDER BY created_at DESC, id DESC LIMIT 51
+                """, "idx_notes_created_at_id", "notes");
+        assertUses("SELECT * FROM notes WHERE project_id = 'p-01000'", "idx_notes_project_id", "notes");
+    }
+
+    @Test
+    void queueClaimsReadOnlyClaimableEntries() {
+        String plan = plan("""
+                SELECT id FROM task_queue
+                WHERE (status = 'QUEUED' AND available_at <= LOCALTIMESTAMP)
+                   OR (status = 'RUNNING' AND lease_expires_at < LOCALTIMESTAMP)
+                ORDER BY available_at
+                LIMIT 16
+                FOR UPDATE SKIP LOCKED
+                """);
+
+        assertThat(plan).as(plan)
+                .contains("idx_task_queue_queued")
+                .contains("idx_task_queue_running")
+                .doesNotContain("Seq Scan on task_queue");
+        assertUses("SELECT * FROM task_queue WHERE task_id = 't-000400' AND status IN ('QUEUED', 'RUNNING') LIMIT 1",
+                "idx_task_queue_active_task", "task_queue");
+    }
+
+    private void assertUses(String sql, String index, String table) {
+        String plan = plan(sql);
+        assertThat(plan).as(plan)
+                .contains(index)
+                .doesNotContain("Seq Scan on " + table);
+    }
+
+    private String plan(String sql) {
+        return entityManager.createNativeQuery("EXPLAIN " + sql).getResultList().stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private void execute(String sql) {
+        entityManager.createNativeQuery(sql).executeUpdate();
+    }
+}
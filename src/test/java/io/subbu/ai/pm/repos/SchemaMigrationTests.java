@@ -0,0 +1,137 @@
+package io.subbu.ai.pm.repos;
+
+import io.subbu.ai.pm.models.CompressedTextConverter;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The Flyway migrations applied to an empty schema and to a schema in the shape Hibernate's ddl-auto
+ * created before the migrations, each in a schema of its own that is dropped afterwards
+ * Runs against the PostgreSQL database configured in application.yaml, like the application test.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchemaMigrationTests {
+
+    private static final String FRESH = "migration_fresh";
+    private static final String LEGACY = "migration_legacy";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${spring.flyway.baseline-on-migrate}")
+    private boolean baselineOnMigrate;
+
+    @Value("${spring.flyway.baseline-version}")
+    private String baselineVersion;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        dropSchemas();
+        jdbcTemplate.execute("CREATE SCHEMA " + FRESH);
+        jdbcTemplate.execute("CREATE SCHEMA " + LEGACY);
+    }
+
+    @AfterEach
+    void dropSchemas() {
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + FRESH + " CASCADE");
+        jdbcTemplate.execute("DROP SCHEMA IF EXISTS " + LEGACY + " CASCADE");
+    }
+
+    @Test
+    void legacySchemaIsUpgradedToTheSchemaOfANewDatabase() {
+        createLegacySchema();
+
+        Flyway fresh = flyway(FRESH);
+        Flyway legacy = flyway(LEGACY);
+        fresh.migrate();
+        legacy.migrate();
+
+        assertThat(legacy.info().pending()).isEmpty();
+        assertThat(columns(LEGACY)).isNotEmpty().containsExactlyElementsOf(columns(FRESH));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT version FROM " + LEGACY + ".flyway_schema_history WHERE type = 'BASELINE'", String.class))
+                .isEqualTo(baselineVersion);
+    }
+
+    @Test
+    void legacyRowsAreKept() {
+        createLegacySchema();
+        jdbcTemplate.update("INSERT INTO " + LEGACY + ".projects (id, title, tokens_used, created_at, updated_at) "
+                + "VALUES ('p-1', 'Project', 100, LOCALTIMESTAMP, LOCALTIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO " + LEGACY + ".tasks (tokens_used, created_at, updated_at, assigned_agent, "
+                + "description, id, project_id, result, status, type) VALUES (100, LOCALTIMESTAMP, LOCALTIMESTAMP, "
+                + "'SoftwareEngineer', 'Build the API', 't-1', 'p-1', '## Result ✓', 'COMPLETED', 'UNKNOWN')");
+
+        flyway(LEGACY).migrate();
+
+        byte[] result = jdbcTemplate.queryForObject("SELECT result FROM " + LEGACY + ".tasks WHERE id = 't-1'", byte[].class);
+        assertThat(new CompressedTextConverter().convertToEntityAttribute(result)).isEqualTo("## Result ✓");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + LEGACY + ".task_queue", Integer.class)).isZero();
+    }
+
+    /**
+     * Flyway configured like the application, on one schema
+     */
+    private Flyway flyway(String schema) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .schemas(schema)
+                .createSchemas(false)
+                .baselineOnMigrate(baselineOnMigrate)
+                .baselineVersion(baselineVersion)
+                .load();
+    }
+
+    /**
+     * Tables as ddl-auto created them from the entities before the migrations were introduced
+     */
+    private void createLegacySchema() {
+        jdbcTemplate.execute("""
+                CREATE TABLE %1$s.projects (
+                    tokens_used integer, created_at timestamp(6) not null, updated_at timestamp(6) not null,
+                    id varchar(36) not null, title varchar(500) not null, primary key (id));
+                CREATE TABLE %1$s.tasks (
+                    tokens_used integer, created_at timestamp(6) not null, updated_at timestamp(6) not null,
+                    assigned_agent varchar(100), description TEXT not null, id varchar(36) not null,
+                    project_id varchar(36) not null, result TEXT, status varchar(50) not null, type varchar(100),
+                    primary key (id));
+                CREATE TABLE %1$s.notes (
+                    created_at timestamp(6) not null, updated_at timestamp(6) not null, project_id varchar(36),
+                    id varchar(36) not null, title varchar(255) not null, content TEXT not null, primary key (id));
+                ALTER TABLE %1$s.tasks ADD CONSTRAINT FK_tasks_project_legacy
+                    FOREIGN KEY (project_id) REFERENCES %1$s.projects;
+                """.formatted(LEGACY));
+    }
+
+    /**
+     * Table, column, type, length and nullability of every column of a schema, in a stable order
+     */
+    private List<String> columns(String schema) {
+        return jdbcTemplate.queryForList("""
+                SELECT table_name || '.' || column_name || ' ' || data_type || ' '
+                       || COALESCE(CAST(character_maximum_length AS TEXT), '-') || ' ' || is_nullable
+                FROM information_schema.columns
+                WHERE table_schema = ? AND table_name <> 'flyway_schema_history'
+                ORDER BY table_name, column_name
+                """, String.class, schema);
+    }
+}
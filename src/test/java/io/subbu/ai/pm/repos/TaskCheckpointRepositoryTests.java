@@ -0,0 +1,91 @@
+package io.subbu.ai.pm.repos;
+
+import io.subbu.ai.pm.models.CompressedTextConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checkpoint writes of the generations of a task against the PostgreSQL database configured in application.yaml
+ * The rows are rolled back with the test transaction.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TaskCheckpointRepositoryTests {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private String taskId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        String projectId = UUID.randomUUID().toString();
+        taskId = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO projects (id, title, tokens_used, created_at, updated_at) "
+                + "VALUES (?, 'Project', 0, LOCALTIMESTAMP, LOCALTIMESTAMP)", projectId);
+        jdbcTemplate.update("INSERT INTO tasks (id, project_id, description, status, created_at, updated_at) "
+                + "VALUES (?, ?, 'Build the API', 'ASSIGNED', LOCALTIMESTAMP, LOCALTIMESTAMP)", taskId, projectId);
+    }
+
+    @Test
+    void lateWritesOfACancelledGenerationAreIgnored() {
+        assertThat(taskRepository.claimGeneration(taskId, "first", 0)).isEqualTo(1);
+        assertThat(taskRepository.appendCheckpoint(taskId, "first", "partial", 0, 7)).isEqualTo(1);
+        assertThat(taskRepository.markCancelled(taskId, "first")).isEqualTo(1);
+
+        assertThat(taskRepository.appendCheckpoint(taskId, "first", " late", 7, 12)).isZero();
+        assertThat(status()).isEqualTo("CANCELLED");
+        assertThat(result()).isEqualTo("partial");
+    }
+
+    @Test
+    void aNewGenerationTakesOverFromTheStoredOffset() {
+        taskRepository.claimGeneration(taskId, "first", 0);
+        taskRepository.appendCheckpoint(taskId, "first", "partial", 0, 7);
+
+        assertThat(taskRepository.claimGeneration(taskId, "second", 0)).isZero();
+        assertThat(taskRepository.claimGeneration(taskId, "second", 7)).isEqualTo(1);
+        assertThat(taskRepository.appendCheckpoint(taskId, "first", " old", 7, 11)).isZero();
+        assertThat(taskRepository.markCancelled(taskId, "first")).isZero();
+        assertThat(taskRepository.appendCheckpoint(taskId, "second", " new", 7, 11)).isEqualTo(1);
+
+        assertThat(status()).isEqualTo("IN_PROGRESS");
+        assertThat(result()).isEqualTo("partial new");
+    }
+
+    @Test
+    void onlyTheOwningGenerationCanSaveTheCompleteResult() {
+        taskRepository.claimGeneration(taskId, "first", 0);
+        taskRepository.appendCheckpoint(taskId, "first", "partial", 0, 7);
+        taskRepository.claimGeneration(taskId, "second", 7);
+
+        assertThat(taskRepository.lockOwnedByGeneration(taskId, "first")).isEmpty();
+        assertThat(taskRepository.lockOwnedByGeneration(taskId, "second")).isPresent();
+
+        taskRepository.markCancelled(taskId, "second");
+        assertThat(taskRepository.lockOwnedByGeneration(taskId, "second")).isEmpty();
+    }
+
+    private String status() {
+        return jdbcTemplate.queryForObject("SELECT status FROM tasks WHERE id = ?", String.class, taskId);
+    }
+
+    private String result() {
+        byte[] result = jdbcTemplate.queryForObject("SELECT result FROM tasks WHERE id = ?", byte[].class, taskId);
+        return new CompressedTextConverter().convertToEntityAttribute(result);
+    }
+}
@@ -0,0 +1,56 @@
+package io.subbu.ai.pm.repos;
+
+import io.subbu.ai.pm.models.TaskQueueEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Active queue entries of a task against the PostgreSQL database configured in application.yaml
+ * The entries are rolled back with the test transaction.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TaskQueueRepositoryTests {
+
+    private static final List<String> ACTIVE_STATUSES = List.of("QUEUED", "RUNNING");
+
+    @Autowired
+    private TaskQueueRepository taskQueueRepository;
+
+    @Test
+    void taskHasAtMostOneActiveEntry() {
+        String taskId = UUID.randomUUID().toString();
+        String first = UUID.randomUUID().toString();
+
+        assertThat(taskQueueRepository.insertQueued(first, taskId, false)).isEqualTo(1);
+        assertThat(taskQueueRepository.insertQueued(UUID.randomUUID().toString(), taskId, true)).isZero();
+
+        taskQueueRepository.claim(List.of(first), "worker", 60);
+        assertThat(taskQueueRepository.insertQueued(UUID.randomUUID().toString(), taskId, false)).isZero();
+        assertThat(taskQueueRepository.findFirstByTaskIdAndStatusIn(taskId, ACTIVE_STATUSES))
+                .map(TaskQueueEntity::getId)
+                .contains(first);
+    }
+
+    @Test
+    void finishedTasksCanBeQueuedAgain() {
+        String taskId = UUID.randomUUID().toString();
+        String first = UUID.randomUUID().toString();
+        String second = UUID.randomUUID().toString();
+        taskQueueRepository.insertQueued(first, taskId, false);
+        taskQueueRepository.claim(List.of(first), "worker", 60);
+        taskQueueRepository.markDone(first, "worker");
+
+        assertThat(taskQueueRepository.insertQueued(second, taskId, false)).isEqualTo(1);
+        assertThat(taskQueueRepository.findFirstByTaskIdAndStatusIn(taskId, ACTIVE_STATUSES))
+                .map(TaskQueueEntity::getId)
+                .contains(second);
+    }
+}
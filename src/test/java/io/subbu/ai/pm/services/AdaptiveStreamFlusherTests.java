@@ -0,0 +1,197 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.subbu.ai.pm.vos.StreamDelta;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveStreamFlusherTests {
+
+    @Test
+    void flushesAtSentenceBoundariesOnceTheMinimumIsReached() {
+        List<StreamDelta> deltas = flusher(10, 1000, Duration.ofHours(1))
+                .flush(chunks("Hello", " world.", " Next", " sentence here.", " tail"))
+                .collectList()
+                .block();
+
+        assertThat(deltas).extracting(StreamDelta::getText)
+                .containsExactly("Hello world.", " Next sentence here.", " tail");
+        assertThat(deltas).extracting(StreamDelta::getSeq).containsExactly(2L, 4L, 5L);
+        assertThat(deltas).extracting(StreamDelta::getOffset).containsExactly(0L, 12L, 32L);
+    }
+
+    @Test
+    void keepsFencedCodeBlocksTogether() {
+        List<String> deltas = texts(flusher(1, 1000, Duration.ofHours(1)), chunks(
+                "Intro.\n", "```java\n", "int a = 1;\n", "int b = 2;\n", "```", "\n", "Done."));
+
+        assertThat(deltas).containsExactly("Intro.\n", "```java\nint a = 1;\nint b = 2;\n```\n", "Done.");
+    }
+
+    @Test
+    void byteBudgetCutsAtTheLastBoundary() {
+        List<String> deltas = texts(flusher(100, 20, Duration.ofHours(1)), chunks(
+                "One.", " two", " three", " four", " five", " six"));
+
+        assertThat(deltas).containsExactly("One.", " two three four five", " six");
+    }
+
+    @Test
+    void latencyBudgetFlushesWithoutABoundary() throws InterruptedException {
+        Sinks.Many<StreamDelta> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        List<String> received = new CopyOnWriteArrayList<>();
+
+        flusher(1000, 2000, Duration.ofMillis(50))
+                .flush(upstream.asFlux())
+                .map(StreamDelta::getText)
+                .subscribe(received::add);
+
+        upstream.tryEmitNext(new StreamDelta("g", 1, 0, "partial"));
+        Thread.sleep(500);
+
+        assertThat(received).containsExactly("partial");
+        upstream.tryEmitComplete();
+    }
+
+    @Test
+    void coalescesChunksForASlowSubscriberWithoutDroppingAny() throws InterruptedException {
+        Sinks.Many<StreamDelta> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        SlowSubscriber slow = new SlowSubscriber();
+        flusher(1, 1000, Duration.ofHours(1)).flush(upstream.asFlux()).subscribe(slow);
+
+        List<StreamDelta> chunks = chunkList(IntStream.range(0, 200)
+                .mapToObj(i -> "Sentence " + i + ".")
+                .toArray(String[]::new));
+        chunks.forEach(upstream::tryEmitNext);
+        upstream.tryEmitComplete();
+        Thread.sleep(200);
+
+        assertThat(slow.received).extracting(StreamDelta::getText).containsExactly("Sentence 0.");
+
+        slow.request(1);
+
+        assertThat(slow.done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slow.error).isNull();
+        assertThat(slow.received).hasSize(2);
+        assertThat(slow.received.get(1).getSeq()).isEqualTo(200);
+        assertThat(slow.received.get(1).getOffset()).isEqualTo(chunks.get(1).getOffset());
+        assertThat(slow.received.stream().map(StreamDelta::getText).collect(Collectors.joining()))
+                .isEqualTo(chunks.stream().map(StreamDelta::getText).collect(Collectors.joining()));
+    }
+
+    @Test
+    void disconnectsASubscriberThatFallsTooFarBehind() throws InterruptedException {
+        Sinks.Many<StreamDelta> upstream = Sinks.many().unicast().onBackpressureBuffer();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SlowSubscriber slow = new SlowSubscriber();
+        new AdaptiveStreamFlusher(registry, 1, 10, Duration.ofHours(1), 50, Schedulers.parallel())
+                .flush(upstream.asFlux())
+                .subscribe(slow);
+
+        chunkList(IntStream.range(0, 20).mapToObj(i -> "abcdefghi.").toArray(String[]::new))
+                .forEach(upstream::tryEmitNext);
+
+        assertThat(slow.done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slow.received).hasSize(1);
+        assertThat(slow.error)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("resume after event g:1");
+        assertThat(registry.get("agent.stream.overruns").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void recordsTimeToFirstByteAndFlushSizes() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveStreamFlusher flusher = new AdaptiveStreamFlusher(registry, 1, 1000, Duration.ofHours(1),
+                1_000_000, Schedulers.parallel());
+
+        flusher.flush(chunks("One.", " Two.", " three")).blockLast();
+
+        assertThat(registry.get("agent.stream.ttfb").timer().count()).isEqualTo(1);
+        assertThat(registry.get("agent.stream.flush.size").tag("trigger", "boundary").summary().count()).isEqualTo(2);
+        assertThat(registry.get("agent.stream.flush.size").tag("trigger", "complete").summary().totalAmount())
+                .isEqualTo(6);
+    }
+
+    @Test
+    void detectsLineAndSentenceEnds() {
+        assertThat(AdaptiveStreamFlusher.endsAtBoundary("done.")).isTrue();
+        assertThat(AdaptiveStreamFlusher.endsAtBoundary("really?\" ")).isTrue();
+        assertThat(AdaptiveStreamFlusher.endsAtBoundary("- item\n")).isTrue();
+        assertThat(AdaptiveStreamFlusher.endsAtBoundary(" word")).isFalse();
+        assertThat(AdaptiveStreamFlusher.endsAtBoundary(" ")).isFalse();
+    }
+
+    private static AdaptiveStreamFlusher flusher(long minBytes, long maxBytes, Duration maxLatency) {
+        return new AdaptiveStreamFlusher(new SimpleMeterRegistry(), minBytes, maxBytes, maxLatency,
+                1_000_000, Schedulers.parallel());
+    }
+
+    private static List<String> texts(AdaptiveStreamFlusher flusher, Flux<StreamDelta> chunks) {
+        return flusher.flush(chunks).map(StreamDelta::getText).collectList().block();
+    }
+
+    private static Flux<StreamDelta> chunks(String... texts) {
+        return Flux.fromIterable(chunkList(texts));
+    }
+
+    /**
+     * Numbered chunks with UTF-8 offsets, as the task stream registry emits them
+     */
+    private static List<StreamDelta> chunkList(String... texts) {
+        List<StreamDelta> chunks = new ArrayList<>();
+        long offset = 0;
+        for (int i = 0; i < texts.length; i++) {
+            chunks.add(new StreamDelta("g", i + 1, offset, texts[i]));
+            offset += texts[i].getBytes(StandardCharsets.UTF_8).length;
+        }
+        return chunks;
+    }
+
+    /**
+     * Requests a single delta and then only what the test asks for
+     */
+    private static final class SlowSubscriber extends BaseSubscriber<StreamDelta> {
+
+        private final List<StreamDelta> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Throwable error;
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            request(1);
+        }
+
+        @Override
+        protected void hookOnNext(StreamDelta delta) {
+            received.add(delta);
+        }
+
+        @Override
+        protected void hookOnError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        protected void hookFinally(SignalType type) {
+            done.countDown();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.subbu.ai.pm.repos.ProjectRepository;
+import io.subbu.ai.pm.vos.Project;
+import io.subbu.ai.pm.vos.Task;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Transaction boundaries of project creation and task execution, with a stubbed chat model in place of the LLM
+ * {@link LlmCallMetrics} counts every LLM call that starts while the thread holds a transaction or session.
+ * Runs against the PostgreSQL database configured in application.yaml, like the application test, without queue workers.
+ */
+@SpringBootTest(properties = "app.queue.workers=0")
+@Import(AgentOrchestrationTransactionTests.StubChatModelConfiguration.class)
+class AgentOrchestrationTransactionTests {
+
+    private static final String HOLDING_CONNECTION = "agent.llm.calls.holding.connection";
+    private static final String BREAKDOWN = "1. Design the REST API\n2. Implement the checkout (depends on: 1)";
+    private static final String RESULT = "## Result\n\nThe checkout is implemented.";
+
+    @Autowired
+    private AgentOrchestrationService agentOrchestrationService;
+
+    @Autowired
+    private LlmCallMetrics llmCallMetrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProjectRepository projectRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void projectCreationAndTaskExecutionCallTheLlmWithoutAConnection() {
+        Map<String, Object> created = agentOrchestrationService.processProjectRequest("Build an online shop");
+        Project project = (Project) created.get("project");
+        try {
+            List<Task> tasks = (List<Task>) created.get("tasks");
+            assertThat(tasks).hasSize(2);
+
+            String taskId = tasks.getLast().getId();
+            assertThat(agentOrchestrationService.runTask(taskId, true)).isEqualTo(RESULT);
+            assertThat(agentOrchestrationService.getTask(taskId).getStatus()).isEqualTo("COMPLETED");
+
+            for (String phase : List.of("analysis", "delegation", "execution")) {
+                assertThat(holdingConnection(phase)).as(phase).isZero();
+            }
+        } finally {
+            projectRepository.deleteById(project.getId());
+        }
+    }
+
+    @Test
+    void llmCallsInsideATransactionAreCounted() {
+        double before = holdingConnection("in-transaction");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                llmCallMetrics.recordCall("in-transaction", () -> RESULT));
+
+        assertThat(holdingConnection("in-transaction")).isEqualTo(before + 1);
+    }
+
+    private double holdingConnection(String phase) {
+        Counter counter = meterRegistry.find(HOLDING_CONNECTION).tag("phase", phase).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    /**
+     * Answers the breakdown, delegation and execution prompts without a model server
+     */
+    @TestConfiguration
+    static class StubChatModelConfiguration {
+
+        @Bean
+        @Primary
+        ChatModel stubChatModel() {
+            return new ChatModel() {
+                @Override
+                public ChatResponse call(Prompt prompt) {
+                    String request = prompt.getUserMessage().getText();
+                    String answer = request.contains("break it down") ? BREAKDOWN
+                            : request.contains("which specialist") ? "Software Engineer"
+                            : RESULT;
+                    return new ChatResponse(List.of(new Generation(AssistantMessage.builder().content(answer).build())));
+                }
+            };
+        }
+    }
+}
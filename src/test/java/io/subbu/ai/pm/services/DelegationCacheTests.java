@@ -0,0 +1,96 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.subbu.ai.pm.repos.DelegationCacheRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DelegationCacheTests {
+
+    @Test
+    void normalizesCaseWhitespaceAndNumbering() {
+        assertThat(DelegationCache.normalize("1. Set up  CI/CD pipeline."))
+                .isEqualTo(DelegationCache.normalize("set up ci cd pipeline"))
+                .isEqualTo(DelegationCache.normalize("Task 3: Set up CI/CD Pipeline"))
+                .isEqualTo(DelegationCache.normalize("- Set up CI/CD pipeline"))
+                .isEqualTo("set up ci cd pipeline");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() {
+        DelegationCacheRepository repository = mock(DelegationCacheRepository.class);
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        DelegationCache cache = new DelegationCache(repository, new SimpleMeterRegistry(), true, 2);
+
+        cache.put("a", "DevOps Engineer");
+        cache.put("b", "Technical Lead");
+        cache.lookup("a");
+        cache.put("c", "Software Engineer");
+
+        assertThat(cache.lookup("a")).contains("DevOps Engineer");
+        assertThat(cache.lookup("b")).isEmpty();
+        assertThat(cache.lookup("c")).contains("Software Engineer");
+        verify(repository).upsert("b", "Technical Lead");
+    }
+
+    @Test
+    void doesNotCacheUndecidedLoads() {
+        DelegationCacheRepository repository = mock(DelegationCacheRepository.class);
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        DelegationCache cache = new DelegationCache(repository, new SimpleMeterRegistry(), true, 10);
+
+        assertThat(cache.load("Write unit tests", () -> null)).isNull();
+
+        assertThat(cache.lookup("Write unit tests")).isEmpty();
+        verify(repository, never()).upsert(any(), any());
+    }
+
+    @Test
+    void collapsesConcurrentLoadsOfTheSameDescription() throws Exception {
+        DelegationCache cache = new DelegationCache(mock(DelegationCacheRepository.class), new SimpleMeterRegistry(), true, 10);
+        AtomicInteger llmCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                String description = i % 2 == 0 ? "Write unit tests" : "2) write UNIT tests";
+                results.add(executor.submit(() -> cache.load(description, () -> {
+                    llmCalls.incrementAndGet();
+                    await(release);
+                    return "Software Engineer";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("Software Engineer");
+            }
+        }
+
+        assertThat(llmCalls.get()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
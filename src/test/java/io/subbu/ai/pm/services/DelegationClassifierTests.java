@@ -0,0 +1,74 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.repos.TaskRepository;
+import io.subbu.ai.pm.services.DelegationClassifier.LabeledTask;
+import io.subbu.ai.pm.services.DelegationClassifier.Prediction;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DelegationClassifierTests {
+
+    @Test
+    void seedKeywordsClassifyObviousTasks() {
+        DelegationClassifier.Model model = DelegationClassifier.train(List.of());
+
+        assertThat(model.predict("Set up a CI/CD pipeline with Docker and Kubernetes").role())
+                .isEqualTo("DevOps Engineer");
+        assertThat(model.predict("Review the system architecture and define coding standards").role())
+                .isEqualTo("Technical Lead");
+        assertThat(model.predict("Implement the login API endpoint and unit tests").role())
+                .isEqualTo("Software Engineer");
+    }
+
+    @Test
+    void unknownWordsHaveNoConfidence() {
+        Prediction prediction = DelegationClassifier.train(List.of()).predict("Lorem ipsum dolor");
+
+        assertThat(prediction.confidence()).isZero();
+    }
+
+    @Test
+    void learnsFromHistory() {
+        List<LabeledTask> history = List.of(
+                new LabeledTask("Migrate grafana dashboards", "DevOps Engineer"),
+                new LabeledTask("Tune grafana alerts", "DevOps Engineer"),
+                new LabeledTask("Upgrade grafana", "DevOps Engineer"));
+
+        Prediction prediction = DelegationClassifier.train(history).predict("Grafana");
+
+        assertThat(prediction.role()).isEqualTo("DevOps Engineer");
+        assertThat(prediction.confidence()).isGreaterThan(0.8);
+    }
+
+    @Test
+    void fallsBackToLlmBelowThreshold() {
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        DelegationClassifier classifier = new DelegationClassifier(taskRepository, true, 0.8, 60, 100);
+
+        assertThat(classifier.classifyConfidently("Deploy the service to Kubernetes with Helm")).contains("DevOps Engineer");
+        assertThat(classifier.classifyConfidently("Lorem ipsum dolor")).isEmpty();
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void retrainsOnTheNewestLlmDelegations() {
+        TaskRepository taskRepository = mock(TaskRepository.class);
+        when(taskRepository.findDelegationHistory(any())).thenReturn(List.<Object[]>of(
+                new Object[]{"Migrate grafana dashboards", "DevOps Engineer"},
+                new Object[]{"Tune grafana alerts", "DevOps Engineer"},
+                new Object[]{"Upgrade grafana", "DevOps Engineer"}));
+        DelegationClassifier classifier = new DelegationClassifier(taskRepository, true, 0.8, 60, 100);
+
+        assertThat(classifier.classifyConfidently("Grafana")).isEmpty();
+        classifier.retrain();
+
+        assertThat(classifier.classifyConfidently("Grafana")).contains("DevOps Engineer");
+    }
+}
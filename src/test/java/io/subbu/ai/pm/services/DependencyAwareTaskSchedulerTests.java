@@ -0,0 +1,118 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.vos.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DependencyAwareTaskSchedulerTests {
+
+    @Test
+    void runsIndependentTasksInParallelAndDependentTasksInOrder() {
+        Task design = task("design");
+        Task backend = task("backend", "design");
+        Task frontend = task("frontend", "design");
+        Task pipeline = task("pipeline");
+
+        AtomicInteger clock = new AtomicInteger();
+        Map<String, Integer> finishedAt = new ConcurrentHashMap<>();
+        Map<String, Integer> startedAt = new ConcurrentHashMap<>();
+        // The tasks of each level wait for each other, which only returns if they run in parallel
+        CountDownLatch first = new CountDownLatch(2);
+        CountDownLatch second = new CountDownLatch(2);
+
+        Map<String, String> results = new DependencyAwareTaskScheduler(4).executeAll(
+                List.of(design, backend, frontend, pipeline),
+                task -> {
+                    startedAt.put(task.getId(), clock.incrementAndGet());
+                    CountDownLatch level = Set.of("design", "pipeline").contains(task.getId()) ? first : second;
+                    level.countDown();
+                    if (!await(level)) {
+                        throw new IllegalStateException(task.getId() + " did not run in parallel with its level");
+                    }
+                    finishedAt.put(task.getId(), clock.incrementAndGet());
+                    return "done " + task.getId();
+                });
+
+        assertThat(results).containsOnlyKeys("design", "backend", "frontend", "pipeline");
+        assertThat(startedAt.get("backend")).isGreaterThan(finishedAt.get("design"));
+        assertThat(startedAt.get("frontend")).isGreaterThan(finishedAt.get("design"));
+    }
+
+    @Test
+    void respectsProjectConcurrencyLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        new DependencyAwareTaskScheduler(2).executeAll(
+                List.of(task("a"), task("b"), task("c"), task("d"), task("e")),
+                task -> {
+                    peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    sleep(30);
+                    inFlight.decrementAndGet();
+                    return "ok";
+                });
+
+        assertThat(peak.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void skipsDependentsOfFailedTasks() {
+        AtomicInteger executed = new AtomicInteger();
+
+        assertThatThrownBy(() -> new DependencyAwareTaskScheduler(4).executeAll(
+                List.of(task("a"), task("b", "a"), task("c")),
+                task -> {
+                    executed.incrementAndGet();
+                    if ("a".equals(task.getId())) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return "ok";
+                }))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[a, b]");
+
+        // "a" and "c" ran, "b" never started
+        assertThat(executed.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsCycles() {
+        assertThatThrownBy(() -> new DependencyAwareTaskScheduler(4).executeAll(
+                List.of(task("a", "b"), task("b", "a")),
+                task -> "ok"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Task task(String id, String... dependsOn) {
+        Task task = new Task(id, "Task " + id, "UNKNOWN");
+        task.setDependsOn(List.of(dependsOn));
+        return task;
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
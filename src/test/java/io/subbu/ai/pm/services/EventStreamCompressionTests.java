@@ -0,0 +1,200 @@
+package io.subbu.ai.pm.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+class EventStreamCompressionTests {
+
+    private static final int GZIP_HEADER_BYTES = 10;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private final EventStreamCompression compression = new EventStreamCompression(6);
+
+    @Test
+    void negotiatesTheRequestedCodingOnlyIfAccepted() {
+        assertThat(compression.negotiate("gzip", "gzip, deflate, br")).isEqualTo("gzip");
+        assertThat(compression.negotiate("deflate", "gzip, deflate;q=0.5")).isEqualTo("deflate");
+        assertThat(compression.negotiate("deflate", "*")).isEqualTo("deflate");
+        assertThat(compression.negotiate("deflate", "gzip")).isEqualTo("identity");
+        assertThat(compression.negotiate("gzip", "gzip;q=0")).isEqualTo("identity");
+        assertThat(compression.negotiate("gzip", null)).isEqualTo("identity");
+        assertThatThrownBy(() -> compression.negotiate("br", "br"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void everyEventCanBeDecodedAsSoonAsItIsWritten() throws IOException, DataFormatException {
+        List<String> deltas = deltas(50);
+        for (String coding : List.of("gzip", "deflate")) {
+            ByteArrayOutputStream wire = new ByteArrayOutputStream();
+            Inflater inflater = new Inflater("gzip".equals(coding));
+            int read = "gzip".equals(coding) ? GZIP_HEADER_BYTES : 0;
+
+            try (EventStreamCompression.Writer writer = compression.open(wire, coding)) {
+                for (int i = 0; i < deltas.size(); i++) {
+                    writer.event(Integer.toString(i + 1), null, deltas.get(i));
+
+                    byte[] sent = wire.toByteArray();
+                    inflater.setInput(Arrays.copyOfRange(sent, read, sent.length));
+                    read = sent.length;
+
+                    assertThat(inflate(inflater)).isEqualTo("id:" + (i + 1) + "\ndata:"
+                            + deltas.get(i).replace("\n", "\ndata:") + "\n\n");
+                }
+            }
+            inflater.end();
+        }
+    }
+
+    @Test
+    void compressedStreamsUseFewerBytesAndFlushEveryEvent() throws IOException {
+        List<String> deltas = deltas(2_000);
+        CountingOutputStream identity = write("identity", deltas);
+
+        for (String coding : List.of("gzip", "deflate")) {
+            CountingOutputStream compressed = write(coding, deltas);
+
+            assertThat(compressed.bytes).as(coding).isLessThan(identity.bytes / 2);
+            assertThat(compressed.flushes).as(coding).isGreaterThanOrEqualTo(deltas.size());
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void flushLatencyBenchmark() throws IOException {
+        List<String> deltas = deltas(2_000);
+        for (String coding : List.of("identity", "gzip", "deflate")) {
+            Result result = measure(coding, deltas);
+            log.info("{} {} bytes on the wire, flush latency p50 {} us, p99 {} us", coding, result.bytes(),
+                    result.p50Nanos() / 1_000, result.p99Nanos() / 1_000);
+        }
+    }
+
+    /**
+     * Write every delta as an event with the given coding
+     */
+    private CountingOutputStream write(String coding, List<String> deltas) throws IOException {
+        CountingOutputStream wire = new CountingOutputStream();
+        try (EventStreamCompression.Writer writer = compression.open(wire, coding)) {
+            for (int i = 0; i < deltas.size(); i++) {
+                writer.event(Integer.toString(i + 1), null, deltas.get(i));
+            }
+        }
+        return wire;
+    }
+
+    /**
+     * Bytes on the wire and per-event write and flush latency, best of the measured rounds after warming up
+     */
+    private Result measure(String coding, List<String> deltas) throws IOException {
+        Result best = null;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            CountingOutputStream wire = new CountingOutputStream();
+            long[] latencies = new long[deltas.size()];
+
+            try (EventStreamCompression.Writer writer = compression.open(wire, coding)) {
+                for (int i = 0; i < deltas.size(); i++) {
+                    long start = System.nanoTime();
+                    writer.event(Integer.toString(i + 1), null, deltas.get(i));
+                    latencies[i] = System.nanoTime() - start;
+                }
+            }
+
+            Arrays.sort(latencies);
+            Result result = new Result(wire.bytes, latencies[latencies.length / 2],
+                    latencies[latencies.length * 99 / 100]);
+            if (round >= WARMUP_ROUNDS && (best == null || result.p50Nanos() < best.p50Nanos())) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    private static String inflate(Inflater inflater) throws DataFormatException {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = inflater.inflate(buffer)) > 0) {
+            decoded.write(buffer, 0, n);
+        }
+        return decoded.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Deltas of a markdown answer with prose, lists and code blocks, 64 to 512 bytes each like flushed deltas
+     */
+    private static List<String> deltas(int count) {
+        Random random = new Random(42);
+        String[] words = {"the", "service", "task", "stream", "request", "database", "configure", "deploy",
+                "pipeline", "container", "endpoint", "returns", "cache", "should", "with", "and", "for", "each"};
+        StringBuilder document = new StringBuilder();
+        while (document.length() < count * 300) {
+            document.append("## Step ").append(random.nextInt(20)).append("\n\n");
+            for (int sentence = 0; sentence < 4; sentence++) {
+                for (int word = 0; word < 12; word++) {
+                    document.append(words[random.nextInt(words.length)]).append(' ');
+                }
+                document.append("value").append(random.nextInt(1000)).append(".\n");
+            }
+            document.append("\n- Configure the ").append(words[random.nextInt(words.length)]).append('\n');
+            document.append("- Verify the ").append(words[random.nextInt(words.length)]).append("\n\n");
+            document.append("```java\n@Service\npublic class TaskService").append(random.nextInt(100)).append(" {\n")
+                    .append("    private final TaskRepository taskRepository;\n\n")
+                    .append("    public Task findTask(String taskId) {\n")
+                    .append("        return taskRepository.findById(taskId).orElseThrow();\n    }\n}\n```\n\n");
+        }
+
+        List<String> deltas = new ArrayList<>();
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            int end = Math.min(document.length(), position + 64 + random.nextInt(449));
+            deltas.add(document.substring(position, end));
+            position = end;
+        }
+        return deltas;
+    }
+
+    private record Result(long bytes, long p50Nanos, long p99Nanos) {
+    }
+
+    /**
+     * Counts what would be written to the socket
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long bytes;
+        private int flushes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.vos.CursorPage;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetPaginationTests {
+
+    private final KeysetPagination pagination = new KeysetPagination(2, 3);
+
+    @Test
+    void cursorsRoundTripTheKeyOfTheLastRow() {
+        KeysetPagination.Cursor cursor = new KeysetPagination.Cursor(
+                LocalDateTime.of(2026, 1, 2, 3, 4, 5, 123_456_000), "2f1c-é");
+
+        assertThat(pagination.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(cursor.encode()).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void firstPageHasNoCursor() {
+        assertThat(pagination.decode(null)).isNull();
+        assertThat(pagination.decode(" ")).isNull();
+    }
+
+    @Test
+    void rejectsInvalidCursorsAndSizes() {
+        assertThatThrownBy(() -> pagination.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pagination.decode("bm9zZXBhcmF0b3I")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pagination.pageSize(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void capsThePageSize() {
+        assertThat(pagination.pageSize(null)).isEqualTo(2);
+        assertThat(pagination.pageSize(100)).isEqualTo(3);
+        assertThat(pagination.fetchSize(null)).isEqualTo(3);
+    }
+
+    @Test
+    void extraRowMeansAnotherPageFollows() {
+        List<Row> rows = List.of(row(3, "c"), row(2, "b"), row(1, "a"));
+
+        CursorPage<Row> page = pagination.page(rows, null, Row::createdAt, Row::id);
+
+        assertThat(page.getItems()).containsExactly(row(3, "c"), row(2, "b"));
+        assertThat(pagination.decode(page.getNextCursor())).isEqualTo(new KeysetPagination.Cursor(row(2, "b").createdAt(), "b"));
+    }
+
+    @Test
+    void lastPageHasNoNextCursor() {
+        CursorPage<Row> page = pagination.page(List.of(row(1, "a")), null, Row::createdAt, Row::id);
+
+        assertThat(page.getItems()).containsExactly(row(1, "a"));
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.map(Row::id).getItems()).containsExactly("a");
+    }
+
+    private static Row row(int minute, String id) {
+        return new Row(LocalDateTime.of(2026, 1, 1, 0, minute), id);
+    }
+
+    private record Row(LocalDateTime createdAt, String id) {
+    }
+}
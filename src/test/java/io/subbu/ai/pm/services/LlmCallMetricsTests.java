@@ -0,0 +1,53 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class LlmCallMetricsTests {
+
+    @Test
+    void countsTokensSavedByCancelledStreams() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LlmCallMetrics metrics = new LlmCallMetrics(registry, mock(DataSource.class), 100, "model");
+
+        metrics.recordStream("execution-stream", Flux.range(0, 1000).map(String::valueOf))
+                .take(30)
+                .blockLast();
+
+        assertThat(registry.get("agent.llm.streams.cancelled").counter().count()).isEqualTo(1);
+        assertThat(registry.get("agent.llm.tokens.saved").counter().count()).isEqualTo(70);
+    }
+
+    @Test
+    void completedStreamsSaveNothing() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LlmCallMetrics metrics = new LlmCallMetrics(registry, mock(DataSource.class), 100, "model");
+
+        metrics.recordStream("execution-stream", Flux.just("a", "b")).blockLast();
+
+        assertThat(registry.find("agent.llm.streams.cancelled").counter()).isNull();
+        assertThat(registry.find("agent.llm.tokens.saved").counter()).isNull();
+    }
+
+    @Test
+    void recordsTokenTimingPerAgentAndModel() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LlmCallMetrics metrics = new LlmCallMetrics(registry, mock(DataSource.class), 100, "gpt-test");
+
+        metrics.recordTokens("Software Engineer", Flux.just("a", "b", "c").delayElements(Duration.ofMillis(20)))
+                .blockLast();
+
+        assertThat(registry.get("agent.llm.stream.ttft").tag("agent", "Software Engineer").tag("model", "gpt-test")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("agent.llm.stream.inter.token.latency").timer().count()).isEqualTo(2);
+        assertThat(registry.get("agent.llm.stream.tokens.per.second").summary().count()).isEqualTo(1);
+        assertThat(registry.get("agent.llm.stream.tokens.per.second").summary().max()).isBetween(1.0, 100.0);
+    }
+}
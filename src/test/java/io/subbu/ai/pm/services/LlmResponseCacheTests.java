@@ -0,0 +1,74 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.subbu.ai.pm.vos.TaskExecutionResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LlmResponseCacheTests {
+
+    @Test
+    void servesExactMatchesOnly() {
+        LlmResponseCache cache = cache(true, 60);
+        cache.put("DevOps Engineer", prompt("system", "Set up CI"), new TaskExecutionResult("result", 8000));
+
+        assertThat(cache.get("DevOps Engineer", prompt("system", "Set up CI"), false))
+                .map(TaskExecutionResult::getResult)
+                .contains("result");
+        assertThat(cache.get("DevOps Engineer", prompt("system", "Set up CD"), false)).isEmpty();
+        assertThat(cache.get("DevOps Engineer", prompt("other system", "Set up CI"), false)).isEmpty();
+        assertThat(cache.get("Technical Lead", prompt("system", "Set up CI"), false)).isEmpty();
+    }
+
+    @Test
+    void keyDependsOnGenerationSettings() {
+        LlmResponseCache cold = new LlmResponseCache(new SimpleMeterRegistry(), true, 10, 60, 512, "model-a", "0.2");
+        LlmResponseCache warm = new LlmResponseCache(new SimpleMeterRegistry(), true, 10, 60, 512, "model-a", "0.7");
+
+        assertThat(cold.key("DevOps Engineer", prompt("system", "user")))
+                .isNotEqualTo(warm.key("DevOps Engineer", prompt("system", "user")));
+    }
+
+    @Test
+    void honoursBypassAndTtl() {
+        LlmResponseCache cache = cache(true, 60);
+        cache.put("DevOps Engineer", prompt("system", "user"), new TaskExecutionResult("result", 10));
+        assertThat(cache.get("DevOps Engineer", prompt("system", "user"), true)).isEmpty();
+
+        LlmResponseCache expiring = cache(true, 0);
+        expiring.put("DevOps Engineer", prompt("system", "user"), new TaskExecutionResult("result", 10));
+        assertThat(expiring.get("DevOps Engineer", prompt("system", "user"), false)).isEmpty();
+    }
+
+    @Test
+    void disabledByDefault() {
+        LlmResponseCache cache = cache(false, 60);
+        cache.put("DevOps Engineer", prompt("system", "user"), new TaskExecutionResult("result", 10));
+
+        assertThat(cache.get("DevOps Engineer", prompt("system", "user"), false)).isEmpty();
+    }
+
+    @Test
+    void replaysInChunks() {
+        String result = "x".repeat(1200);
+
+        List<String> chunks = cache(true, 60).replay(result).collectList().block();
+
+        assertThat(chunks).hasSize(3);
+        assertThat(String.join("", chunks)).isEqualTo(result);
+    }
+
+    private static LlmResponseCache cache(boolean enabled, long ttlMinutes) {
+        return new LlmResponseCache(new SimpleMeterRegistry(), enabled, 10, ttlMinutes, 512, "model", "0.7");
+    }
+
+    private static Prompt prompt(String system, String user) {
+        return new Prompt(List.of(new SystemMessage(system), new UserMessage(user)));
+    }
+}
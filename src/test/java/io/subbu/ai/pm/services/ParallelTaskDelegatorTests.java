@@ -0,0 +1,244 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.subbu.ai.pm.agents.ProjectManagerAgent;
+import io.subbu.ai.pm.services.ParallelTaskDelegator.Delegation;
+import io.subbu.ai.pm.vos.Task;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+class ParallelTaskDelegatorTests {
+
+    private static final long ROUND_TRIP_MS = 200;
+    private static final int TASK_COUNT = 12;
+
+    @Test
+    void delegatesInParallelAndKeepsTaskOrder() {
+        // Every delegation waits until all of them are in flight, which only happens if they run in parallel
+        CountDownLatch allInFlight = new CountDownLatch(TASK_COUNT);
+        ProjectManagerAgent agent = mock(ProjectManagerAgent.class);
+        when(agent.delegateTask(any())).thenAnswer(invocation -> {
+            allInFlight.countDown();
+            if (!allInFlight.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Delegations did not run in parallel");
+            }
+            Task task = invocation.getArgument(0);
+            return "role-" + task.getId();
+        });
+
+        List<Task> tasks = tasks(TASK_COUNT);
+        List<String> roles = roles(delegator(agent, TASK_COUNT, "per-task").delegateAll(tasks));
+
+        assertThat(roles).containsExactlyElementsOf(tasks.stream().map(t -> "role-" + t.getId()).toList());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void parallelDelegationBenchmark() {
+        ProjectManagerAgent agent = mock(ProjectManagerAgent.class);
+        when(agent.delegateTask(any())).thenAnswer(invocation -> {
+            Thread.sleep(ROUND_TRIP_MS);
+            return "Software Engineer";
+        });
+        ParallelTaskDelegator delegator = delegator(agent, TASK_COUNT, "per-task");
+
+        long start = System.nanoTime();
+        delegator.delegateAll(tasks(TASK_COUNT));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        log.info("Delegated {} tasks in {} ms (sequential baseline: {} ms)",
+                TASK_COUNT, elapsedMs, TASK_COUNT * ROUND_TRIP_MS);
+    }
+
+    @Test
+    void respectsConcurrencyCap() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        ProjectManagerAgent agent = mock(ProjectManagerAgent.class);
+        when(agent.delegateTask(any())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return "Software Engineer";
+        });
+
+        delegator(agent, 3, "per-task").delegateAll(tasks(TASK_COUNT));
+
+        assertThat(peak.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void failureCancelsSiblings() {
+        AtomicInteger completed = new AtomicInteger();
+
+        ProjectManagerAgent agent = mock(ProjectManagerAgent.class);
+        when(agent.delegateTask(any())).thenAnswer(invocation -> {
+            Task task = invocation.getArgument(0);
+            if ("task-0".equals(task.getId())) {
+                throw new IllegalStateException("LLM unavailable");
+            }
+            Thread.sleep(5_000);
+            completed.incrementAndGet();
+            return "Software Engineer";
+        });
+
+        assertThatThrownBy(() -> delegator(agent, TASK_COUNT, "per-task").delegateAll(tasks(TASK_COUNT)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("LLM unavailable");
+
+        // The scope has joined the interrupted siblings when the failure is thrown
+        assertThat(completed.get()).isZero();
+    }
+
+    @Test
+    void batchModeFallsBackOnlyForUnparsedEntries() {
+        List<Task> tasks = tasks(3);
+
+        ProjectManagerAgent agent = mock(ProjectManagerAgent.class);
+        when(agent.delegateTasks(tasks)).thenReturn(Map.of(0, "DevOps Engineer", 2, "Technical Lead"));
+        when(agent.delegateTask(tasks.get(1))).thenReturn("Software Engineer");
+
+        List<String> roles = roles(delegator(agent, 4, "batch").delegateAll(tasks));
+
+        assertThat(roles).containsExactly("DevOps Engineer", "Software Engineer", "Technical Lead");
+        verify(agent, times(1)).delegateTask(tasks.get(1));
+        verify(agent, never()).delegateTask(tasks.get(0));
+        verify(agent, never()).delegateTask(tasks.get(2));
+    }
+
+    @Test
+    void confidentlyClassifiedTasksSkipTheLlm() {
+        List<Task> tasks = tasks(2);
+
+        ProjectManagerAgent agent = mock(ProjectManagerAgent.class);
+        when(agent.delegateTask(tasks.get(1))).thenReturn("Technical Lead");
+        DelegationClassifier classifier = mock(DelegationClassifier.class);
+        when(classifier.classifyConfidently(tasks.get(0).getDescription())).thenReturn(Optional.of("DevOps Engineer"));
+        when(classifier.classifyConfidently(tasks.get(1).getDescription())).thenReturn(Optional.empty());
+
+        List<Delegation> delegations = new ParallelTaskDelegator(agent, classifier, passThroughCache(),
+                new SimpleMeterRegistry(), 4, "per-task").delegateAll(tasks);
+
+        assertThat(delegations).containsExactly(
+                new Delegation("DevOps Engineer", ParallelTaskDelegator.SOURCE_CLASSIFIER),
+                new Delegation("Technical Lead", ParallelTaskDelegator.SOURCE_LLM));
+        verify(agent, never()).delegateTask(tasks.get(0));
+    }
+
+    private static ParallelTaskDelegator delegator(ProjectManagerAgent agent, int maxConcurrency, String mode) {
+        DelegationClassifier classifier = mock(DelegationClassifier.class);
+        when(classifier.classifyConfidently(any())).thenReturn(Optional.empty());
+        return new ParallelTaskDelegator(agent, classifier, passThroughCache(), new SimpleMeterRegistry(),
+                maxConcurrency, mode);
+    }
+
+    @Test
+    void cachedTasksSkipTheLlmInBatchMode() {
+        List<Task> tasks = tasks(2);
+
+        ProjectManagerAgent agent = mock(ProjectManagerAgent.class);
+        when(agent.delegateTasks(List.of(tasks.get(1)))).thenReturn(Map.of(0, "Technical Lead"));
+        DelegationClassifier classifier = mock(DelegationClassifier.class);
+        when(classifier.classifyConfidently(any())).thenReturn(Optional.empty());
+        DelegationCache cache = passThroughCache();
+        when(cache.lookup(tasks.get(0).getDescription())).thenReturn(Optional.of("DevOps Engineer"));
+
+        List<Delegation> delegations = new ParallelTaskDelegator(agent, classifier, cache, new SimpleMeterRegistry(),
+                4, "batch").delegateAll(tasks);
+
+        assertThat(delegations).containsExactly(
+                new Delegation("DevOps Engineer", ParallelTaskDelegator.SOURCE_CACHE),
+                new Delegation("Technical Lead", ParallelTaskDelegator.SOURCE_LLM));
+        verify(cache).put(tasks.get(1).getDescription(), "Technical Lead");
+        verify(agent, never()).delegateTask(any());
+    }
+
+    @Test
+    void tasksSharingAnLlmCallAreCountedAsCached() {
+        List<Task> tasks = List.of(new Task("task-0", "Write the API", "UNKNOWN"),
+                new Task("task-1", "Write the API", "UNKNOWN"));
+
+        ProjectManagerAgent agent = mock(ProjectManagerAgent.class);
+        when(agent.delegateTask(any())).thenReturn("Software Engineer");
+        DelegationCache cache = passThroughCache();
+        // The second task waits for the call of the first one instead of asking the LLM itself
+        doAnswer(new Answer<String>() {
+            private boolean loaded;
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public synchronized String answer(InvocationOnMock invocation) {
+                if (loaded) {
+                    return "Software Engineer";
+                }
+                loaded = true;
+                return ((Supplier<String>) invocation.getArgument(1)).get();
+            }
+        }).when(cache).load(eq("Write the API"), any());
+        DelegationClassifier classifier = mock(DelegationClassifier.class);
+        when(classifier.classifyConfidently(any())).thenReturn(Optional.empty());
+
+        List<Delegation> delegations = new ParallelTaskDelegator(agent, classifier, cache, new SimpleMeterRegistry(),
+                4, "per-task").delegateAll(tasks);
+
+        assertThat(delegations).extracting(Delegation::source)
+                .containsExactlyInAnyOrder(ParallelTaskDelegator.SOURCE_LLM, ParallelTaskDelegator.SOURCE_CACHE);
+        verify(agent, times(1)).delegateTask(any());
+    }
+
+    @Test
+    void unparsableAnswersGetTheDefaultRole() {
+        List<Task> tasks = tasks(1);
+
+        ProjectManagerAgent agent = mock(ProjectManagerAgent.class);
+        when(agent.delegateTask(any())).thenReturn(null);
+
+        List<Delegation> delegations = delegator(agent, 4, "per-task").delegateAll(tasks);
+
+        assertThat(delegations).containsExactly(
+                new Delegation(ParallelTaskDelegator.DEFAULT_ROLE, ParallelTaskDelegator.SOURCE_DEFAULT));
+    }
+
+    private static List<String> roles(List<Delegation> delegations) {
+        return delegations.stream().map(Delegation::role).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DelegationCache passThroughCache() {
+        DelegationCache cache = mock(DelegationCache.class);
+        when(cache.lookup(any())).thenReturn(Optional.empty());
+        when(cache.load(any(), any())).thenAnswer(invocation -> ((Supplier<String>) invocation.getArgument(1)).get());
+        return cache;
+    }
+
+    private static List<Task> tasks(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Task("task-" + i, "Task " + i, "UNKNOWN"))
+                .toList();
+    }
+}
@@ -0,0 +1,60 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.vos.ProjectJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProjectJobServiceTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final AgentOrchestrationService orchestration = mock(AgentOrchestrationService.class);
+    private ProjectJobService service;
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void finishedJobsStayQueryableWithinTheRetention() {
+        when(orchestration.processProjectRequest(eq("Build a shop"), any())).thenReturn(Map.of());
+        service = new ProjectJobService(orchestration, 1, 10, 30);
+
+        String jobId = service.submit("Build a shop").getJobId();
+        service.streamJob(jobId).blockLast(TIMEOUT);
+
+        assertThat(service.getJob(jobId).getStatus()).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void expiredJobsAreNotFound() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(orchestration.processProjectRequest(eq("Build a shop"), any())).thenAnswer(invocation -> {
+            release.await();
+            return Map.of();
+        });
+        service = new ProjectJobService(orchestration, 1, 10, 0);
+
+        String jobId = service.submit("Build a shop").getJobId();
+        Flux<ProjectJob> updates = service.streamJob(jobId);
+        release.countDown();
+
+        assertThat(updates.blockLast(TIMEOUT).getStatus()).isEqualTo("COMPLETED");
+        assertThatThrownBy(() -> service.getJob(jobId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Job not found");
+    }
+}
@@ -0,0 +1,111 @@
+package io.subbu.ai.pm.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class StreamAccumulatorTests {
+
+    private static final int[] CHUNK_COUNTS = {1_000, 5_000, 10_000, 20_000};
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    @Test
+    void accumulatesChunksInOrder() {
+        StreamAccumulator accumulator = new StreamAccumulator();
+        accumulator.append("Hello").append(", ").append(null).append("");
+
+        assertThat(accumulator.toString()).isEqualTo("Hello, ");
+
+        accumulator.append("world");
+
+        assertThat(accumulator.toString()).isEqualTo("Hello, world");
+        assertThat(accumulator.length()).isEqualTo(12);
+    }
+
+    @Test
+    void matchesStringConcatenation() {
+        List<String> chunks = chunks(CHUNK_COUNTS[CHUNK_COUNTS.length - 1]);
+
+        assertThat(accumulate(chunks)).isEqualTo(concatenate(chunks));
+    }
+
+    @Test
+    void materializesOnceUntilTheNextAppend() {
+        StreamAccumulator accumulator = new StreamAccumulator();
+        chunks(1_000).forEach(accumulator::append);
+
+        String first = accumulator.toString();
+
+        assertThat(accumulator.toString()).isSameAs(first);
+        accumulator.append("!");
+        assertThat(accumulator.toString()).isEqualTo(first + "!");
+        assertThat(accumulator.length()).isEqualTo(first.length() + 1);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void accumulationBenchmark() {
+        for (int chunkCount : CHUNK_COUNTS) {
+            List<String> chunks = chunks(chunkCount);
+
+            long concat = measure(chunks, StreamAccumulatorTests::concatenate);
+            long accumulator = measure(chunks, StreamAccumulatorTests::accumulate);
+
+            log.info("{} chunks: AtomicReference concat {} us, StreamAccumulator {} us",
+                    chunkCount, concat / 1_000, accumulator / 1_000);
+        }
+    }
+
+    private static String concatenate(List<String> chunks) {
+        AtomicReference<String> fullResult = new AtomicReference<>("");
+        for (String chunk : chunks) {
+            fullResult.updateAndGet(current -> current + chunk);
+        }
+        return fullResult.get();
+    }
+
+    private static String accumulate(List<String> chunks) {
+        StreamAccumulator fullResult = new StreamAccumulator();
+        for (String chunk : chunks) {
+            fullResult.append(chunk);
+        }
+        return fullResult.toString();
+    }
+
+    /**
+     * Best time in nanoseconds over the measured rounds, after warming up
+     */
+    private static long measure(List<String> chunks, Function<List<String>, String> accumulation) {
+        int expectedLength = chunks.stream().mapToInt(String::length).sum();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            assertThat(accumulation.apply(chunks)).hasSize(expectedLength);
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            String result = accumulation.apply(chunks);
+            best = Math.min(best, System.nanoTime() - start);
+            assertThat(result).hasSize(expectedLength);
+        }
+        return best;
+    }
+
+    /**
+     * Token-sized chunks, like the deltas of a streamed LLM response
+     */
+    private static List<String> chunks(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> " tok" + (i % 10))
+                .toList();
+    }
+}
@@ -0,0 +1,147 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.subbu.ai.pm.repos.TaskRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+class TaskCheckpointerTests {
+
+    @Test
+    void batchesOutputUntilTheSizeThreshold() {
+        TaskRepository repository = repository(1);
+        TaskCheckpointer.Checkpoint checkpoint = checkpointer(repository, 10, Duration.ofHours(1)).start("task-1", 0);
+
+        checkpoint.append("hello");
+        checkpoint.append("world!");
+        checkpoint.append("tail");
+        checkpoint.pendingWrites().join();
+
+        verify(repository).claimGeneration("task-1", generation(repository), 0);
+        verify(repository).appendCheckpoint(eq("task-1"), anyString(), eq("helloworld!"), eq(0L), eq(11L));
+        verifyNoMoreInteractions(repository);
+        assertThat(checkpoint.bytes()).isEqualTo(15);
+    }
+
+    @Test
+    void continuesAfterTheStoredOffsetInUtf8Bytes() {
+        TaskRepository repository = repository(1);
+        TaskCheckpointer.Checkpoint checkpoint = checkpointer(repository, 1024, Duration.ZERO).start("task-1", 100);
+
+        checkpoint.append("é");
+        checkpoint.append("a");
+        checkpoint.pendingWrites().join();
+
+        verify(repository).claimGeneration(eq("task-1"), anyString(), eq(100L));
+        verify(repository).appendCheckpoint(eq("task-1"), anyString(), eq("é"), eq(100L), eq(102L));
+        verify(repository).appendCheckpoint(eq("task-1"), anyString(), eq("a"), eq(102L), eq(103L));
+    }
+
+    @Test
+    void flushWritesTheRemainingOutput() {
+        TaskRepository repository = repository(1);
+        TaskCheckpointer.Checkpoint checkpoint = checkpointer(repository, 1024, Duration.ofHours(1)).start("task-1", 0);
+
+        checkpoint.append("partial");
+        checkpoint.flush();
+        checkpoint.pendingWrites().join();
+
+        verify(repository).appendCheckpoint(eq("task-1"), anyString(), eq("partial"), eq(0L), eq(7L));
+    }
+
+    @Test
+    void stopsOnceACheckpointIsIgnored() {
+        TaskRepository repository = repository(0);
+        TaskCheckpointer.Checkpoint checkpoint = checkpointer(repository, 1, Duration.ZERO).start("task-1", 0);
+
+        checkpoint.append("a");
+        checkpoint.pendingWrites().join();
+        checkpoint.append("b");
+        checkpoint.pendingWrites().join();
+
+        verify(repository, times(1)).appendCheckpoint(anyString(), anyString(), anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void writesNothingIfTheTaskCannotBeClaimed() {
+        TaskRepository repository = repository(1);
+        when(repository.claimGeneration(anyString(), anyString(), anyLong())).thenReturn(0);
+        TaskCheckpointer.Checkpoint checkpoint = checkpointer(repository, 1, Duration.ZERO).start("task-1", 0);
+
+        checkpoint.append("a");
+        checkpoint.cancel();
+        checkpoint.pendingWrites().join();
+
+        verify(repository, never()).appendCheckpoint(anyString(), anyString(), anyString(), anyLong(), anyLong());
+        verify(repository, never()).markCancelled(anyString(), anyString());
+    }
+
+    @Test
+    void cancelWritesTheRemainingOutputAsTheClaimingGeneration() {
+        TaskRepository repository = repository(1);
+        TaskCheckpointer.Checkpoint checkpoint = checkpointer(repository, 1024, Duration.ofHours(1)).start("task-1", 0);
+
+        checkpoint.append("partial");
+        checkpoint.cancel();
+        checkpoint.append("late");
+        checkpoint.flush();
+        checkpoint.pendingWrites().join();
+
+        String generation = generation(repository);
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).claimGeneration("task-1", generation, 0);
+        inOrder.verify(repository).appendCheckpoint("task-1", generation, "partial", 0, 7);
+        inOrder.verify(repository).markCancelled("task-1", generation);
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void writesOutputOnTimeWhenTheModelStalls() {
+        TaskRepository repository = repository(1);
+        TaskCheckpointer.Checkpoint checkpoint = checkpointer(repository, 1024, Duration.ofMillis(50)).start("task-1", 0);
+
+        checkpoint.append("last tokens");
+
+        verify(repository, timeout(2_000)).appendCheckpoint(eq("task-1"), anyString(), eq("last tokens"), eq(0L), eq(11L));
+    }
+
+    /**
+     * The generation ID a checkpoint claimed the task with
+     */
+    private static String generation(TaskRepository repository) {
+        ArgumentCaptor<String> generation = ArgumentCaptor.forClass(String.class);
+        verify(repository, atLeastOnce()).claimGeneration(anyString(), generation.capture(), anyLong());
+        return generation.getValue();
+    }
+
+    private static TaskRepository repository(int updatedRows) {
+        TaskRepository repository = mock(TaskRepository.class);
+        when(repository.claimGeneration(anyString(), anyString(), anyLong())).thenReturn(1);
+        when(repository.appendCheckpoint(anyString(), anyString(), anyString(), anyLong(), anyLong())).thenReturn(updatedRows);
+        when(repository.markCancelled(anyString(), anyString())).thenReturn(1);
+        return repository;
+    }
+
+    private static TaskCheckpointer checkpointer(TaskRepository repository, long checkpointBytes, Duration interval) {
+        return new TaskCheckpointer(repository, new SimpleMeterRegistry(), checkpointBytes, interval,
+                Executors.newVirtualThreadPerTaskExecutor(), Executors.newSingleThreadScheduledExecutor());
+    }
+}
@@ -0,0 +1,210 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.models.TaskQueueEntity;
+import io.subbu.ai.pm.repos.TaskQueueRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Claims, leases, retries and completion of queue entries by two nodes sharing the queue
+ * Every service call commits, so the entries are deleted after each test.
+ * Runs against the PostgreSQL database configured in application.yaml, like the application test.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(TaskQueueServiceTests.QueueNodes.class)
+class TaskQueueServiceTests {
+
+    private static final int ENTRIES = 20;
+    private static final int MAX_ATTEMPTS = 2;
+    private static final long SIGNAL_TIMEOUT_SECONDS = 10;
+
+    @Autowired
+    @Qualifier("nodeA")
+    private TaskQueueService nodeA;
+
+    @Autowired
+    @Qualifier("nodeB")
+    private TaskQueueService nodeB;
+
+    @Autowired
+    private TaskQueueRepository taskQueueRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private final List<String> entries = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void deleteEntries() {
+        taskQueueRepository.deleteAllById(entries);
+    }
+
+    @Test
+    void concurrentClaimsNeverShareAnEntry() throws Exception {
+        for (int i = 0; i < ENTRIES; i++) {
+            enqueue();
+        }
+
+        List<String> claimed = new ArrayList<>();
+        try (ExecutorService workers = Executors.newFixedThreadPool(2)) {
+            Future<List<String>> claimedByA = workers.submit(() -> claimAll(nodeA));
+            Future<List<String>> claimedByB = workers.submit(() -> claimAll(nodeB));
+            claimed.addAll(claimedByA.get(SIGNAL_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            claimed.addAll(claimedByB.get(SIGNAL_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        }
+
+        assertThat(claimed).doesNotHaveDuplicates().containsAll(entries);
+    }
+
+    @Test
+    void expiredLeaseIsReclaimedByAnotherNode() {
+        String entryId = enqueue();
+        assertThat(claimAll(nodeA)).contains(entryId);
+        assertThat(claimAll(nodeB)).doesNotContain(entryId);
+
+        expireLease(entryId);
+
+        assertThat(claimAll(nodeB)).contains(entryId);
+        TaskQueueEntity entry = taskQueueRepository.findById(entryId).orElseThrow();
+        assertThat(entry.getLeaseOwner()).isEqualTo(nodeB.getNodeId());
+        assertThat(entry.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void heartbeatExtendsTheLease() {
+        String entryId = enqueue();
+        claimAll(nodeA);
+        expireLease(entryId);
+        LocalDateTime expired = taskQueueRepository.findById(entryId).orElseThrow().getLeaseExpiresAt();
+
+        nodeA.renewLeases(List.of(entryId));
+
+        TaskQueueEntity entry = taskQueueRepository.findById(entryId).orElseThrow();
+        assertThat(entry.getLeaseOwner()).isEqualTo(nodeA.getNodeId());
+        assertThat(entry.getLeaseExpiresAt()).isAfter(expired);
+        assertThat(claimAll(nodeB)).doesNotContain(entryId);
+    }
+
+    @Test
+    void failedEntryIsRetriedUpToTheLimitThenFailed() {
+        String entryId = enqueue();
+
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            TaskQueueEntity entry = claimAll(nodeA).stream()
+                    .filter(claimed -> claimed.equals(entryId))
+                    .findFirst()
+                    .flatMap(taskQueueRepository::findById)
+                    .orElseThrow();
+            assertThat(entry.getAttempts()).isEqualTo(attempt);
+
+            nodeA.fail(entry, new IllegalStateException("Attempt " + attempt + " failed"));
+        }
+
+        TaskQueueEntity entry = taskQueueRepository.findById(entryId).orElseThrow();
+        assertThat(entry.getStatus()).isEqualTo("FAILED");
+        assertThat(entry.getLastError()).isEqualTo("Attempt " + MAX_ATTEMPTS + " failed");
+        assertThat(claimAll(nodeA)).doesNotContain(entryId);
+        assertThatThrownBy(() -> nodeA.awaitCompletion(entryId))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Attempt " + MAX_ATTEMPTS + " failed");
+    }
+
+    @Test
+    void awaitCompletionWakesOnALocalCompletion() throws Exception {
+        // nodeA only polls every minute, so returning earlier means the local signal woke the producer
+        String entryId = enqueue();
+        claimAll(nodeA);
+        CompletableFuture<Void> awaited = CompletableFuture.runAsync(() -> nodeA.awaitCompletion(entryId));
+
+        nodeA.complete(entryId);
+
+        awaited.get(SIGNAL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertThat(taskQueueRepository.findById(entryId)).map(TaskQueueEntity::getStatus).contains("DONE");
+    }
+
+    @Test
+    void awaitCompletionWakesOnARemoteCompletion() throws Exception {
+        String entryId = enqueue();
+        claimAll(nodeA);
+        CompletableFuture<Void> awaited = CompletableFuture.runAsync(() -> nodeB.awaitCompletion(entryId));
+
+        nodeA.complete(entryId);
+
+        awaited.get(SIGNAL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private String enqueue() {
+        String entryId = nodeA.enqueue(UUID.randomUUID().toString(), false);
+        entries.add(entryId);
+        return entryId;
+    }
+
+    /**
+     * Claim one entry at a time until nothing is claimable, like a queue worker
+     * Entries of other tests or a running application sharing the database are claimed too.
+     */
+    private List<String> claimAll(TaskQueueService node) {
+        List<String> claimed = new ArrayList<>();
+        List<TaskQueueEntity> batch;
+        while (!(batch = node.claim(1)).isEmpty()) {
+            batch.forEach(entry -> claimed.add(entry.getId()));
+        }
+        return claimed;
+    }
+
+    private void expireLease(String entryId) {
+        jdbcTemplate.update("UPDATE task_queue SET lease_expires_at = LOCALTIMESTAMP - INTERVAL '1 second' WHERE id = ?",
+                entryId);
+    }
+
+    /**
+     * Two queue services with their own node IDs, as on two application instances
+     * nodeA only polls every minute; nodeB polls often so that it notices completions on nodeA.
+     */
+    @TestConfiguration
+    static class QueueNodes {
+
+        @Bean
+        TaskQueueService nodeA(TaskQueueRepository taskQueueRepository) {
+            return new TaskQueueService(taskQueueRepository, 60, MAX_ATTEMPTS, 0, 60_000, 60);
+        }
+
+        @Bean
+        TaskQueueService nodeB(TaskQueueRepository taskQueueRepository) {
+            return new TaskQueueService(taskQueueRepository, 60, MAX_ATTEMPTS, 0, 100, 60);
+        }
+    }
+}
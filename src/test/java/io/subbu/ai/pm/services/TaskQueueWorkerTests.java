@@ -0,0 +1,86 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.models.TaskQueueEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskQueueWorkerTests {
+
+    private static final long TIMEOUT_MS = 5000;
+
+    private final TaskQueueService taskQueueService = mock(TaskQueueService.class);
+    private final AgentOrchestrationService orchestration = mock(AgentOrchestrationService.class);
+    private final TaskQueueWorker worker = new TaskQueueWorker(taskQueueService, orchestration, 1, 10, 1);
+
+    @AfterEach
+    void tearDown() {
+        worker.stop();
+    }
+
+    @Test
+    void executedEntryIsCompleted() {
+        TaskQueueEntity entry = entry("entry-1", "task-1");
+        when(taskQueueService.claim(anyInt())).thenReturn(List.of(entry), List.of());
+
+        worker.start();
+
+        verify(orchestration, timeout(TIMEOUT_MS)).runTask("task-1", true);
+        verify(taskQueueService, timeout(TIMEOUT_MS)).complete("entry-1");
+        verify(taskQueueService, never()).fail(same(entry), any());
+    }
+
+    @Test
+    void failedExecutionIsReportedToTheQueue() {
+        TaskQueueEntity entry = entry("entry-1", "task-1");
+        IllegalStateException error = new IllegalStateException("LLM unavailable");
+        when(taskQueueService.claim(anyInt())).thenReturn(List.of(entry), List.of());
+        when(orchestration.runTask("task-1", true)).thenThrow(error);
+
+        worker.start();
+
+        verify(taskQueueService, timeout(TIMEOUT_MS)).fail(entry, error);
+        verify(taskQueueService, never()).complete("entry-1");
+    }
+
+    @Test
+    void heartbeatRenewsTheLeaseOfEntriesInProgress() {
+        TaskQueueEntity entry = entry("entry-1", "task-1");
+        CountDownLatch release = new CountDownLatch(1);
+        when(taskQueueService.claim(anyInt())).thenReturn(List.of(entry), List.of());
+        when(orchestration.runTask("task-1", true)).thenAnswer(invocation -> {
+            release.await();
+            return "done";
+        });
+
+        worker.start();
+        try {
+            verify(taskQueueService, timeout(TIMEOUT_MS)).renewLeases(Set.of("entry-1"));
+        } finally {
+            release.countDown();
+        }
+        verify(taskQueueService, timeout(TIMEOUT_MS)).complete("entry-1");
+    }
+
+    private static TaskQueueEntity entry(String id, String taskId) {
+        return TaskQueueEntity.builder()
+                .id(id)
+                .taskId(taskId)
+                .status("RUNNING")
+                .attempts(1)
+                .bypassCache(true)
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package io.subbu.ai.pm.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.subbu.ai.pm.vos.StreamDelta;
+import io.subbu.ai.pm.vos.TaskStreamFrame;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskStreamMultiplexerTests {
+
+    @Test
+    void streamsSeveralTasksOverOneChannel() {
+        AgentOrchestrationService orchestration = mock(AgentOrchestrationService.class);
+        when(orchestration.executeTaskStreamDelta(eq("task-1"), anyBoolean(), any()))
+                .thenReturn(Flux.just(new StreamDelta("g", 1, 0, "one")));
+        when(orchestration.executeTaskStreamDelta(eq("task-2"), anyBoolean(), any()))
+                .thenReturn(Flux.just(new StreamDelta("g", 3, 0, "two")));
+        List<TaskStreamFrame> frames = new CopyOnWriteArrayList<>();
+
+        TaskStreamMultiplexer.Channel channel = multiplexer(orchestration, 32).open(frames::add);
+        channel.subscribe("task-1", null, false, 4);
+        channel.subscribe("task-2", null, false, 4);
+
+        assertThat(frames).containsExactly(
+                TaskStreamFrame.delta("task-1", new StreamDelta("g", 1, 0, "one")),
+                TaskStreamFrame.complete("task-1"),
+                TaskStreamFrame.delta("task-2", new StreamDelta("g", 3, 0, "two")),
+                TaskStreamFrame.complete("task-2"));
+        assertThat(channel.openStreams()).isZero();
+    }
+
+    @Test
+    void sendsOnlyAsManyDeltasAsCredited() {
+        AgentOrchestrationService orchestration = mock(AgentOrchestrationService.class);
+        when(orchestration.executeTaskStreamDelta(eq("task-1"), anyBoolean(), any()))
+                .thenReturn(Flux.range(1, 5).map(i -> new StreamDelta("g", i, i - 1, "x")));
+        List<TaskStreamFrame> frames = new CopyOnWriteArrayList<>();
+
+        TaskStreamMultiplexer.Channel channel = multiplexer(orchestration, 32).open(frames::add);
+        channel.subscribe("task-1", null, false, 2);
+
+        assertThat(frames).extracting(TaskStreamFrame::getSeq).containsExactly(1L, 2L);
+
+        channel.credit("task-1", 10);
+
+        assertThat(frames).extracting(TaskStreamFrame::getType)
+                .containsExactly("delta", "delta", "delta", "delta", "delta", "complete");
+    }
+
+    @Test
+    void resumesAfterTheLastEventIdAndReportsErrors() {
+        AgentOrchestrationService orchestration = mock(AgentOrchestrationService.class);
+        when(orchestration.executeTaskStreamDelta("task-1", false, "g:7"))
+                .thenReturn(Flux.error(new IllegalStateException("Cannot resume after chunk 7")));
+        when(orchestration.executeTaskStreamDelta(eq("missing"), anyBoolean(), any()))
+                .thenThrow(new IllegalArgumentException("Task not found: missing"));
+        List<TaskStreamFrame> frames = new CopyOnWriteArrayList<>();
+
+        TaskStreamMultiplexer.Channel channel = multiplexer(orchestration, 32).open(frames::add);
+        channel.subscribe("task-1", "g:7", false, 1);
+        channel.subscribe("missing", null, false, 1);
+
+        assertThat(frames).containsExactly(
+                TaskStreamFrame.error("task-1", "Cannot resume after chunk 7"),
+                TaskStreamFrame.error("missing", "Task not found: missing"));
+    }
+
+    @Test
+    void closingTheChannelCancelsItsStreams() {
+        AgentOrchestrationService orchestration = mock(AgentOrchestrationService.class);
+        Sinks.Many<StreamDelta> deltas = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        when(orchestration.executeTaskStreamDelta(eq("task-1"), anyBoolean(), any()))
+                .thenReturn(deltas.asFlux().doOnCancel(() -> cancelled.set(true)));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        TaskStreamMultiplexer.Channel channel = new TaskStreamMultiplexer(orchestration, registry, 32)
+                .open(frame -> { });
+        channel.subscribe("task-1", null, false, 1);
+
+        assertThat(registry.get("agent.stream.multiplexed").gauge().value()).isEqualTo(1);
+
+        channel.close();
+
+        assertThat(cancelled).isTrue();
+        assertThat(registry.get("agent.stream.multiplexed").gauge().value()).isZero();
+    }
+
+    @Test
+    void limitsTheStreamsPerChannel() {
+        AgentOrchestrationService orchestration = mock(AgentOrchestrationService.class);
+        when(orchestration.executeTaskStreamDelta(eq("task-1"), anyBoolean(), any())).thenReturn(Flux.never());
+        List<TaskStreamFrame> frames = new CopyOnWriteArrayList<>();
+
+        TaskStreamMultiplexer.Channel channel = multiplexer(orchestration, 1).open(frames::add);
+        channel.subscribe("task-1", null, false, 1);
+        channel.subscribe("task-2", null, false, 1);
+
+        assertThat(frames).extracting(TaskStreamFrame::getTaskId, TaskStreamFrame::getType)
+                .containsExactly(tuple("task-2", "error"));
+        assertThat(channel.openStreams()).isEqualTo(1);
+    }
+
+    private static TaskStreamMultiplexer multiplexer(AgentOrchestrationService orchestration, int maxStreams) {
+        return new TaskStreamMultiplexer(orchestration, new SimpleMeterRegistry(), maxStreams);
+    }
+}
@@ -0,0 +1,197 @@
+package io.subbu.ai.pm.services;
+
+import io.subbu.ai.pm.vos.StreamDelta;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskStreamRegistryTests {
+
+    @Test
+    void laterSubscribersShareTheGenerationAndGetAReplay() {
+        TaskStreamRegistry registry = registry(100);
+        Sinks.Many<String> llm = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicInteger generations = new AtomicInteger();
+
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+
+        registry.attach("task-1", null, () -> {
+            generations.incrementAndGet();
+            return llm.asFlux();
+        }).map(StreamDelta::getText).subscribe(first::add);
+
+        llm.tryEmitNext("Hello ");
+        registry.attach("task-1", null, () -> {
+            generations.incrementAndGet();
+            return Flux.just("duplicate");
+        }).map(StreamDelta::getText).subscribe(second::add);
+        llm.tryEmitNext("world");
+        llm.tryEmitComplete();
+
+        assertThat(generations.get()).isEqualTo(1);
+        assertThat(first).containsExactly("Hello ", "world");
+        assertThat(second).containsExactly("Hello ", "world");
+    }
+
+    @Test
+    void resumesAfterLastEventIdWithoutNewGeneration() {
+        TaskStreamRegistry registry = registry(100);
+        Sinks.Many<String> llm = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicInteger generations = new AtomicInteger();
+
+        List<StreamDelta> dropped = new ArrayList<>();
+        registry.attach("task-1", null, () -> {
+            generations.incrementAndGet();
+            return llm.asFlux();
+        }).take(2).subscribe(dropped::add);
+
+        llm.tryEmitNext("a");
+        llm.tryEmitNext("bé");
+        llm.tryEmitNext("c");
+
+        List<StreamDelta> resumed = new ArrayList<>();
+        registry.find("task-1", dropped.getLast().eventId()).orElseThrow().subscribe(resumed::add);
+        llm.tryEmitNext("d");
+        llm.tryEmitComplete();
+
+        assertThat(generations.get()).isEqualTo(1);
+        assertThat(resumed).extracting(StreamDelta::getText).containsExactly("c", "d");
+        assertThat(resumed).extracting(StreamDelta::getSeq).containsExactly(3L, 4L);
+        // "bé" is three bytes in UTF-8
+        assertThat(resumed.getFirst().getOffset()).isEqualTo(4);
+    }
+
+    @Test
+    void subscribersOfAnEarlierGenerationStartOver() {
+        TaskStreamRegistry registry = registry(100);
+        List<StreamDelta> interrupted = new ArrayList<>();
+        registry.attach("task-1", null, () -> Flux.concat(Flux.just("a", "b"), Flux.error(new IllegalStateException("Node lost"))))
+                .onErrorComplete()
+                .subscribe(interrupted::add);
+
+        // The next generation starts with the checkpointed output, then continues it
+        List<StreamDelta> resumed = registry.attach("task-1", interrupted.getLast().eventId(),
+                () -> Flux.just("ab", "c", "d")).collectList().block();
+
+        assertThat(resumed).extracting(StreamDelta::getText).containsExactly("ab", "c", "d");
+        assertThat(resumed).extracting(StreamDelta::getSeq).containsExactly(1L, 2L, 3L);
+        assertThat(resumed.getFirst().getGeneration()).isNotEqualTo(interrupted.getFirst().getGeneration());
+    }
+
+    @Test
+    void keepsCompletedStreamsForTheGracePeriod() throws InterruptedException {
+        TaskStreamRegistry registry = new TaskStreamRegistry(100, Duration.ofMillis(200), Duration.ofMinutes(1),
+                Schedulers.parallel());
+
+        List<StreamDelta> chunks = registry.attach("task-1", null, () -> Flux.just("a", "b")).collectList().block();
+
+        assertThat(registry.find("task-1", chunks.getFirst().eventId()).orElseThrow()
+                .map(StreamDelta::getText).collectList().block())
+                .containsExactly("b");
+
+        Thread.sleep(500);
+
+        assertThat(registry.find("task-1", chunks.getFirst().eventId())).isEmpty();
+    }
+
+    @Test
+    void rejectsResumeBeyondTheReplayBuffer() {
+        TaskStreamRegistry registry = registry(2);
+        List<StreamDelta> chunks = registry.attach("task-1", null, () -> Flux.just("a", "b", "c", "d"))
+                .collectList().block();
+
+        assertThat(registry.find("task-1", chunks.get(1).eventId()).orElseThrow()
+                .map(StreamDelta::getText).collectList().block())
+                .containsExactly("c", "d");
+        assertThat(registry.find("task-1", chunks.getFirst().eventId()).orElseThrow().materialize().blockFirst().getThrowable())
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> registry.find("task-1", chunks.getFirst().getGeneration() + ":x"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void releasesFailedGenerationsImmediately() {
+        TaskStreamRegistry registry = registry(100);
+
+        registry.attach("task-1", null, () -> Flux.error(new IllegalStateException("LLM unavailable")))
+                .onErrorComplete()
+                .blockLast();
+
+        assertThat(registry.find("task-1", null)).isEmpty();
+    }
+
+    @Test
+    void generationKeepsRunningDuringTheCancelGrace() {
+        TaskStreamRegistry registry = registry(100);
+        Sinks.Many<String> llm = Sinks.many().unicast().onBackpressureBuffer();
+        List<String> saved = new ArrayList<>();
+
+        registry.attach("task-1", null, () -> llm.asFlux().doOnNext(saved::add))
+                .take(1)
+                .subscribe();
+
+        llm.tryEmitNext("a");
+        llm.tryEmitNext("b");
+        llm.tryEmitComplete();
+
+        assertThat(saved).containsExactly("a", "b");
+    }
+
+    @Test
+    void cancelsGenerationWhenTheLastSubscriberLeaves() throws InterruptedException {
+        TaskStreamRegistry registry = new TaskStreamRegistry(100, Duration.ofMinutes(1), Duration.ofMillis(50),
+                Schedulers.parallel());
+        Sinks.Many<String> llm = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        registry.attach("task-1", null, () -> llm.asFlux().doOnCancel(() -> cancelled.set(true)))
+                .take(1)
+                .subscribe();
+        llm.tryEmitNext("a");
+
+        Thread.sleep(500);
+
+        assertThat(cancelled).isTrue();
+        assertThat(registry.find("task-1", null)).isEmpty();
+    }
+
+    @Test
+    void resumingWithinTheCancelGraceKeepsTheGeneration() throws InterruptedException {
+        TaskStreamRegistry registry = new TaskStreamRegistry(100, Duration.ofMinutes(1), Duration.ofMillis(300),
+                Schedulers.parallel());
+        Sinks.Many<String> llm = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        List<StreamDelta> dropped = new CopyOnWriteArrayList<>();
+        registry.attach("task-1", null, () -> llm.asFlux().doOnCancel(() -> cancelled.set(true)))
+                .take(1)
+                .subscribe(dropped::add);
+        llm.tryEmitNext("a");
+
+        List<String> resumed = new CopyOnWriteArrayList<>();
+        registry.find("task-1", dropped.getFirst().eventId()).orElseThrow().map(StreamDelta::getText).subscribe(resumed::add);
+        Thread.sleep(600);
+        llm.tryEmitNext("b");
+        llm.tryEmitComplete();
+
+        assertThat(cancelled).isFalse();
+        assertThat(resumed).containsExactly("b");
+    }
+
+    private static TaskStreamRegistry registry(int replayBufferSize) {
+        return new TaskStreamRegistry(replayBufferSize, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                Schedulers.parallel());
+    }
+}